@@ -25,6 +25,10 @@ android {
             )
         }
     }
+    androidResources {
+        // Los modelos compactos se mapean en memoria directamente desde el APK
+        noCompress += "fam"
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
@@ -33,6 +37,7 @@ android {
 
 dependencies {
 
+    implementation(project(":core"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
@@ -0,0 +1,48 @@
+package com.example.fallalarm.ml;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import com.example.fallalarm.core.ml.Classifier;
+import com.example.fallalarm.core.ml.CompactModel;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Carga de modelos compactos desde assets
+ * Los modelos se empaquetan sin comprimir (ver noCompress en build.gradle.kts) para poder
+ * mapearlos directamente desde el APK sin copiarlos.
+ */
+public final class ModelAssets {
+    
+    private static final String TAG = "ModelAssets";
+    
+    public static final String PATTERN_MODEL = "models/motion_pattern.fam";
+    public static final String FALL_MODEL = "models/ml_fall.fam";
+    
+    private ModelAssets() {
+    }
+    
+    /**
+     * Devuelve el modelo del asset o el clasificador por reglas si no hay modelo o no es válido
+     */
+    public static Classifier loadOrDefault(Context context, String assetName, Classifier fallback) {
+        try (AssetFileDescriptor descriptor = context.getAssets().openFd(assetName);
+             FileInputStream in = descriptor.createInputStream();
+             FileChannel channel = in.getChannel()) {
+            CompactModel model = CompactModel.load(channel.map(FileChannel.MapMode.READ_ONLY,
+                    descriptor.getStartOffset(), descriptor.getDeclaredLength()));
+            Log.d(TAG, "Modelo cargado: " + assetName + " (tipo " + model.getType() + ")");
+            return model;
+        } catch (FileNotFoundException e) {
+            Log.d(TAG, "Sin modelo " + assetName + ", se usan las reglas");
+        } catch (IOException e) {
+            Log.e(TAG, "Modelo inválido " + assetName + ", se usan las reglas", e);
+        }
+        return fallback;
+    }
+}
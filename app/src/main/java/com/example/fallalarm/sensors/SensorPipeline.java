@@ -0,0 +1,200 @@
+package com.example.fallalarm.sensors;
+
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener2;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.fallalarm.core.metrics.PipelineMetrics;
+import com.example.fallalarm.core.sensors.SampleIngestor;
+import com.example.fallalarm.core.sensors.SensorClock;
+
+/**
+ * Adaptador de Android para la ingesta de sensores
+ * Registra cada sensor físico una sola vez y entrega los ejes crudos con su marca de tiempo a
+ * SampleIngestor (módulo core), que calcula los valores derivados y reparte la muestra
+ *
+ * Admite agrupación por hardware (maxReportLatency): los eventos llegan en ráfagas desde la
+ * FIFO del sensor y los detectores trabajan con la marca de tiempo de cada evento. Ante una
+ * sospecha se vacía la FIFO periódicamente para confirmar con baja latencia.
+ */
+public class SensorPipeline implements SensorEventListener2 {
+    
+    private static final String TAG = "SensorPipeline";
+    private static final long FLUSH_INTERVAL_MS = 100;
+    
+    private final SensorManager sensorManager;
+    private final Sensor accelerometer;
+    private final Sensor gyroscope;
+    private final SampleIngestor ingestor = new SampleIngestor();
+    private boolean isRunning = false;
+    private PipelineMetrics metrics;
+    
+    private Handler handler;
+    private int samplingPeriodUs;
+    private int maxReportLatencyUs = 0;
+    private long lowLatencyUntil = 0; // SystemClock.elapsedRealtime()
+    private final Runnable flushTask = this::flushWhileSuspicious;
+    
+    public SensorPipeline(SensorManager sensorManager) {
+        this.sensorManager = sensorManager;
+        this.accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+        this.gyroscope = sensorManager.getDefaultSensor(Sensor.TYPE_GYROSCOPE);
+    }
+    
+    /**
+     * Agrega un consumidor de muestras; debe llamarse antes de start()
+     */
+    public void addListener(SampleIngestor.SensorSampleListener listener) {
+        ingestor.addListener(listener);
+    }
+    
+    /**
+     * Registra la llegada, la latencia de entrega y el tiempo de reparto de cada muestra;
+     * debe llamarse antes de start()
+     */
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Reloj de eventos compartido por todos los detectores; avanza antes de repartir cada muestra
+     */
+    public SensorClock getClock() {
+        return ingestor.getClock();
+    }
+    
+    /**
+     * Ingesta compartida; el punto de control guarda su estimación de gravedad
+     */
+    public SampleIngestor getIngestor() {
+        return ingestor;
+    }
+    
+    public boolean hasAccelerometer() {
+        return accelerometer != null;
+    }
+    
+    public boolean hasGyroscope() {
+        return gyroscope != null;
+    }
+    
+    /**
+     * Registra los sensores entregando los eventos en el looper del handler indicado,
+     * de modo que todo el procesamiento de los detectores ocurre fuera del hilo principal.
+     * Con maxReportLatencyUs > 0 el hardware agrupa los eventos y despierta menos al procesador.
+     */
+    public void start(int samplingPeriodUs, int maxReportLatencyUs, Handler handler) {
+        if (isRunning || accelerometer == null) {
+            return;
+        }
+        this.handler = handler;
+        this.samplingPeriodUs = samplingPeriodUs;
+        this.maxReportLatencyUs = supportsBatching(accelerometer) ? maxReportLatencyUs : 0;
+        registerSensors();
+        isRunning = true;
+        Log.d(TAG, "Ingesta de sensores iniciada (giroscopio: " + (gyroscope != null)
+            + ", latencia máx. de lote: " + this.maxReportLatencyUs + " us)");
+    }
+    
+    /**
+     * Cambia la frecuencia de muestreo volviendo a registrar los sensores; el estado derivado
+     * (filtro de gravedad del ingestor) se conserva. Debe llamarse desde el hilo de sensores.
+     */
+    public void setSamplingPeriod(int samplingPeriodUs) {
+        if (!isRunning || samplingPeriodUs == this.samplingPeriodUs) {
+            return;
+        }
+        this.samplingPeriodUs = samplingPeriodUs;
+        sensorManager.unregisterListener(this);
+        registerSensors();
+        Log.d(TAG, "Frecuencia de muestreo cambiada a " + samplingPeriodUs);
+    }
+    
+    private void registerSensors() {
+        sensorManager.registerListener(this, accelerometer, samplingPeriodUs, maxReportLatencyUs, handler);
+        if (gyroscope != null) {
+            sensorManager.registerListener(this, gyroscope, samplingPeriodUs, maxReportLatencyUs, handler);
+        }
+    }
+    
+    public void stop() {
+        if (!isRunning) {
+            return;
+        }
+        sensorManager.unregisterListener(this);
+        handler.removeCallbacks(flushTask);
+        lowLatencyUntil = 0;
+        isRunning = false;
+        Log.d(TAG, "Ingesta de sensores detenida");
+    }
+    
+    private static boolean supportsBatching(Sensor sensor) {
+        return sensor.getFifoMaxEventCount() > 0;
+    }
+    
+    /**
+     * Solicita entrega inmediata de los eventos agrupados durante el tiempo indicado;
+     * se llama desde el hilo de sensores cuando un detector tiene un candidato que confirmar
+     */
+    public void requestLowLatency(long durationMs) {
+        if (!isRunning || maxReportLatencyUs == 0) {
+            return; // Sin agrupación los eventos ya llegan de inmediato
+        }
+        long now = SystemClock.elapsedRealtime();
+        boolean alreadyFlushing = now < lowLatencyUntil;
+        lowLatencyUntil = Math.max(lowLatencyUntil, now + durationMs);
+        if (!alreadyFlushing) {
+            sensorManager.flush(this);
+            handler.postDelayed(flushTask, FLUSH_INTERVAL_MS);
+        }
+    }
+    
+    private void flushWhileSuspicious() {
+        if (!isRunning || SystemClock.elapsedRealtime() >= lowLatencyUntil) {
+            return;
+        }
+        sensorManager.flush(this);
+        handler.postDelayed(flushTask, FLUSH_INTERVAL_MS);
+    }
+    
+    @Override
+    public void onSensorChanged(SensorEvent event) {
+        int type = event.sensor.getType();
+        if (type != Sensor.TYPE_ACCELEROMETER && type != Sensor.TYPE_GYROSCOPE) {
+            return;
+        }
+        if (metrics == null) {
+            dispatch(type, event);
+            return;
+        }
+        // event.timestamp está en el reloj de elapsedRealtimeNanos
+        long delivered = SystemClock.elapsedRealtimeNanos();
+        metrics.recordSample(type == Sensor.TYPE_ACCELEROMETER, event.timestamp, delivered);
+        long start = System.nanoTime();
+        dispatch(type, event);
+        metrics.recordProcessing(PipelineMetrics.Stage.INGEST, System.nanoTime() - start);
+    }
+    
+    private void dispatch(int type, SensorEvent event) {
+        float[] values = event.values;
+        if (type == Sensor.TYPE_ACCELEROMETER) {
+            ingestor.onAccelerometer(event.timestamp, values[0], values[1], values[2]);
+        } else {
+            ingestor.onGyroscope(event.timestamp, values[0], values[1], values[2]);
+        }
+    }
+    
+    @Override
+    public void onAccuracyChanged(Sensor sensor, int accuracy) {
+        // No se requiere acción específica
+    }
+    
+    @Override
+    public void onFlushCompleted(Sensor sensor) {
+        // Los eventos pendientes ya se entregaron en onSensorChanged
+    }
+}
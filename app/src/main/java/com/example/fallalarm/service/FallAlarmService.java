@@ -6,10 +6,15 @@ import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.app.Service;
 import android.content.Intent;
-import android.hardware.Sensor;
 import android.hardware.SensorManager;
 import android.os.Build;
+import android.os.FileObserver;
+import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.IBinder;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
 import android.os.Vibrator;
 import android.util.Log;
 
@@ -17,50 +22,181 @@ import androidx.core.app.NotificationCompat;
 
 import com.example.fallalarm.R;
 import com.example.fallalarm.broadcast.BootReceiver;
-import com.example.fallalarm.ml.MLFallDetector;
-import com.example.fallalarm.ml.MotionPatternAnalyzer;
-import com.example.fallalarm.sensors.FallDetector;
-import com.example.fallalarm.sensors.ShakeDetector;
+import com.example.fallalarm.core.config.DetectorConfig;
+import com.example.fallalarm.core.checkpoint.DetectorCheckpoint;
+import com.example.fallalarm.core.config.DetectorProfiles;
+import com.example.fallalarm.core.incident.IncidentRecord;
+import com.example.fallalarm.core.incident.IncidentStore;
+import com.example.fallalarm.core.incident.IncidentSummary;
+import com.example.fallalarm.core.metrics.PipelineMetrics;
+import com.example.fallalarm.core.ml.DetectionEventLog;
+import com.example.fallalarm.core.ml.DetectionFusionEngine;
+import com.example.fallalarm.core.ml.FallRuleClassifier;
+import com.example.fallalarm.core.ml.MLFallDetector;
+import com.example.fallalarm.core.ml.MotionFrameAligner;
+import com.example.fallalarm.core.ml.MotionPatternAnalyzer;
+import com.example.fallalarm.core.ml.MotionPatternStage;
+import com.example.fallalarm.core.ml.PatternRuleClassifier;
+import com.example.fallalarm.core.sensors.FallDetector;
+import com.example.fallalarm.core.sensors.SamplingRateController;
+import com.example.fallalarm.core.sensors.SensorClock;
+import com.example.fallalarm.core.sensors.ShakeDetector;
+import com.example.fallalarm.core.trace.TraceRingWriter;
+import com.example.fallalarm.core.util.DetectionLog;
+import com.example.fallalarm.ml.ModelAssets;
+import com.example.fallalarm.sensors.SensorPipeline;
 import com.example.fallalarm.ui.EmergencyActivity;
+import com.example.fallalarm.util.AndroidLogSink;
+import com.example.fallalarm.util.SoundPlayer;
 
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
-public class FallAlarmService extends Service implements 
+public class FallAlarmService extends Service implements
     FallDetector.FallDetectionListener, ShakeDetector.ShakeDetectionListener,
-    MLFallDetector.MLFallDetectionListener {
+    MLFallDetector.MLFallDetectionListener, MotionPatternAnalyzer.MotionPatternListener,
+    SamplingRateController.RateChangeListener {
     
     private static final String TAG = "FallAlarmService";
+    
+    // EmergencyActivity avisa con estas acciones cuando se vuelve visible y cuando el usuario
+    // pulsa "Estoy bien"; el extra lleva el momento en SystemClock.elapsedRealtimeNanos
+    public static final String ACTION_EMERGENCY_SHOWN = "com.example.fallalarm.action.EMERGENCY_SHOWN";
+    public static final String ACTION_ACKNOWLEDGE_INCIDENT = "com.example.fallalarm.action.ACKNOWLEDGE_INCIDENT";
+    public static final String EXTRA_ELAPSED_NANOS = "elapsed_nanos";
     private static final String CHANNEL_ID = "fall_alarm_service";
     private static final int NOTIFICATION_ID = 1;
+    // Canal de importancia alta para la alerta con intent de pantalla completa
+    private static final String EMERGENCY_CHANNEL_ID = "fall_alarm_emergency";
+    private static final int EMERGENCY_NOTIFICATION_ID = 2;
+    
+    // Agrupación por hardware: hasta 1 s de eventos en la FIFO del sensor antes de despertar
+    private static final int MAX_REPORT_LATENCY_US = (int) (MotionFrameAligner.MAX_BATCH_LATENCY_NANOS / 1000);
+    // Ventana de entrega inmediata tras una sospecha (cubre la ventana de caída de 1500 ms)
+    private static final long SUSPICION_LOW_LATENCY_MS = 2000;
+    
+    private static final String TRACE_DIRECTORY = "traces";
+    private static final String TRACE_RING_FILE = "sensors.trace";
+    private static final long TRACE_SNAPSHOT_DELAY_MS = 2000;
+    
+    // Historial de incidentes; las escrituras cercanas se agrupan en un único volcado
+    private static final String INCIDENT_FILE = "incidents.bin";
+    private static final long INCIDENT_FLUSH_DELAY_MS = 2000;
+    private static final long INCIDENT_SUMMARY_DAYS = 30;
+    
+    // Volcado periódico del registro de eventos a Logcat (solo si event_log_to_logcat)
+    private static final long EVENT_LOG_DRAIN_INTERVAL_MS = 1000;
     
-    private SensorManager sensorManager;
-    private Sensor accelerometer;
+    // Punto de control del estado de los detectores para arrancar en caliente
+    private static final String CHECKPOINT_FILE = "detector_state.bin";
+    private static final long CHECKPOINT_INTERVAL_MS = 15_000;
+    
+    // Vibración de la alarma, repetida hasta que el usuario la reconoce
+    private static final long[] ALARM_VIBRATION_PATTERN = {0, 1000, 500, 1000, 500, 1000};
+    
+    // Perfil de detección local (ver DetectorProfiles); se recarga al reescribirse
+    private static final String DETECTOR_PROFILE_FILE = "detector_profile.properties";
+    
+    private SensorPipeline sensorPipeline;
+    private SamplingRateController rateController;
     private FallDetector fallDetector;
     private ShakeDetector shakeDetector;
+    private MotionFrameAligner frameAligner;
     private MLFallDetector mlFallDetector;
     private MotionPatternAnalyzer motionAnalyzer;
+    private MotionPatternStage patternStage;
+    private final DetectionFusionEngine fusionEngine = new DetectionFusionEngine();
+    // Métricas del pipeline; instantánea con: adb shell dumpsys activity service .service.FallAlarmService
+    private final PipelineMetrics metrics = new PipelineMetrics();
     private ExecutorService sensorExecutor;
+    private HandlerThread sensorThread;
+    private Handler sensorHandler;
+    private Handler mainHandler;
     private Vibrator vibrator;
+    // Alarma precargada e intent de la pantalla de emergencia armado de antemano
+    private SoundPlayer alarmPlayer;
+    private Intent emergencyIntent;
+    private Notification emergencyNotification;
+    private NotificationManager notificationManager;
+    // Decisión de la emergencia en curso (0 = ninguna) y si la pantalla ya se mostró
+    private long alarmDecisionNanos;
+    private boolean emergencyShown;
+    private volatile TraceRingWriter traceRecorder;
+    private File traceDirectory;
+    private FileObserver profileObserver;
+    private volatile DetectorConfig detectorConfig = DetectorConfig.DEFAULT;
+    private final Runnable eventLogDrainTask = this::drainEventLog;
+    // Historial de incidentes: se abre, se modifica y se vuelca siempre desde el ejecutor
+    private volatile IncidentStore incidentStore;
+    private int openIncident = -1;
+    private final Runnable incidentFlushTask = this::flushIncidents;
+    private DetectorCheckpoint detectorCheckpoint;
+    private File checkpointFile;
+    private final Runnable checkpointTask = this::checkpointDetectorState;
     
     private boolean isServiceRunning = false;
     
+    // Latencia del traspaso de la alerta desde el hilo de sensores al hilo principal
+    private long lastHandoffLatencyNanos = 0;
+    private long maxHandoffLatencyNanos = 0;
+    
     @Override
     public void onCreate() {
         super.onCreate();
         Log.d(TAG, "Servicio creado");
         
+        // Los detectores del módulo core escriben en Logcat a través de este destino
+        DetectionLog.setSink(new AndroidLogSink());
+        
+        // Hilo dedicado de alta prioridad para la entrega y el procesamiento de sensores
+        sensorThread = new HandlerThread("FallAlarm-Sensors", Process.THREAD_PRIORITY_URGENT_DISPLAY);
+        sensorThread.start();
+        sensorHandler = new Handler(sensorThread.getLooper());
+        mainHandler = new Handler(Looper.getMainLooper());
+        
+        // Hilo de trabajo para el análisis de patrones
+        sensorExecutor = Executors.newSingleThreadExecutor();
+        
         initializeSensors();
         initializeMLKit();
+        restoreDetectorState();
+        mainHandler.postDelayed(checkpointTask, CHECKPOINT_INTERVAL_MS);
+        initializeTraceRecording();
+        initializeDetectorProfile();
+        initializeIncidentStore();
+        if (getResources().getBoolean(R.bool.event_log_to_logcat)) {
+            mainHandler.postDelayed(eventLogDrainTask, EVENT_LOG_DRAIN_INTERVAL_MS);
+        }
         createNotificationChannel();
-        sensorExecutor = Executors.newSingleThreadExecutor();
         vibrator = (Vibrator) getSystemService(VIBRATOR_SERVICE);
+        initializeAlarm();
     }
     
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         Log.d(TAG, "Servicio iniciado");
         
+        if (intent != null && ACTION_EMERGENCY_SHOWN.equals(intent.getAction())) {
+            recordEmergencyShown(intent.getLongExtra(EXTRA_ELAPSED_NANOS, SystemClock.elapsedRealtimeNanos()));
+        } else if (intent != null && ACTION_ACKNOWLEDGE_INCIDENT.equals(intent.getAction())) {
+            long acknowledged = intent.getLongExtra(EXTRA_ELAPSED_NANOS, SystemClock.elapsedRealtimeNanos());
+            long latency = alarmDecisionNanos == 0
+                ? IncidentRecord.NOT_ACKNOWLEDGED
+                : Math.max(0, (acknowledged - alarmDecisionNanos) / 1_000_000);
+            stopAlarm();
+            fusionEngine.endIncident(); // Una nueva caída no debe quedar silenciada por el enfriamiento
+            acknowledgeIncident(latency);
+        }
+        
         if (!isServiceRunning) {
             startForegroundService();
             startSensorMonitoring();
@@ -79,6 +215,29 @@ public class FallAlarmService extends Service implements
         Log.d(TAG, "Servicio destruido");
         
         stopSensorMonitoring();
+        mainHandler.removeCallbacks(eventLogDrainTask);
+        mainHandler.removeCallbacks(incidentFlushTask);
+        mainHandler.removeCallbacks(checkpointTask);
+        StringWriter snapshot = new StringWriter();
+        dumpMetrics(new PrintWriter(snapshot));
+        Log.i(TAG, "Métricas del pipeline:\n" + snapshot);
+        if (profileObserver != null) {
+            profileObserver.stopWatching();
+        }
+        closeTraceRecording();
+        closeIncidentStore();
+        if (vibrator != null) {
+            vibrator.cancel();
+        }
+        if (alarmPlayer != null) {
+            alarmPlayer.release();
+        }
+        if (sensorThread != null) {
+            // Último punto de control, detrás de las muestras que aún estén en cola
+            sensorHandler.post(() -> writeCheckpoint(
+                detectorCheckpoint.capture(System.currentTimeMillis(), SystemClock.elapsedRealtimeNanos())));
+            sensorThread.quitSafely();
+        }
         if (sensorExecutor != null) {
             sensorExecutor.shutdown();
         }
@@ -93,14 +252,145 @@ public class FallAlarmService extends Service implements
         return null; // Servicio no vinculado
     }
     
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        dumpMetrics(writer);
+        writer.println();
+        writer.println("Eventos de detección:");
+        DetectionEventLog.drain(writer);
+        writer.flush();
+    }
+    
+    /**
+     * Renderiza los eventos pendientes en el ejecutor, fuera del hilo de sensores
+     */
+    private void drainEventLog() {
+        try {
+            sensorExecutor.execute(DetectionEventLog::drainToLog);
+        } catch (RuntimeException e) {
+            return; // Ejecutor detenido (servicio destruyéndose)
+        }
+        mainHandler.postDelayed(eventLogDrainTask, EVENT_LOG_DRAIN_INTERVAL_MS);
+    }
+    
+    private void dumpMetrics(PrintWriter writer) {
+        metrics.dump(writer);
+        if (mlFallDetector != null) {
+            writer.println("ml.cascade frames=" + mlFallDetector.getFrameCount()
+                    + " stage1=" + mlFallDetector.getStage1Count()
+                    + " stage2=" + mlFallDetector.getStage2Count());
+        }
+        IncidentStore store = incidentStore;
+        if (store != null) {
+            long now = System.currentTimeMillis();
+            try {
+                IncidentSummary summary = store.summarize(now - INCIDENT_SUMMARY_DAYS * 24 * 3_600_000L, now + 1);
+                writer.println("incidents." + INCIDENT_SUMMARY_DAYS + "d n=" + summary.getCount()
+                        + " ack=" + summary.getAcknowledgedCount()
+                        + " ack_p50_ms=" + summary.getAckLatencyPercentile(50)
+                        + " ack_max_ms=" + summary.getAckLatencyPercentile(100)
+                        + " total=" + store.size());
+            } catch (IOException e) {
+                writer.println("incidents error=" + e.getMessage());
+            }
+        }
+        writer.println("handoff_us last=" + lastHandoffLatencyNanos / 1000 + " max=" + maxHandoffLatencyNanos / 1000);
+    }
+    
+    /**
+     * Precarga el sonido de alarma y arma el intent y la notificación de emergencia para que la
+     * alerta no tenga que preparar nada en el momento de la decisión
+     */
+    private void initializeAlarm() {
+        alarmPlayer = new SoundPlayer(this);
+        alarmPlayer.setOnFirstFrameListener(frameNanos -> {
+            long latency = frameNanos - alarmDecisionNanos;
+            metrics.recordAlert(PipelineMetrics.Alert.FIRST_AUDIO, latency);
+            Log.i(TAG, "Latencia decisión → primer audio: " + latency / 1_000_000 + " ms");
+        });
+        alarmPlayer.preload();
+        
+        emergencyIntent = new Intent(this, EmergencyActivity.class);
+        emergencyIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK |
+                               Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        PendingIntent fullScreenIntent = PendingIntent.getActivity(
+            this, 0, emergencyIntent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+        // Sin sonido ni vibración propios: los maneja el servicio
+        emergencyNotification = new NotificationCompat.Builder(this, EMERGENCY_CHANNEL_ID)
+            .setContentTitle(getString(R.string.emergency_title))
+            .setContentText(getString(R.string.emergency_message))
+            .setSmallIcon(R.drawable.ic_security)
+            .setContentIntent(fullScreenIntent)
+            .setFullScreenIntent(fullScreenIntent, true)
+            .setOngoing(true)
+            .setPriority(NotificationCompat.PRIORITY_MAX)
+            .setCategory(NotificationCompat.CATEGORY_ALARM)
+            .setVisibility(NotificationCompat.VISIBILITY_PUBLIC)
+            .build();
+        notificationManager = getSystemService(NotificationManager.class);
+    }
+    
+    /**
+     * Detiene sonido y vibración y deja la alarma precargada para la próxima emergencia
+     */
+    private void stopAlarm() {
+        if (vibrator != null) {
+            vibrator.cancel();
+        }
+        alarmPlayer.stopAlarm();
+        alarmPlayer.preload();
+        if (notificationManager != null) {
+            notificationManager.cancel(EMERGENCY_NOTIFICATION_ID);
+        }
+        alarmDecisionNanos = 0;
+    }
+    
+    /**
+     * La pantalla de emergencia quedó visible: cierra la medición decisión → pantalla
+     */
+    private void recordEmergencyShown(long shownNanos) {
+        if (alarmDecisionNanos == 0 || emergencyShown) {
+            return;
+        }
+        emergencyShown = true;
+        long latency = shownNanos - alarmDecisionNanos;
+        metrics.recordAlert(PipelineMetrics.Alert.ACTIVITY_VISIBLE, latency);
+        Log.i(TAG, "Latencia decisión → pantalla visible: " + latency / 1_000_000 + " ms");
+    }
+    
+    /**
+     * La notificación con pantalla completa solo sirve si las notificaciones y el canal están
+     * habilitados y, desde Android 14, si el usuario no retiró el permiso de pantalla completa
+     */
+    private boolean canUseFullScreenNotification() {
+        if (notificationManager == null || !notificationManager.areNotificationsEnabled()) {
+            return false;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = notificationManager.getNotificationChannel(EMERGENCY_CHANNEL_ID);
+            if (channel == null || channel.getImportance() < NotificationManager.IMPORTANCE_HIGH) {
+                return false;
+            }
+        }
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.UPSIDE_DOWN_CAKE
+            || notificationManager.canUseFullScreenIntent();
+    }
+    
     private void initializeSensors() {
-        sensorManager = (SensorManager) getSystemService(SENSOR_SERVICE);
+        SensorManager sensorManager = (SensorManager) getSystemService(SENSOR_SERVICE);
         if (sensorManager != null) {
-            accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+            sensorPipeline = new SensorPipeline(sensorManager);
+            sensorPipeline.setMetrics(metrics);
             
-            if (accelerometer != null) {
-                fallDetector = new FallDetector(this);
-                shakeDetector = new ShakeDetector(this);
+            if (sensorPipeline.hasAccelerometer()) {
+                fallDetector = new FallDetector(this, sensorPipeline.getClock());
+                shakeDetector = new ShakeDetector(this, sensorPipeline.getClock());
+                rateController = new SamplingRateController(this);
+                sensorPipeline.addListener(rateController);
+                sensorPipeline.addListener(metrics.timed(PipelineMetrics.Stage.FALL_DETECTOR, fallDetector));
+                sensorPipeline.addListener(metrics.timed(PipelineMetrics.Stage.SHAKE_DETECTOR, shakeDetector));
                 Log.d(TAG, "Sensores inicializados correctamente");
             } else {
                 Log.e(TAG, "Acelerómetro no disponible");
@@ -112,11 +402,25 @@ public class FallAlarmService extends Service implements
     
     private void initializeMLKit() {
         try {
-            // Inicializar detector ML
-            mlFallDetector = new MLFallDetector(this, this);
+            // Inicializar detector ML (requiere acelerómetro y giroscopio)
+            // Ambos flujos se alinean en cuadros de 6 ejes antes de llegar al detector
+            mlFallDetector = new MLFallDetector(this);
+            mlFallDetector.setClassifier(ModelAssets.loadOrDefault(this, ModelAssets.FALL_MODEL,
+                    new FallRuleClassifier()));
+            frameAligner = new MotionFrameAligner();
+            frameAligner.addFrameListener(metrics.timedFrames(PipelineMetrics.Stage.ML_DETECTOR, mlFallDetector));
+            if (sensorPipeline != null && sensorPipeline.hasAccelerometer() && sensorPipeline.hasGyroscope()) {
+                sensorPipeline.addListener(metrics.timed(PipelineMetrics.Stage.FRAME_ALIGNER, frameAligner));
+            }
             
-            // Inicializar analizador de patrones
-            motionAnalyzer = new MotionPatternAnalyzer();
+            // Inicializar analizador de patrones: se alimenta de los mismos cuadros pero
+            // clasifica en el ejecutor, fuera del hilo de sensores
+            motionAnalyzer = new MotionPatternAnalyzer(this);
+            motionAnalyzer.setClassifier(ModelAssets.loadOrDefault(this, ModelAssets.PATTERN_MODEL,
+                    new PatternRuleClassifier()));
+            patternStage = new MotionPatternStage(motionAnalyzer, sensorExecutor);
+            patternStage.setMetrics(metrics);
+            frameAligner.addFrameListener(metrics.timedFrames(PipelineMetrics.Stage.PATTERN_ENQUEUE, patternStage));
             
             Log.d(TAG, "ML Kit inicializado correctamente");
         } catch (Exception e) {
@@ -124,18 +428,272 @@ public class FallAlarmService extends Service implements
         }
     }
     
-    private void startSensorMonitoring() {
-        if (sensorManager != null && accelerometer != null && fallDetector != null && shakeDetector != null) {
-            sensorManager.registerListener(fallDetector, accelerometer, 
-                SensorManager.SENSOR_DELAY_UI);
-            sensorManager.registerListener(shakeDetector, accelerometer, 
-                SensorManager.SENSOR_DELAY_UI);
-            
-            // Iniciar detección ML
-            if (mlFallDetector != null) {
-                mlFallDetector.startMLDetection();
+    /**
+     * Grabador opcional de trazas: muestras crudas en un archivo circular mapeado en memoria
+     */
+    private void initializeTraceRecording() {
+        if (sensorPipeline == null || !getResources().getBoolean(R.bool.trace_recording_enabled)) {
+            return;
+        }
+        traceDirectory = new File(getFilesDir(), TRACE_DIRECTORY);
+        if (!traceDirectory.isDirectory() && !traceDirectory.mkdirs()) {
+            Log.e(TAG, "No se pudo crear el directorio de trazas");
+            return;
+        }
+        try {
+            int capacityBytes = getResources().getInteger(R.integer.trace_ring_size_kb) * 1024;
+            traceRecorder = TraceRingWriter.open(new File(traceDirectory, TRACE_RING_FILE), capacityBytes);
+            sensorPipeline.addListener(metrics.timed(PipelineMetrics.Stage.TRACE_RECORDER, traceRecorder));
+            Log.d(TAG, "Grabación de trazas activa (" + traceRecorder.getBlockCount() + " bloques)");
+        } catch (IOException e) {
+            Log.e(TAG, "No se pudo abrir el archivo de trazas", e);
+        }
+    }
+    
+    /**
+     * Copia los últimos segundos de la traza a un archivo de incidente. La copia se hace en el
+     * hilo de sensores (único escritor del anillo) y la escritura a disco en el ejecutor.
+     * Devuelve false si la grabación de trazas no está activa.
+     */
+    private boolean snapshotTrace(final long incidentTime) {
+        if (traceRecorder == null) {
+            return false;
+        }
+        // Se espera un poco para incluir también lo ocurrido justo después de la detección
+        sensorHandler.postDelayed(() -> {
+            TraceRingWriter recorder = traceRecorder;
+            if (recorder == null) {
+                return;
             }
-            
+            long windowNanos = SensorClock.millisToNanos(getResources().getInteger(R.integer.trace_snapshot_seconds) * 1000L);
+            final byte[] snapshot = recorder.copyRecent(sensorPipeline.getClock().nowNanos() - windowNanos);
+            final File target = new File(traceDirectory, "incident-" + incidentTime + ".trace");
+            sensorExecutor.execute(() -> {
+                try {
+                    TraceRingWriter.writeSnapshot(target, snapshot);
+                    Log.i(TAG, "Traza de incidente guardada: " + target.getName() + " (" + snapshot.length + " bytes)");
+                } catch (IOException e) {
+                    Log.e(TAG, "No se pudo guardar la traza de incidente", e);
+                }
+            });
+        }, TRACE_SNAPSHOT_DELAY_MS);
+        return true;
+    }
+    
+    /**
+     * Restaura el estado de los detectores antes de registrar los sensores: ventanas llenas,
+     * frecuencia de muestreo y enfriamiento de la fusión vigentes desde la primera muestra
+     */
+    private void restoreDetectorState() {
+        checkpointFile = new File(getFilesDir(), CHECKPOINT_FILE);
+        detectorCheckpoint = new DetectorCheckpoint(sensorPipeline != null ? sensorPipeline.getIngestor() : null,
+                frameAligner, rateController, fusionEngine);
+        try {
+            byte[] data = DetectorCheckpoint.read(checkpointFile);
+            if (data == null) {
+                return;
+            }
+            if (detectorCheckpoint.restore(data, System.currentTimeMillis(), SystemClock.elapsedRealtimeNanos())) {
+                Log.i(TAG, "Estado de detectores restaurado (" + data.length + " bytes)");
+            } else {
+                Log.d(TAG, "Punto de control vencido, arranque en frío");
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "No se pudo restaurar el estado de los detectores", e);
+        }
+    }
+    
+    /**
+     * Captura el estado en el hilo de sensores (dueño de los detectores) y lo escribe en el ejecutor
+     */
+    private void checkpointDetectorState() {
+        sensorHandler.post(() -> {
+            final byte[] data = detectorCheckpoint.capture(System.currentTimeMillis(), SystemClock.elapsedRealtimeNanos());
+            try {
+                sensorExecutor.execute(() -> writeCheckpoint(data));
+            } catch (RuntimeException e) {
+                // Ejecutor detenido: onDestroy escribe el último punto de control
+            }
+        });
+        mainHandler.postDelayed(checkpointTask, CHECKPOINT_INTERVAL_MS);
+    }
+    
+    private void writeCheckpoint(byte[] data) {
+        try {
+            DetectorCheckpoint.write(checkpointFile, data);
+        } catch (IOException e) {
+            Log.e(TAG, "No se pudo guardar el estado de los detectores", e);
+        }
+    }
+    
+    /**
+     * Abre el historial de incidentes en el ejecutor para no leer el índice en el hilo principal
+     */
+    private void initializeIncidentStore() {
+        final File file = new File(getFilesDir(), INCIDENT_FILE);
+        sensorExecutor.execute(() -> {
+            try {
+                incidentStore = IncidentStore.open(file);
+                Log.d(TAG, "Historial de incidentes: " + incidentStore.size() + " registros");
+            } catch (IOException e) {
+                Log.e(TAG, "No se pudo abrir el historial de incidentes", e);
+            }
+        });
+    }
+    
+    /**
+     * Agrega el incidente al historial desde el ejecutor; el volcado a disco se agrupa
+     */
+    private void recordIncident(DetectionFusionEngine.Source source, long incidentTime, boolean traced) {
+        float[] votes = new float[DetectionFusionEngine.Source.values().length];
+        fusionEngine.getLastIncidentVotes(votes);
+        final IncidentRecord record = new IncidentRecord(incidentTime, source, fusionEngine.getLastIncidentScore(),
+                votes, traced ? incidentTime : IncidentRecord.NO_TRACE);
+        sensorExecutor.execute(() -> {
+            IncidentStore store = incidentStore;
+            if (store != null) {
+                openIncident = store.append(record);
+                scheduleIncidentFlush();
+            }
+        });
+    }
+    
+    /**
+     * Completa el incidente abierto con el tiempo de respuesta del usuario; se ejecuta después
+     * del alta del incidente porque ambas tareas pasan por el mismo ejecutor
+     */
+    private void acknowledgeIncident(final long latencyMillis) {
+        sensorExecutor.execute(() -> {
+            IncidentStore store = incidentStore;
+            if (store == null || openIncident < 0 || latencyMillis < 0) {
+                return;
+            }
+            store.acknowledge(openIncident, latencyMillis);
+            openIncident = -1;
+            scheduleIncidentFlush();
+            Log.i(TAG, "Incidente reconocido por el usuario en " + latencyMillis + " ms");
+        });
+    }
+    
+    private void scheduleIncidentFlush() {
+        mainHandler.removeCallbacks(incidentFlushTask);
+        mainHandler.postDelayed(incidentFlushTask, INCIDENT_FLUSH_DELAY_MS);
+    }
+    
+    private void flushIncidents() {
+        try {
+            sensorExecutor.execute(() -> {
+                IncidentStore store = incidentStore;
+                if (store == null) {
+                    return;
+                }
+                try {
+                    store.flush();
+                } catch (IOException e) {
+                    Log.e(TAG, "No se pudo guardar el historial de incidentes", e);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Ejecutor detenido: el cierre ya volcó lo pendiente
+        }
+    }
+    
+    private void closeIncidentStore() {
+        // Después de las altas y reconocimientos que aún estén en cola
+        sensorExecutor.execute(() -> {
+            IncidentStore store = incidentStore;
+            incidentStore = null;
+            if (store == null) {
+                return;
+            }
+            try {
+                store.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Error al cerrar el historial de incidentes", e);
+            }
+        });
+    }
+    
+    private void closeTraceRecording() {
+        if (traceRecorder == null || sensorHandler == null) {
+            return;
+        }
+        // Se cierra en el hilo de sensores, después de los eventos que aún estén en cola
+        sensorHandler.post(() -> {
+            TraceRingWriter recorder = traceRecorder;
+            traceRecorder = null;
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Error al cerrar el archivo de trazas", e);
+            }
+        });
+    }
+    
+    /**
+     * Observa el archivo de perfil y lo aplica al arrancar y cada vez que se reescribe,
+     * sin reiniciar el servicio ni volver a registrar los sensores
+     */
+    @SuppressWarnings("deprecation") // FileObserver(File, int) requiere API 29
+    private void initializeDetectorProfile() {
+        profileObserver = new FileObserver(getFilesDir().getPath(),
+                FileObserver.CLOSE_WRITE | FileObserver.MOVED_TO | FileObserver.DELETE) {
+            @Override
+            public void onEvent(int event, String path) {
+                if (DETECTOR_PROFILE_FILE.equals(path)) {
+                    reloadDetectorProfile();
+                }
+            }
+        };
+        profileObserver.startWatching();
+        reloadDetectorProfile();
+    }
+    
+    private void reloadDetectorProfile() {
+        // La lectura se hace fuera del hilo de sensores; los detectores solo ven un cambio de referencia
+        sensorExecutor.execute(() -> {
+            File file = new File(getFilesDir(), DETECTOR_PROFILE_FILE);
+            DetectorConfig config = DetectorConfig.DEFAULT;
+            if (file.isFile()) {
+                try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                    config = DetectorProfiles.load(reader);
+                } catch (IOException e) {
+                    Log.e(TAG, "Perfil de detección inválido, se mantiene el actual", e);
+                    return;
+                }
+            }
+            applyDetectorConfig(config);
+        });
+    }
+    
+    /**
+     * Publica el perfil en todos los detectores sin bloquear; cada uno lo adopta en su hilo al
+     * terminar la ventana en curso
+     */
+    private void applyDetectorConfig(DetectorConfig config) {
+        if (config.equals(detectorConfig)) {
+            return;
+        }
+        detectorConfig = config;
+        if (fallDetector != null) {
+            fallDetector.setConfig(config);
+        }
+        if (shakeDetector != null) {
+            shakeDetector.setConfig(config);
+        }
+        if (mlFallDetector != null) {
+            mlFallDetector.setConfig(config);
+        }
+        if (motionAnalyzer != null) {
+            motionAnalyzer.setConfig(config);
+        }
+        Log.d(TAG, "Perfil de detección aplicado: " + config);
+    }
+    
+    private void startSensorMonitoring() {
+        if (sensorPipeline != null && sensorPipeline.hasAccelerometer()) {
+            // Un único registro por sensor físico para todos los detectores (incluido ML)
+            sensorPipeline.start(samplingPeriodFor(rateController.getState()), MAX_REPORT_LATENCY_US, sensorHandler);
             Log.d(TAG, "Monitoreo de sensores y ML iniciado");
         } else {
             Log.e(TAG, "No se puede iniciar monitoreo - sensores no disponibles");
@@ -143,28 +701,44 @@ public class FallAlarmService extends Service implements
     }
     
     private void stopSensorMonitoring() {
-        if (sensorManager != null) {
-            if (fallDetector != null) {
-                sensorManager.unregisterListener(fallDetector);
-            }
-            if (shakeDetector != null) {
-                sensorManager.unregisterListener(shakeDetector);
-            }
-            
-            // Detener detección ML
-            if (mlFallDetector != null) {
-                mlFallDetector.stopMLDetection();
-            }
-            
+        if (sensorPipeline != null) {
+            sensorPipeline.stop();
+            logRateResidency();
             Log.d(TAG, "Monitoreo de sensores y ML detenido");
         }
     }
     
+    /**
+     * Frecuencia de muestreo según el nivel de actividad detectado
+     */
+    private static int samplingPeriodFor(SamplingRateController.State state) {
+        return state == SamplingRateController.State.REST
+            ? SensorManager.SENSOR_DELAY_NORMAL
+            : SensorManager.SENSOR_DELAY_GAME;
+    }
+    
+    @Override
+    public void onSamplingStateChanged(SamplingRateController.State state) {
+        // Se ejecuta en el hilo de sensores; se re-registra fuera del reparto de la muestra actual
+        Log.d(TAG, "Nivel de actividad: " + state);
+        sensorHandler.post(() -> sensorPipeline.setSamplingPeriod(samplingPeriodFor(state)));
+    }
+    
+    private void logRateResidency() {
+        if (rateController == null) {
+            return;
+        }
+        long restMs = rateController.getResidencyNanos(SamplingRateController.State.REST) / 1_000_000L;
+        long activeMs = rateController.getResidencyNanos(SamplingRateController.State.ACTIVE) / 1_000_000L;
+        Log.i(TAG, "Permanencia - reposo: " + restMs + " ms, activo: " + activeMs
+            + " ms, transiciones: " + rateController.getTransitionCount());
+    }
+    
     private void startForegroundService() {
         try {
             Intent notificationIntent = new Intent(this, com.example.fallalarm.ui.MainActivity.class);
             PendingIntent pendingIntent = PendingIntent.getActivity(
-                this, 0, notificationIntent, 
+                this, 0, notificationIntent,
                 PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
             );
             
@@ -195,51 +769,131 @@ public class FallAlarmService extends Service implements
             channel.setDescription(getString(R.string.service_channel_description));
             channel.setShowBadge(false);
             
+            NotificationChannel emergencyChannel = new NotificationChannel(
+                EMERGENCY_CHANNEL_ID,
+                getString(R.string.emergency_channel_name),
+                NotificationManager.IMPORTANCE_HIGH
+            );
+            emergencyChannel.setDescription(getString(R.string.emergency_channel_description));
+            emergencyChannel.setSound(null, null);
+            emergencyChannel.enableVibration(false);
+            emergencyChannel.setBypassDnd(true);
+            emergencyChannel.setLockscreenVisibility(Notification.VISIBILITY_PUBLIC);
+            
             NotificationManager manager = getSystemService(NotificationManager.class);
             if (manager != null) {
                 manager.createNotificationChannel(channel);
+                manager.createNotificationChannel(emergencyChannel);
             }
         }
     }
     
+    // Los callbacks de los detectores se ejecutan en el hilo de sensores
+    
     @Override
     public void onFallDetected() {
         Log.w(TAG, "Caída detectada!");
-        triggerEmergency();
+        reportDetection(DetectionFusionEngine.Source.FALL, 1.0f);
+    }
+    
+    @Override
+    public void onFreeFallCandidate() {
+        sensorPipeline.requestLowLatency(SUSPICION_LOW_LATENCY_MS);
     }
     
     @Override
     public void onShakeDetected() {
         Log.w(TAG, "Sacudida detectada!");
-        triggerEmergency();
+        reportDetection(DetectionFusionEngine.Source.SHAKE, 1.0f);
+    }
+    
+    @Override
+    public void onShakeCandidate() {
+        sensorPipeline.requestLowLatency(SUSPICION_LOW_LATENCY_MS);
     }
     
     @Override
     public void onMLFallDetected(float confidence) {
-        Log.w(TAG, "ML: Caída detectada con confianza: " + confidence);
-        triggerEmergency();
+        reportDetection(DetectionFusionEngine.Source.ML, confidence);
     }
     
     @Override
     public void onMLMotionDetected(String motionType, float confidence) {
-        Log.d(TAG, "ML: Movimiento detectado - " + motionType + " (confianza: " + confidence + ")");
+        DetectionEventLog.record(DetectionEventLog.Event.ML_MOTION, confidence);
         // Aquí se podría implementar lógica adicional según el tipo de movimiento
     }
     
-    private void triggerEmergency() {
+    // Llamado desde el ejecutor de análisis de patrones
+    @Override
+    public void onFallPatternDetected(float confidence) {
+        reportDetection(DetectionFusionEngine.Source.PATTERN, confidence);
+    }
+    
+    /**
+     * Entrega el voto al motor de fusión; solo el voto que confirma el incidente dispara la emergencia
+     */
+    private void reportDetection(DetectionFusionEngine.Source source, float confidence) {
+        metrics.recordDetection(source);
+        long now = SystemClock.elapsedRealtimeNanos();
+        if (fusionEngine.report(source, confidence, now)) {
+            // Los votos por cuadro no se registran aquí (quedan en DetectionEventLog); solo el que confirma
+            Log.w(TAG, "Incidente confirmado por fusión (" + source + ", confianza: " + confidence + ")");
+            if (source == DetectionFusionEngine.Source.PATTERN) {
+                // El voto llega desde el ejecutor: el reloj de eventos pertenece al hilo de sensores
+                metrics.recordIncident();
+            } else {
+                metrics.recordIncident(now - sensorPipeline.getClock().nowNanos());
+            }
+            long incidentTime = System.currentTimeMillis();
+            recordIncident(source, incidentTime, snapshotTrace(incidentTime));
+            postEmergency();
+        }
+    }
+    
+    /**
+     * Traspasa la emergencia al hilo principal midiendo la latencia del traspaso
+     */
+    private void postEmergency() {
+        final long decisionTime = SystemClock.elapsedRealtimeNanos();
+        mainHandler.post(() -> {
+            recordHandoffLatency(SystemClock.elapsedRealtimeNanos() - decisionTime);
+            triggerEmergency(decisionTime);
+        });
+    }
+    
+    private void recordHandoffLatency(long latencyNanos) {
+        lastHandoffLatencyNanos = latencyNanos;
+        if (latencyNanos > maxHandoffLatencyNanos) {
+            maxHandoffLatencyNanos = latencyNanos;
+        }
+        Log.i(TAG, "Latencia de traspaso de alerta: " + (latencyNanos / 1000) + " us (máx: "
+            + (maxHandoffLatencyNanos / 1000) + " us)");
+    }
+    
+    private void triggerEmergency(long decisionTimeNanos) {
         try {
-            // Vibración breve de confirmación
+            // Sonido y vibración arrancan desde el servicio, antes de que exista la pantalla
+            alarmDecisionNanos = decisionTimeNanos;
+            alarmPlayer.playAlarm();
             if (vibrator != null) {
-                vibrator.vibrate(200);
+                vibrator.vibrate(ALARM_VIBRATION_PATTERN, 0);
             }
             
-            // Iniciar actividad de emergencia
-            Intent emergencyIntent = new Intent(this, EmergencyActivity.class);
-            emergencyIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | 
-                                   Intent.FLAG_ACTIVITY_CLEAR_TOP);
-            startActivity(emergencyIntent);
+            emergencyShown = false;
+            
+            // Mostrar la pantalla de emergencia: notificación con pantalla completa o, si el
+            // sistema no la permite, lanzamiento directo de la actividad
+            boolean fullScreen = canUseFullScreenNotification();
+            if (notificationManager != null && notificationManager.areNotificationsEnabled()) {
+                notificationManager.notify(EMERGENCY_NOTIFICATION_ID, emergencyNotification);
+                metrics.recordAlert(PipelineMetrics.Alert.NOTIFICATION_POSTED,
+                    SystemClock.elapsedRealtimeNanos() - decisionTimeNanos);
+            }
+            if (!fullScreen) {
+                startActivity(emergencyIntent);
+            }
             
-            Log.i(TAG, "Emergencia activada - Pantalla de emergencia mostrada");
+            Log.i(TAG, "Emergencia activada - " + (fullScreen ? "notificación de pantalla completa" : "actividad lanzada"));
         } catch (Exception e) {
             Log.e(TAG, "Error al activar emergencia", e);
         }
@@ -1,23 +1,19 @@
 package com.example.fallalarm.ui;
 
 import android.content.Intent;
-import android.media.MediaPlayer;
+import android.os.Build;
 import android.os.Bundle;
-import android.os.Vibrator;
-import android.view.View;
+import android.os.SystemClock;
 import android.widget.Button;
 
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.fallalarm.R;
 import com.example.fallalarm.service.FallAlarmService;
-import com.example.fallalarm.util.SoundPlayer;
 
 public class EmergencyActivity extends AppCompatActivity {
 
-    private MediaPlayer alarmPlayer;
-    private Vibrator vibrator;
-    private SoundPlayer soundPlayer;
+    private boolean shownReported = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -27,8 +23,24 @@ public class EmergencyActivity extends AppCompatActivity {
         // Mantener la pantalla encendida
         getWindow().addFlags(android.view.WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
         
+        // Mostrarse sobre la pantalla de bloqueo (en 8.1+ lo declara el manifiesto)
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O_MR1) {
+            getWindow().addFlags(android.view.WindowManager.LayoutParams.FLAG_SHOW_WHEN_LOCKED |
+                android.view.WindowManager.LayoutParams.FLAG_TURN_SCREEN_ON);
+        }
+        
+        // Sonido y vibración ya los inició FallAlarmService al decidir la emergencia
         initializeViews();
-        startAlarm();
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasFocus) {
+        super.onWindowFocusChanged(hasFocus);
+        // Primer foco: la pantalla ya es visible para el usuario
+        if (hasFocus && !shownReported) {
+            shownReported = true;
+            notifyService(FallAlarmService.ACTION_EMERGENCY_SHOWN);
+        }
     }
 
     private void initializeViews() {
@@ -36,55 +48,20 @@ public class EmergencyActivity extends AppCompatActivity {
         imOkButton.setOnClickListener(v -> stopAlarmAndFinish());
     }
 
-    private void startAlarm() {
-        // Iniciar vibración
-        vibrator = (Vibrator) getSystemService(VIBRATOR_SERVICE);
-        if (vibrator != null) {
-            long[] pattern = {0, 1000, 500, 1000, 500, 1000};
-            vibrator.vibrate(pattern, 0); // Repetir indefinidamente
-        }
-
-        // Iniciar sonido de alarma
-        soundPlayer = new SoundPlayer(this);
-        soundPlayer.playAlarm();
-    }
-
     private void stopAlarmAndFinish() {
-        // Detener vibración
-        if (vibrator != null) {
-            vibrator.cancel();
-        }
-
-        // Detener sonido
-        if (soundPlayer != null) {
-            soundPlayer.stopAlarm();
-        }
-
-        // Registrar evento
-        logEmergencyEvent();
+        // El servicio detiene sonido y vibración y registra el reconocimiento en el historial
+        notifyService(FallAlarmService.ACTION_ACKNOWLEDGE_INCIDENT);
 
         // Cerrar actividad
         finish();
     }
 
-    private void logEmergencyEvent() {
-        // Aquí podrías registrar el evento en una base de datos local
-        // Por ahora, solo mostramos un mensaje
-        android.util.Log.i("FallAlarm", "Usuario confirmó que está bien - " + 
-            java.text.DateFormat.getDateTimeInstance().format(new java.util.Date()));
-    }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        
-        // Asegurar que se detengan todos los recursos
-        if (vibrator != null) {
-            vibrator.cancel();
-        }
-        if (soundPlayer != null) {
-            soundPlayer.stopAlarm();
-        }
+    private void notifyService(String action) {
+        // El servicio es dueño de la alarma, las métricas y el historial (escribe fuera del hilo principal)
+        Intent intent = new Intent(this, FallAlarmService.class);
+        intent.setAction(action);
+        intent.putExtra(FallAlarmService.EXTRA_ELAPSED_NANOS, SystemClock.elapsedRealtimeNanos());
+        startService(intent);
     }
 
     @Override
@@ -0,0 +1,20 @@
+package com.example.fallalarm.util;
+
+import android.util.Log;
+
+import com.example.fallalarm.core.util.DetectionLog;
+
+/**
+ * Envía los mensajes del núcleo de detección a Logcat
+ */
+public class AndroidLogSink implements DetectionLog.Sink {
+    
+    @Override
+    public void log(int level, String tag, String message, Throwable error) {
+        if (error != null) {
+            Log.println(level, tag, message + '\n' + Log.getStackTraceString(error));
+        } else {
+            Log.println(level, tag, message);
+        }
+    }
+}
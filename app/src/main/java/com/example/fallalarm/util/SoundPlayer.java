@@ -4,26 +4,92 @@ import android.content.Context;
 import android.media.AudioAttributes;
 import android.media.AudioManager;
 import android.media.MediaPlayer;
+import android.media.MediaTimestamp;
 import android.media.RingtoneManager;
 import android.net.Uri;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 /**
  * Clase para manejar la reproducción de sonidos de alarma
+ * Con {@link #preload()} el MediaPlayer queda preparado de antemano, así {@link #playAlarm()}
+ * solo llama a start(); al detenerla se pausa y rebobina para la próxima emergencia.
  */
 public class SoundPlayer {
     
     private static final String TAG = "SoundPlayer";
     
+    // Sondeo de MediaPlayer.getTimestamp() hasta que avanza el primer cuadro de audio
+    private static final long FIRST_FRAME_POLL_MS = 5;
+    private static final long FIRST_FRAME_TIMEOUT_MS = 2000;
+    
+    /**
+     * Recibe el momento (SystemClock.elapsedRealtimeNanos) en que sonó el primer cuadro de audio
+     */
+    public interface OnFirstFrameListener {
+        void onFirstAudioFrame(long elapsedRealtimeNanos);
+    }
+    
     private Context context;
     private MediaPlayer mediaPlayer;
     private boolean isPlaying = false;
+    private boolean isPrepared = false;
+    private boolean isPreparing = false;
+    
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private OnFirstFrameListener firstFrameListener;
+    private long playRequestedMs;
+    private final Runnable firstFramePoll = this::pollFirstFrame;
     
     public SoundPlayer(Context context) {
         this.context = context;
     }
     
+    public void setOnFirstFrameListener(OnFirstFrameListener listener) {
+        this.firstFrameListener = listener;
+    }
+    
+    /**
+     * Prepara la alarma en segundo plano (prepareAsync) para que {@link #playAlarm()} suene sin demora.
+     * Debe llamarse desde el hilo principal; no hace nada si ya está preparada.
+     */
+    public void preload() {
+        if (mediaPlayer != null) {
+            return; // Preparada, preparándose o sonando
+        }
+        try {
+            mediaPlayer = createPlayer();
+            if (mediaPlayer == null) {
+                return;
+            }
+            isPreparing = true;
+            mediaPlayer.setOnPreparedListener(player -> {
+                isPreparing = false;
+                isPrepared = true;
+                Log.d(TAG, "Alarma precargada");
+                if (isPlaying) {
+                    startPlayback(); // Se pidió la alarma mientras se preparaba
+                }
+            });
+            mediaPlayer.setOnErrorListener((player, what, extra) -> {
+                Log.e(TAG, "Error del reproductor de alarma: " + what + "/" + extra);
+                boolean wasPlaying = isPlaying;
+                releasePlayer();
+                if (wasPlaying) {
+                    playAlarm(); // Reintento con preparación síncrona
+                }
+                return true;
+            });
+            mediaPlayer.prepareAsync();
+        } catch (Exception e) {
+            Log.e(TAG, "Error al precargar alarma", e);
+            releasePlayer();
+        }
+    }
+    
     /**
      * Reproduce la alarma de forma continua
      */
@@ -32,84 +98,55 @@ public class SoundPlayer {
             return; // Ya está reproduciendo
         }
         
+        // Configurar el volumen al máximo
+        AudioManager audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+        if (audioManager != null) {
+            int maxVolume = audioManager.getStreamMaxVolume(AudioManager.STREAM_ALARM);
+            audioManager.setStreamVolume(AudioManager.STREAM_ALARM, maxVolume, 0);
+        }
+        
+        isPlaying = true;
+        if (isPrepared) {
+            startPlayback();
+            return;
+        }
+        if (isPreparing) {
+            return; // Arranca en onPrepared
+        }
+        
+        // Sin precarga: preparación síncrona (lenta)
         try {
-            // Obtener el tono de alarma del sistema
-            Uri alarmUri = RingtoneManager.getDefaultUri(RingtoneManager.TYPE_ALARM);
-            if (alarmUri == null) {
-                // Si no hay tono de alarma, usar notificación
-                alarmUri = RingtoneManager.getDefaultUri(RingtoneManager.TYPE_NOTIFICATION);
-            }
-            
-            if (alarmUri == null) {
-                Log.e(TAG, "No se pudo obtener tono de alarma");
+            mediaPlayer = createPlayer();
+            if (mediaPlayer == null) {
+                isPlaying = false;
                 return;
             }
-            
-            // Liberar MediaPlayer anterior si existe
-            if (mediaPlayer != null) {
-                mediaPlayer.release();
-                mediaPlayer = null;
-            }
-            
-            mediaPlayer = new MediaPlayer();
-            mediaPlayer.setDataSource(context, alarmUri);
-            
-            // Configurar para reproducción en bucle
-            mediaPlayer.setLooping(true);
-            
-            // Configurar atributos de audio para Android 5.0+
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                AudioAttributes audioAttributes = new AudioAttributes.Builder()
-                    .setUsage(AudioAttributes.USAGE_ALARM)
-                    .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
-                    .setFlags(AudioAttributes.FLAG_AUDIBILITY_ENFORCED)
-                    .build();
-                mediaPlayer.setAudioAttributes(audioAttributes);
-            } else {
-                mediaPlayer.setAudioStreamType(AudioManager.STREAM_ALARM);
-            }
-            
-            // Configurar el volumen al máximo
-            AudioManager audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
-            if (audioManager != null) {
-                int maxVolume = audioManager.getStreamMaxVolume(AudioManager.STREAM_ALARM);
-                audioManager.setStreamVolume(AudioManager.STREAM_ALARM, maxVolume, 0);
-            }
-            
             mediaPlayer.prepare();
-            mediaPlayer.start();
-            
-            isPlaying = true;
-            Log.d(TAG, "Alarma iniciada");
-            
+            isPrepared = true;
+            startPlayback();
         } catch (Exception e) {
             Log.e(TAG, "Error al reproducir alarma", e);
             isPlaying = false;
-            // Intentar liberar recursos en caso de error
-            if (mediaPlayer != null) {
-                try {
-                    mediaPlayer.release();
-                } catch (Exception ex) {
-                    Log.e(TAG, "Error al liberar MediaPlayer", ex);
-                }
-                mediaPlayer = null;
-            }
+            releasePlayer();
         }
     }
     
     /**
-     * Detiene la alarma
+     * Detiene la alarma; si estaba precargada queda pausada y rebobinada, lista para volver a sonar
      */
     public void stopAlarm() {
+        handler.removeCallbacks(firstFramePoll);
         if (mediaPlayer != null && isPlaying) {
             try {
-                mediaPlayer.stop();
-                mediaPlayer.release();
-                mediaPlayer = null;
                 isPlaying = false;
+                if (isPrepared) {
+                    mediaPlayer.pause();
+                    mediaPlayer.seekTo(0);
+                }
                 Log.d(TAG, "Alarma detenida");
             } catch (Exception e) {
                 Log.e(TAG, "Error al detener alarma", e);
+                releasePlayer();
             }
         }
     }
@@ -126,5 +163,83 @@ public class SoundPlayer {
      */
     public void release() {
         stopAlarm();
+        releasePlayer();
+    }
+    
+    private MediaPlayer createPlayer() throws Exception {
+        // Obtener el tono de alarma del sistema
+        Uri alarmUri = RingtoneManager.getDefaultUri(RingtoneManager.TYPE_ALARM);
+        if (alarmUri == null) {
+            // Si no hay tono de alarma, usar notificación
+            alarmUri = RingtoneManager.getDefaultUri(RingtoneManager.TYPE_NOTIFICATION);
+        }
+        
+        if (alarmUri == null) {
+            Log.e(TAG, "No se pudo obtener tono de alarma");
+            return null;
+        }
+        
+        MediaPlayer player = new MediaPlayer();
+        player.setDataSource(context, alarmUri);
+        
+        // Configurar para reproducción en bucle
+        player.setLooping(true);
+        
+        // Configurar atributos de audio para Android 5.0+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            AudioAttributes audioAttributes = new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_ALARM)
+                .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                .setFlags(AudioAttributes.FLAG_AUDIBILITY_ENFORCED)
+                .build();
+            player.setAudioAttributes(audioAttributes);
+        } else {
+            player.setAudioStreamType(AudioManager.STREAM_ALARM);
+        }
+        return player;
+    }
+    
+    private void startPlayback() {
+        mediaPlayer.start();
+        Log.d(TAG, "Alarma iniciada");
+        if (firstFrameListener != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            playRequestedMs = SystemClock.elapsedRealtime();
+            handler.removeCallbacks(firstFramePoll);
+            handler.post(firstFramePoll);
+        }
+    }
+    
+    /**
+     * El ancla de getTimestamp() relaciona tiempo de medio con System.nanoTime(); el primer cuadro
+     * sonó en ancla - tiempo de medio. Se traslada al reloj de elapsedRealtimeNanos.
+     */
+    private void pollFirstFrame() {
+        if (mediaPlayer == null || !isPlaying) {
+            return;
+        }
+        MediaTimestamp timestamp = mediaPlayer.getTimestamp();
+        if (timestamp != null && timestamp.getAnchorMediaTimeUs() > 0) {
+            long frameNanos = timestamp.getAnchorSystemNanoTime() - timestamp.getAnchorMediaTimeUs() * 1000;
+            long clockOffset = SystemClock.elapsedRealtimeNanos() - System.nanoTime();
+            firstFrameListener.onFirstAudioFrame(frameNanos + clockOffset);
+            return;
+        }
+        if (SystemClock.elapsedRealtime() - playRequestedMs < FIRST_FRAME_TIMEOUT_MS) {
+            handler.postDelayed(firstFramePoll, FIRST_FRAME_POLL_MS);
+        }
+    }
+    
+    private void releasePlayer() {
+        isPrepared = false;
+        isPreparing = false;
+        isPlaying = false;
+        if (mediaPlayer != null) {
+            try {
+                mediaPlayer.release();
+            } catch (Exception e) {
+                Log.e(TAG, "Error al liberar MediaPlayer", e);
+            }
+            mediaPlayer = null;
+        }
     }
 }
@@ -0,0 +1,35 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+// Microbenchmarks JMH del camino por muestra del núcleo de detección
+// Ejecutar con: ./gradlew :benchmarks:jmh
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    jmh(project(":core"))
+}
+
+// -PbenchmarkTrace=<archivo .trace>: mide el flujo grabado (perfil "recorded") en lugar de los
+// sintéticos; la frecuencia es la de la traza
+val benchmarkTrace = providers.gradleProperty("benchmarkTrace")
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    // Bytes reservados por operación (gc.alloc.rate.norm)
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    if (benchmarkTrace.isPresent) {
+        jvmArgsAppend.add("-Dfallalarm.benchmark.trace=" + file(benchmarkTrace.get()).absolutePath)
+        benchmarkParameters.put("profile", objects.listProperty<String>().value(listOf("recorded")))
+        benchmarkParameters.put("rateHz", objects.listProperty<String>().value(listOf("0")))
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.fallalarm.benchmarks;
+
+import com.example.fallalarm.core.ml.MLFallDetector;
+import com.example.fallalarm.core.ml.MotionFrameAligner;
+import com.example.fallalarm.core.ml.MotionPatternAnalyzer;
+import com.example.fallalarm.core.sensors.FallDetector;
+import com.example.fallalarm.core.sensors.SampleIngestor;
+import com.example.fallalarm.core.sensors.ShakeDetector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por muestra del camino caliente de detección
+ * Cada invocación reproduce {@link #EVENTS} eventos a través de SampleIngestor, como en el
+ * dispositivo. {@link #ingestOnly} mide la ingesta sola; restándola a los demás se obtiene el
+ * costo de cada detector. Con el perfilador gc, gc.alloc.rate.norm ya son bytes por muestra: JMH
+ * normaliza por {@link OperationsPerInvocation}, igual que el tiempo.
+ *
+ * La frecuencia solo cambia el espaciado de las marcas de tiempo, y con ello cuántos cuadros
+ * alineados (20 Hz) produce cada muestra y cuánto abarcan las ventanas de los detectores.
+ * Con el perfil {@code recorded} se reproduce una traza grabada en el dispositivo, a su propia
+ * frecuencia: ./gradlew :benchmarks:jmh -PbenchmarkTrace=ruta/a/sensors.trace
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DetectionHotPathBenchmark {
+    
+    static final int EVENTS = 4096;
+    
+    @Param({"50", "200", "500"})
+    public int rateHz;
+    
+    // Gradle lo fija en MotionStream.RECORDED cuando se indica una traza
+    @Param({MotionStream.REST, MotionStream.WALKING, MotionStream.FALL})
+    public String profile;
+    
+    private MotionStream stream;
+    private long baseTime;
+    private final CountingListener listener = new CountingListener();
+    
+    private SampleIngestor ingestOnly;
+    private SampleIngestor fallDetector;
+    private SampleIngestor shakeDetector;
+    private SampleIngestor mlFallDetector;
+    private SampleIngestor motionPatternAnalyzer;
+    private SampleIngestor fullPipeline;
+    
+    @Setup
+    public void setUp() throws IOException {
+        if (MotionStream.RECORDED.equals(profile)) {
+            String trace = System.getProperty(MotionStream.TRACE_PROPERTY);
+            if (trace == null) {
+                throw new IllegalStateException("Falta -D" + MotionStream.TRACE_PROPERTY + " con la traza a reproducir");
+            }
+            stream = new MotionStream(new File(trace), EVENTS);
+        } else {
+            stream = new MotionStream(profile, rateHz, EVENTS, 42L);
+        }
+        baseTime = 1_000_000_000L;
+        
+        ingestOnly = new SampleIngestor();
+        
+        fallDetector = new SampleIngestor();
+        fallDetector.addListener(new FallDetector(listener, fallDetector.getClock()));
+        
+        shakeDetector = new SampleIngestor();
+        shakeDetector.addListener(new ShakeDetector(listener, shakeDetector.getClock()));
+        
+        mlFallDetector = new SampleIngestor();
+        MotionFrameAligner mlAligner = new MotionFrameAligner();
+        mlAligner.addFrameListener(new MLFallDetector(listener));
+        mlFallDetector.addListener(mlAligner);
+        
+        // El analizador se ejecuta en línea (sin la cola asíncrona) para medir solo su cálculo
+        motionPatternAnalyzer = new SampleIngestor();
+        MotionFrameAligner patternAligner = new MotionFrameAligner();
+        final MotionPatternAnalyzer analyzer = new MotionPatternAnalyzer(listener);
+        patternAligner.addFrameListener(frames -> {
+            int newest = frames.size() - 1;
+            float[] frame = listener.frame;
+            for (int channel = 0; channel < frame.length; channel++) {
+                frame[channel] = frames.get(newest, channel);
+            }
+            analyzer.addMotionFrame(frames.getNewestTimestamp(), frame);
+        });
+        motionPatternAnalyzer.addListener(patternAligner);
+        
+        fullPipeline = new SampleIngestor();
+        fullPipeline.addListener(new FallDetector(listener, fullPipeline.getClock()));
+        fullPipeline.addListener(new ShakeDetector(listener, fullPipeline.getClock()));
+        MotionFrameAligner fullAligner = new MotionFrameAligner();
+        fullAligner.addFrameListener(new MLFallDetector(listener));
+        fullPipeline.addListener(fullAligner);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void ingestOnly() {
+        replay(ingestOnly);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void fallDetector(Blackhole blackhole) {
+        replay(fallDetector);
+        blackhole.consume(listener.detections);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void shakeDetector(Blackhole blackhole) {
+        replay(shakeDetector);
+        blackhole.consume(listener.detections);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void mlFallDetector(Blackhole blackhole) {
+        replay(mlFallDetector);
+        blackhole.consume(listener.detections);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void motionPatternAnalyzer(Blackhole blackhole) {
+        replay(motionPatternAnalyzer);
+        blackhole.consume(listener.detections);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void fullPipeline(Blackhole blackhole) {
+        replay(fullPipeline);
+        blackhole.consume(listener.detections);
+    }
+    
+    /**
+     * Reproduce el flujo desplazado en el tiempo para que las marcas sigan siendo crecientes
+     */
+    private void replay(SampleIngestor ingestor) {
+        long base = baseTime;
+        MotionStream s = stream;
+        for (int i = 0; i < s.size; i++) {
+            if (s.accelerometer[i]) {
+                ingestor.onAccelerometer(base + s.timestamps[i], s.x[i], s.y[i], s.z[i]);
+            } else {
+                ingestor.onGyroscope(base + s.timestamps[i], s.x[i], s.y[i], s.z[i]);
+            }
+        }
+        baseTime = base + s.durationNanos;
+    }
+    
+    /**
+     * Cuenta las detecciones para que el JIT no pueda descartar el trabajo de los detectores
+     */
+    static final class CountingListener implements FallDetector.FallDetectionListener,
+            ShakeDetector.ShakeDetectionListener, MLFallDetector.MLFallDetectionListener,
+            MotionPatternAnalyzer.MotionPatternListener {
+        
+        final float[] frame = new float[MotionFrameAligner.FRAME_CHANNELS];
+        long detections = 0;
+        
+        @Override
+        public void onFallDetected() {
+            detections++;
+        }
+        
+        @Override
+        public void onFreeFallCandidate() {
+            detections++;
+        }
+        
+        @Override
+        public void onShakeDetected() {
+            detections++;
+        }
+        
+        @Override
+        public void onShakeCandidate() {
+            detections++;
+        }
+        
+        @Override
+        public void onMLFallDetected(float confidence) {
+            detections++;
+        }
+        
+        @Override
+        public void onMLMotionDetected(String motionType, float confidence) {
+            detections++;
+        }
+        
+        @Override
+        public void onFallPatternDetected(float confidence) {
+            detections++;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.fallalarm.benchmarks;
+
+import com.example.fallalarm.core.trace.TraceReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Flujo de acelerómetro y giroscopio intercalados, sintético o leído de una traza grabada
+ * Los perfiles sintéticos reproducen reposo, caminata y una caída (caída libre, impacto y
+ * quietud), que recorren ramas distintas de los detectores. El perfil {@link #RECORDED} toma las
+ * muestras crudas de la traza indicada en la propiedad {@link #TRACE_PROPERTY}, a su frecuencia.
+ */
+final class MotionStream {
+    
+    static final String REST = "rest";
+    static final String WALKING = "walking";
+    static final String FALL = "fall";
+    static final String RECORDED = "recorded";
+    
+    // Ruta de la traza (.trace) para el perfil RECORDED
+    static final String TRACE_PROPERTY = "fallalarm.benchmark.trace";
+    
+    private static final float GRAVITY = 9.81f;
+    
+    final int size;
+    final boolean[] accelerometer;
+    final long[] timestamps; // Relativas al inicio del flujo
+    final float[] x;
+    final float[] y;
+    final float[] z;
+    long durationNanos; // Se fija al terminar de llenar el flujo
+    
+    /**
+     * @param events número total de eventos (mitad de cada sensor)
+     */
+    MotionStream(String profile, int rateHz, int events, long seed) {
+        this(events);
+        
+        Random random = new Random(seed);
+        long periodNanos = 1_000_000_000L / rateHz;
+        for (int i = 0; i < events; i++) {
+            int sampleIndex = i / 2;
+            boolean isAccelerometer = (i & 1) == 0;
+            // El giroscopio llega desfasado medio periodo, como en un dispositivo real
+            long timestamp = sampleIndex * periodNanos + (isAccelerometer ? 0 : periodNanos / 2);
+            float seconds = timestamp / 1e9f;
+            accelerometer[i] = isAccelerometer;
+            timestamps[i] = timestamp;
+            if (isAccelerometer) {
+                fillAccelerometer(profile, seconds, random, i);
+            } else {
+                fillGyroscope(profile, seconds, random, i);
+            }
+        }
+        this.durationNanos = (events / 2) * periodNanos;
+    }
+    
+    /**
+     * Primeros {@code events} eventos de la traza, con las marcas relativas a su inicio. Una traza
+     * más corta se repite a continuación de sí misma hasta completarlos.
+     */
+    MotionStream(File trace, int events) throws IOException {
+        this(events);
+        
+        final int[] count = new int[1];
+        TraceReader.read(trace, new TraceReader.SampleSink() {
+            @Override
+            public void onAccelerometer(long timestampNanos, float ax, float ay, float az) {
+                append(count, true, timestampNanos, ax, ay, az);
+            }
+            
+            @Override
+            public void onGyroscope(long timestampNanos, float gx, float gy, float gz) {
+                append(count, false, timestampNanos, gx, gy, gz);
+            }
+        });
+        int recorded = count[0];
+        if (recorded < 2) {
+            throw new IOException("La traza " + trace + " no tiene muestras suficientes");
+        }
+        long first = timestamps[0];
+        for (int i = 0; i < recorded; i++) {
+            timestamps[i] -= first;
+        }
+        // Cada repetición empieza un periodo medio después del final de la anterior
+        long cycleNanos = timestamps[recorded - 1] + timestamps[recorded - 1] / (recorded - 1);
+        for (int i = recorded; i < events; i++) {
+            int source = i % recorded;
+            accelerometer[i] = accelerometer[source];
+            timestamps[i] = timestamps[source] + (i / recorded) * cycleNanos;
+            x[i] = x[source];
+            y[i] = y[source];
+            z[i] = z[source];
+        }
+        this.durationNanos = ((events - 1) / recorded + 1) * cycleNanos;
+    }
+    
+    private MotionStream(int events) {
+        this.size = events;
+        this.accelerometer = new boolean[events];
+        this.timestamps = new long[events];
+        this.x = new float[events];
+        this.y = new float[events];
+        this.z = new float[events];
+    }
+    
+    private void append(int[] count, boolean isAccelerometer, long timestamp, float vx, float vy, float vz) {
+        int i = count[0];
+        if (i == size) {
+            return;
+        }
+        accelerometer[i] = isAccelerometer;
+        timestamps[i] = timestamp;
+        x[i] = vx;
+        y[i] = vy;
+        z[i] = vz;
+        count[0] = i + 1;
+    }
+    
+    private void fillAccelerometer(String profile, float seconds, Random random, int i) {
+        float noise = 0.05f;
+        x[i] = gaussian(random, noise);
+        y[i] = gaussian(random, noise);
+        z[i] = GRAVITY + gaussian(random, noise);
+        if (WALKING.equals(profile)) {
+            float step = (float) Math.sin(2.0 * Math.PI * 2.0 * seconds);
+            y[i] += 1.5f * step;
+            z[i] += 3.0f * step;
+        } else if (FALL.equals(profile)) {
+            // Ciclo de 4 s: reposo, 0.6 s de caída libre, impacto de 50 ms y quietud en el suelo
+            float phase = seconds % 4.0f;
+            if (phase >= 1.0f && phase < 1.6f) {
+                x[i] = gaussian(random, noise);
+                y[i] = gaussian(random, noise);
+                z[i] = gaussian(random, noise);
+            } else if (phase >= 1.6f && phase < 1.65f) {
+                z[i] = 60.0f + gaussian(random, 5.0f);
+            } else if (phase >= 1.65f) {
+                x[i] = GRAVITY + gaussian(random, noise);
+                z[i] = gaussian(random, noise);
+            }
+        }
+    }
+    
+    private void fillGyroscope(String profile, float seconds, Random random, int i) {
+        float noise = 0.01f;
+        x[i] = gaussian(random, noise);
+        y[i] = gaussian(random, noise);
+        z[i] = gaussian(random, noise);
+        if (WALKING.equals(profile)) {
+            x[i] += 0.8f * (float) Math.sin(2.0 * Math.PI * 1.0 * seconds);
+        } else if (FALL.equals(profile)) {
+            float phase = seconds % 4.0f;
+            if (phase >= 1.0f && phase < 1.65f) {
+                y[i] += 6.0f;
+            }
+        }
+    }
+    
+    private static float gaussian(Random random, float sigma) {
+        return (float) random.nextGaussian() * sigma;
+    }
+}
@@ -0,0 +1,18 @@
+plugins {
+    `java-library`
+}
+
+// Núcleo de detección sin dependencias de Android: se prueba y se mide en la JVM
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// Los comentarios y mensajes están en español: no depender de la codificación de la plataforma
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
@@ -0,0 +1,189 @@
+package com.example.fallalarm.core.checkpoint;
+
+import com.example.fallalarm.core.ml.DetectionFusionEngine;
+import com.example.fallalarm.core.ml.MotionFrameAligner;
+import com.example.fallalarm.core.sensors.SampleIngestor;
+import com.example.fallalarm.core.sensors.SamplingRateController;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Punto de control binario del estado de los detectores, para arrancar en caliente tras un
+ * reinicio del proceso o del dispositivo
+ *
+ * Archivo:
+ *   0  int   magic ("FACP")
+ *   4  short versión
+ *   6  long  reloj de pared al capturar (ms)
+ *   14 long  elapsedRealtimeNanos al capturar
+ *   22 secciones: ingesta (gravedad y reloj), alineador (flujos e historial de cuadros),
+ *      control de frecuencia y fusión, cada una precedida por un byte de presencia
+ *   .. int   CRC32 de todo lo anterior
+ *
+ * Al restaurar, las marcas de tiempo se trasladan al reloj actual conservando la antigüedad real
+ * (medida con el reloj de pared, que sí sobrevive a un reinicio del dispositivo). Un punto de
+ * control más viejo que {@link #MAX_AGE_MILLIS} se ignora. La captura debe hacerse en el hilo de
+ * sensores; la escritura a disco, fuera de él.
+ */
+public final class DetectorCheckpoint {
+    
+    public static final int MAGIC = 0x46414350; // "FACP"
+    public static final short VERSION = 2;
+    public static final long MAX_AGE_MILLIS = 5 * 60_000L;
+    
+    private static final int HEADER_SIZE = 22;
+    private static final int CAPACITY = 16 * 1024;
+    
+    private final SampleIngestor ingestor;
+    private final MotionFrameAligner aligner;
+    private final SamplingRateController rateController;
+    private final DetectionFusionEngine fusionEngine;
+    private final ByteBuffer buffer = ByteBuffer.allocate(CAPACITY);
+    private final CRC32 crc = new CRC32();
+    
+    /**
+     * Los componentes ausentes (sensor o ML no disponibles) pueden ser null
+     */
+    public DetectorCheckpoint(SampleIngestor ingestor, MotionFrameAligner aligner,
+                              SamplingRateController rateController, DetectionFusionEngine fusionEngine) {
+        this.ingestor = ingestor;
+        this.aligner = aligner;
+        this.rateController = rateController;
+        this.fusionEngine = fusionEngine;
+    }
+    
+    /**
+     * Serializa el estado actual; llamar desde el hilo que alimenta a los detectores
+     */
+    public byte[] capture(long wallMillis, long elapsedNanos) {
+        // Se usan los métodos de Buffer: las versiones covariantes de ByteBuffer no existen en
+        // las API de Android anteriores a la 29
+        ((Buffer) buffer).clear();
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putLong(wallMillis);
+        buffer.putLong(elapsedNanos);
+        buffer.put((byte) (ingestor != null ? 1 : 0));
+        if (ingestor != null) {
+            ingestor.saveState(buffer);
+        }
+        buffer.put((byte) (aligner != null ? 1 : 0));
+        if (aligner != null) {
+            aligner.saveState(buffer);
+        }
+        buffer.put((byte) (rateController != null ? 1 : 0));
+        if (rateController != null) {
+            rateController.saveState(buffer);
+        }
+        buffer.put((byte) (fusionEngine != null ? 1 : 0));
+        if (fusionEngine != null) {
+            fusionEngine.saveState(buffer);
+        }
+        crc.reset();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+    
+    /**
+     * Restaura un punto de control; llamar antes de registrar los sensores. Devuelve false si es
+     * demasiado viejo (o el reloj de pared retrocedió) y no se aplicó.
+     *
+     * @throws IOException si el contenido está dañado o es de otra versión; los componentes
+     *                     quedan en su estado inicial
+     */
+    public boolean restore(byte[] data, long wallMillis, long elapsedNanos) throws IOException {
+        if (data.length < HEADER_SIZE + 4) {
+            throw new IOException("Punto de control truncado");
+        }
+        crc.reset();
+        crc.update(data, 0, data.length - 4);
+        ByteBuffer in = ByteBuffer.wrap(data);
+        if (in.getInt(data.length - 4) != (int) crc.getValue()) {
+            throw new IOException("CRC del punto de control inválido");
+        }
+        if (in.getInt() != MAGIC || in.getShort() != VERSION) {
+            throw new IOException("El archivo no es un punto de control compatible");
+        }
+        long storedWallMillis = in.getLong();
+        long storedElapsedNanos = in.getLong();
+        long ageMillis = wallMillis - storedWallMillis;
+        if (ageMillis < 0 || ageMillis > MAX_AGE_MILLIS) {
+            return false;
+        }
+        // Mismo instante en el reloj actual: ahora menos la antigüedad
+        long timeShift = elapsedNanos - ageMillis * 1_000_000L - storedElapsedNanos;
+        
+        ((Buffer) in).limit(data.length - 4); // Métodos de Buffer, como en capture
+        try {
+            if (in.get() != 0) {
+                (ingestor != null ? ingestor : new SampleIngestor()).restoreState(in, timeShift);
+            }
+            if (in.get() != 0) {
+                (aligner != null ? aligner : new MotionFrameAligner()).restoreState(in, timeShift);
+            }
+            if (in.get() != 0) {
+                (rateController != null ? rateController : new SamplingRateController(null)).restoreState(in, timeShift);
+            }
+            if (in.get() != 0) {
+                (fusionEngine != null ? fusionEngine : new DetectionFusionEngine()).restoreState(in, timeShift);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            if (ingestor != null) {
+                ingestor.reset();
+            }
+            if (aligner != null) {
+                aligner.reset();
+            }
+            if (rateController != null) {
+                rateController.reset();
+            }
+            if (fusionEngine != null) {
+                fusionEngine.reset();
+            }
+            throw new IOException("Punto de control dañado", e);
+        }
+        return true;
+    }
+    
+    /**
+     * Escribe en un archivo temporal sincronizado y lo renombra sobre el destino, así una
+     * interrupción nunca deja un punto de control a medias
+     */
+    public static void write(File target, byte[] data) throws IOException {
+        File temporary = new File(target.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temporary)) {
+            out.write(data);
+            out.getFD().sync();
+        }
+        if (!temporary.renameTo(target)) {
+            temporary.delete();
+            throw new IOException("No se pudo reemplazar " + target);
+        }
+    }
+    
+    /**
+     * Contenido del punto de control, o null si no existe
+     */
+    public static byte[] read(File source) throws IOException {
+        if (!source.exists()) {
+            return null;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(source, "r")) {
+            if (file.length() > CAPACITY) {
+                throw new IOException("Punto de control demasiado grande");
+            }
+            byte[] data = new byte[(int) file.length()];
+            file.readFully(data);
+            return data;
+        }
+    }
+}
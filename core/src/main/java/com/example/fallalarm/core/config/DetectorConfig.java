@@ -0,0 +1,215 @@
+package com.example.fallalarm.core.config;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Properties;
+
+/**
+ * Parámetros inmutables de los detectores
+ * Los valores por defecto son los umbrales con los que se validó la app. Un perfil se guarda
+ * como archivo de propiedades con las claves {@code KEY_*}; las claves ausentes conservan el
+ * valor por defecto.
+ */
+public final class DetectorConfig {
+    
+    public static final String KEY_FREE_FALL_THRESHOLD = "fall.freeFallThreshold";
+    public static final String KEY_IMPACT_THRESHOLD = "fall.impactThreshold";
+    public static final String KEY_FALL_DETECTION_WINDOW = "fall.detectionWindowMs";
+    public static final String KEY_MIN_FREE_FALL_DURATION = "fall.minFreeFallMs";
+    public static final String KEY_SHAKE_THRESHOLD = "shake.threshold";
+    public static final String KEY_SHAKE_WINDOW = "shake.windowMs";
+    public static final String KEY_MIN_SHAKE_COUNT = "shake.minCount";
+    public static final String KEY_ML_FALL_THRESHOLD = "ml.fallThreshold";
+    public static final String KEY_ML_MOTION_THRESHOLD = "ml.motionThreshold";
+    public static final String KEY_FALL_PATTERN_THRESHOLD = "pattern.fallThreshold";
+    
+    public static final String[] KEYS = {
+            KEY_FREE_FALL_THRESHOLD, KEY_IMPACT_THRESHOLD, KEY_FALL_DETECTION_WINDOW,
+            KEY_MIN_FREE_FALL_DURATION, KEY_SHAKE_THRESHOLD, KEY_SHAKE_WINDOW, KEY_MIN_SHAKE_COUNT,
+            KEY_ML_FALL_THRESHOLD, KEY_ML_MOTION_THRESHOLD, KEY_FALL_PATTERN_THRESHOLD
+    };
+    
+    public static final DetectorConfig DEFAULT = new Builder().build();
+    
+    private final float freeFallThreshold;
+    private final float impactThreshold;
+    private final long fallDetectionWindowMs;
+    private final long minFreeFallDurationMs;
+    private final float shakeThreshold;
+    private final long shakeWindowMs;
+    private final int minShakeCount;
+    private final float mlFallThreshold;
+    private final float mlMotionThreshold;
+    private final float fallPatternThreshold;
+    
+    private DetectorConfig(Builder builder) {
+        this.freeFallThreshold = builder.freeFallThreshold;
+        this.impactThreshold = builder.impactThreshold;
+        this.fallDetectionWindowMs = builder.fallDetectionWindowMs;
+        this.minFreeFallDurationMs = builder.minFreeFallDurationMs;
+        this.shakeThreshold = builder.shakeThreshold;
+        this.shakeWindowMs = builder.shakeWindowMs;
+        this.minShakeCount = builder.minShakeCount;
+        this.mlFallThreshold = builder.mlFallThreshold;
+        this.mlMotionThreshold = builder.mlMotionThreshold;
+        this.fallPatternThreshold = builder.fallPatternThreshold;
+    }
+    
+    public float getFreeFallThreshold() { return freeFallThreshold; }
+    public float getImpactThreshold() { return impactThreshold; }
+    public long getFallDetectionWindowMs() { return fallDetectionWindowMs; }
+    public long getMinFreeFallDurationMs() { return minFreeFallDurationMs; }
+    public float getShakeThreshold() { return shakeThreshold; }
+    public long getShakeWindowMs() { return shakeWindowMs; }
+    public int getMinShakeCount() { return minShakeCount; }
+    public float getMlFallThreshold() { return mlFallThreshold; }
+    public float getMlMotionThreshold() { return mlMotionThreshold; }
+    public float getFallPatternThreshold() { return fallPatternThreshold; }
+    
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+    
+    /**
+     * Valor de un parámetro como texto, con la misma clave que en el archivo de perfil
+     */
+    public String get(String key) {
+        switch (key) {
+            case KEY_FREE_FALL_THRESHOLD: return Float.toString(freeFallThreshold);
+            case KEY_IMPACT_THRESHOLD: return Float.toString(impactThreshold);
+            case KEY_FALL_DETECTION_WINDOW: return Long.toString(fallDetectionWindowMs);
+            case KEY_MIN_FREE_FALL_DURATION: return Long.toString(minFreeFallDurationMs);
+            case KEY_SHAKE_THRESHOLD: return Float.toString(shakeThreshold);
+            case KEY_SHAKE_WINDOW: return Long.toString(shakeWindowMs);
+            case KEY_MIN_SHAKE_COUNT: return Integer.toString(minShakeCount);
+            case KEY_ML_FALL_THRESHOLD: return Float.toString(mlFallThreshold);
+            case KEY_ML_MOTION_THRESHOLD: return Float.toString(mlMotionThreshold);
+            case KEY_FALL_PATTERN_THRESHOLD: return Float.toString(fallPatternThreshold);
+            default: throw new IllegalArgumentException("Parámetro desconocido: " + key);
+        }
+    }
+    
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        for (String key : KEYS) {
+            properties.setProperty(key, get(key));
+        }
+        return properties;
+    }
+    
+    public void store(Writer writer, String comment) throws IOException {
+        toProperties().store(writer, comment);
+    }
+    
+    /**
+     * Lee un perfil; las claves ausentes toman el valor por defecto
+     */
+    public static DetectorConfig load(Reader reader) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+        try {
+            return fromProperties(properties);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Perfil de detección inválido: " + e.getMessage(), e);
+        }
+    }
+    
+    public static DetectorConfig fromProperties(Properties properties) {
+        Builder builder = new Builder();
+        for (String key : properties.stringPropertyNames()) {
+            builder.set(key, properties.getProperty(key));
+        }
+        return builder.build();
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof DetectorConfig && toProperties().equals(((DetectorConfig) other).toProperties());
+    }
+    
+    @Override
+    public int hashCode() {
+        return toProperties().hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (String key : KEYS) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(key).append('=').append(get(key));
+        }
+        return text.toString();
+    }
+    
+    public static final class Builder {
+        private float freeFallThreshold = 1.0f;     // m/s² - Muy estricto para caída libre
+        private float impactThreshold = 45.0f;      // m/s² (≈ 4.5g) - Impacto muy fuerte requerido
+        private long fallDetectionWindowMs = 1500;  // ms - Ventana mucho más larga
+        private long minFreeFallDurationMs = 500;   // ms
+        private float shakeThreshold = 35.0f;       // m/s² - Mucho menos sensible
+        private long shakeWindowMs = 1200;          // ms - Ventana mucho más larga
+        private int minShakeCount = 4;              // Muchas más sacudidas requeridas
+        private float mlFallThreshold = 0.95f;
+        private float mlMotionThreshold = 40.0f;
+        private float fallPatternThreshold = 0.75f;
+        
+        public Builder() {
+        }
+        
+        private Builder(DetectorConfig config) {
+            freeFallThreshold = config.freeFallThreshold;
+            impactThreshold = config.impactThreshold;
+            fallDetectionWindowMs = config.fallDetectionWindowMs;
+            minFreeFallDurationMs = config.minFreeFallDurationMs;
+            shakeThreshold = config.shakeThreshold;
+            shakeWindowMs = config.shakeWindowMs;
+            minShakeCount = config.minShakeCount;
+            mlFallThreshold = config.mlFallThreshold;
+            mlMotionThreshold = config.mlMotionThreshold;
+            fallPatternThreshold = config.fallPatternThreshold;
+        }
+        
+        public Builder setFreeFallThreshold(float value) { freeFallThreshold = value; return this; }
+        public Builder setImpactThreshold(float value) { impactThreshold = value; return this; }
+        public Builder setFallDetectionWindowMs(long value) { fallDetectionWindowMs = value; return this; }
+        public Builder setMinFreeFallDurationMs(long value) { minFreeFallDurationMs = value; return this; }
+        public Builder setShakeThreshold(float value) { shakeThreshold = value; return this; }
+        public Builder setShakeWindowMs(long value) { shakeWindowMs = value; return this; }
+        public Builder setMinShakeCount(int value) { minShakeCount = value; return this; }
+        public Builder setMlFallThreshold(float value) { mlFallThreshold = value; return this; }
+        public Builder setMlMotionThreshold(float value) { mlMotionThreshold = value; return this; }
+        public Builder setFallPatternThreshold(float value) { fallPatternThreshold = value; return this; }
+        
+        /**
+         * Asigna un parámetro por su clave de perfil (valor en texto)
+         */
+        public Builder set(String key, String value) {
+            String text = value.trim();
+            switch (key) {
+                case KEY_FREE_FALL_THRESHOLD: return setFreeFallThreshold(Float.parseFloat(text));
+                case KEY_IMPACT_THRESHOLD: return setImpactThreshold(Float.parseFloat(text));
+                case KEY_FALL_DETECTION_WINDOW: return setFallDetectionWindowMs(Long.parseLong(text));
+                case KEY_MIN_FREE_FALL_DURATION: return setMinFreeFallDurationMs(Long.parseLong(text));
+                case KEY_SHAKE_THRESHOLD: return setShakeThreshold(Float.parseFloat(text));
+                case KEY_SHAKE_WINDOW: return setShakeWindowMs(Long.parseLong(text));
+                case KEY_MIN_SHAKE_COUNT: return setMinShakeCount(Integer.parseInt(text));
+                case KEY_ML_FALL_THRESHOLD: return setMlFallThreshold(Float.parseFloat(text));
+                case KEY_ML_MOTION_THRESHOLD: return setMlMotionThreshold(Float.parseFloat(text));
+                case KEY_FALL_PATTERN_THRESHOLD: return setFallPatternThreshold(Float.parseFloat(text));
+                default: throw new IllegalArgumentException("Parámetro desconocido: " + key);
+            }
+        }
+        
+        public DetectorConfig build() {
+            if (minFreeFallDurationMs > fallDetectionWindowMs || minShakeCount < 1
+                    || fallDetectionWindowMs < 0 || shakeWindowMs < 0) {
+                throw new IllegalArgumentException("Combinación de parámetros inválida");
+            }
+            return new DetectorConfig(this);
+        }
+    }
+}
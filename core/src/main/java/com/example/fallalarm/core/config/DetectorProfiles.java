@@ -0,0 +1,85 @@
+package com.example.fallalarm.core.config;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Properties;
+
+/**
+ * Perfiles de detección predefinidos y lectura del archivo de perfil del dispositivo
+ *
+ * El archivo es de propiedades: {@code profile=<nombre>} elige la base y el resto de claves
+ * (ver {@link DetectorConfig}) la ajustan, p. ej. con un perfil generado por la herramienta tune.
+ */
+public final class DetectorProfiles {
+    
+    public static final String KEY_PROFILE = "profile";
+    
+    public static final String DEFAULT = "default";
+    public static final String ELDERLY_INDOOR = "elderly-indoor";
+    public static final String ACTIVE = "active";
+    public static final String WHEELCHAIR = "wheelchair";
+    
+    public static final String[] NAMES = {DEFAULT, ELDERLY_INDOOR, ACTIVE, WHEELCHAIR};
+    
+    private DetectorProfiles() {
+    }
+    
+    public static DetectorConfig get(String name) {
+        switch (name) {
+            case DEFAULT:
+                return DetectorConfig.DEFAULT;
+            case ELDERLY_INDOOR:
+                // Caídas más lentas sobre suelos blandos y gesto de ayuda más fácil de hacer
+                return DetectorConfig.DEFAULT.toBuilder()
+                        .setImpactThreshold(35.0f)
+                        .setMinFreeFallDurationMs(300)
+                        .setShakeThreshold(30.0f)
+                        .setMinShakeCount(3)
+                        .setMlFallThreshold(0.9f)
+                        .setFallPatternThreshold(0.7f)
+                        .build();
+            case ACTIVE:
+                // Carrera y deporte: impactos fuertes habituales, se exige más para alarmar
+                return DetectorConfig.DEFAULT.toBuilder()
+                        .setImpactThreshold(60.0f)
+                        .setShakeThreshold(45.0f)
+                        .setMinShakeCount(5)
+                        .setMlFallThreshold(0.97f)
+                        .setMlMotionThreshold(60.0f)
+                        .setFallPatternThreshold(0.85f)
+                        .build();
+            case WHEELCHAIR:
+                // Vuelcos: caída libre corta e impacto moderado, con poca rotación previa
+                return DetectorConfig.DEFAULT.toBuilder()
+                        .setImpactThreshold(30.0f)
+                        .setMinFreeFallDurationMs(200)
+                        .setFallDetectionWindowMs(1200)
+                        .setShakeThreshold(30.0f)
+                        .setMlMotionThreshold(30.0f)
+                        .setFallPatternThreshold(0.7f)
+                        .build();
+            default:
+                throw new IllegalArgumentException("Perfil desconocido: " + name);
+        }
+    }
+    
+    /**
+     * Lee un archivo de perfil; sin clave {@code profile} se parte del perfil por defecto
+     */
+    public static DetectorConfig load(Reader reader) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+        try {
+            String name = properties.getProperty(KEY_PROFILE, DEFAULT).trim();
+            DetectorConfig.Builder builder = get(name).toBuilder();
+            for (String key : properties.stringPropertyNames()) {
+                if (!KEY_PROFILE.equals(key)) {
+                    builder.set(key, properties.getProperty(key));
+                }
+            }
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Perfil de detección inválido: " + e.getMessage(), e);
+        }
+    }
+}
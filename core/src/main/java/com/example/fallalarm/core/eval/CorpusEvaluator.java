@@ -0,0 +1,186 @@
+package com.example.fallalarm.core.eval;
+
+import com.example.fallalarm.core.config.DetectorConfig;
+import com.example.fallalarm.core.ml.DetectionFusionEngine;
+import com.example.fallalarm.core.replay.ReplayDetection;
+import com.example.fallalarm.core.replay.ReplayResult;
+import com.example.fallalarm.core.replay.SampleStream;
+import com.example.fallalarm.core.replay.TraceReplayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluación de los detectores y de la decisión fusionada sobre un corpus de trazas etiquetadas
+ * Cada traza se reproduce por separado (mapeada en memoria, sin copiarla al heap) y solo se
+ * conservan sus contadores, de modo que el consumo no crece con el tamaño del corpus.
+ *
+ * Una detección acierta si cae entre {@link #MATCH_BEFORE_NANOS} antes y {@link #MATCH_AFTER_NANOS}
+ * después de un evento de referencia aún no emparejado; las repeticiones sobre un evento ya
+ * emparejado no cuentan y el resto son falsas alarmas. Las falsas alarmas de un detector separadas
+ * por menos de {@link #FALSE_ALARM_EPISODE_NANOS} forman un solo episodio: un detector que vota en
+ * cada cuadro no debe contar decenas de alarmas por un único golpe.
+ */
+public class CorpusEvaluator {
+    
+    public static final String TRACE_SUFFIX = ".trace";
+    public static final long MATCH_BEFORE_NANOS = 1_000_000_000L;
+    public static final long MATCH_AFTER_NANOS = 5_000_000_000L;
+    // Periodo refractario entre falsas alarmas: la ventana de votos de la fusión
+    public static final long FALSE_ALARM_EPISODE_NANOS = DetectionFusionEngine.VOTE_WINDOW_NANOS;
+    
+    private final TraceReplayer replayer;
+    
+    public CorpusEvaluator() {
+        this(DetectorConfig.DEFAULT);
+    }
+    
+    public CorpusEvaluator(DetectorConfig config) {
+        this.replayer = new TraceReplayer(config);
+    }
+    
+    /**
+     * Busca trazas recursivamente, en orden estable
+     */
+    public static List<File> findTraces(File root) {
+        List<File> traces = new ArrayList<>();
+        collect(root, traces);
+        Collections.sort(traces);
+        return traces;
+    }
+    
+    private static void collect(File file, List<File> traces) {
+        File[] children = file.listFiles();
+        if (children == null) {
+            if (file.isFile() && file.getName().endsWith(TRACE_SUFFIX)) {
+                traces.add(file);
+            }
+            return;
+        }
+        for (File child : children) {
+            collect(child, traces);
+        }
+    }
+    
+    public EvaluationReport evaluate(List<File> traces, ForkJoinPool pool) throws IOException {
+        List<Callable<EvaluationReport>> tasks = new ArrayList<>(traces.size());
+        for (final File trace : traces) {
+            tasks.add(() -> evaluate(trace));
+        }
+        EvaluationReport report = new EvaluationReport();
+        for (Future<EvaluationReport> future : pool.invokeAll(tasks)) {
+            try {
+                report.merge(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Evaluación interrumpida", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException("Error al evaluar una traza", cause);
+            }
+        }
+        return report;
+    }
+    
+    public EvaluationReport evaluate(File trace) throws IOException {
+        TraceLabels labels = TraceLabels.forTrace(trace);
+        ReplayResult result = replayer.replay(trace);
+        return score(labels, result);
+    }
+    
+    /**
+     * Evalúa un flujo en caché con la configuración de este evaluador
+     */
+    public EvaluationReport evaluate(SampleStream stream, TraceLabels labels) {
+        return score(labels, replayer.replay(stream));
+    }
+    
+    static EvaluationReport score(TraceLabels labels, ReplayResult result) {
+        EvaluationReport report = new EvaluationReport();
+        report.addTrace(labels.getTraceClass(), result.getSampleCount(),
+                result.getTraceDurationNanos(), result.getWallTimeNanos());
+        for (ReplayDetection.Type type : EvaluationReport.SCORED_TYPES) {
+            match(referenceFor(type, labels), result.getDetections(), type, report.getScore(type));
+        }
+        return report;
+    }
+    
+    /**
+     * La sacudida se compara con las sacudidas etiquetadas; el incidente fusionado, con ambos
+     * tipos de evento, y el resto de detectores, con las caídas
+     */
+    private static long[] referenceFor(ReplayDetection.Type type, TraceLabels labels) {
+        switch (type) {
+            case SHAKE:
+                return labels.shakes();
+            case INCIDENT:
+                long[] events = Arrays.copyOf(labels.falls(), labels.falls().length + labels.shakes().length);
+                System.arraycopy(labels.shakes(), 0, events, labels.falls().length, labels.shakes().length);
+                Arrays.sort(events);
+                return events;
+            default:
+                return labels.falls();
+        }
+    }
+    
+    static void match(long[] events, List<ReplayDetection> detections,
+                      ReplayDetection.Type type, DetectorScore score) {
+        boolean[] matched = new boolean[events.length];
+        long lastFalseAlarm = Long.MIN_VALUE;
+        for (ReplayDetection detection : detections) {
+            if (detection.getType() != type) {
+                continue;
+            }
+            long time = detection.getTimestampNanos();
+            int event = findEvent(events, matched, time);
+            if (event < 0) {
+                // El episodio se extiende mientras las detecciones sigan llegando dentro del periodo
+                if (lastFalseAlarm == Long.MIN_VALUE || time - lastFalseAlarm >= FALSE_ALARM_EPISODE_NANOS) {
+                    score.falseAlarm();
+                }
+                lastFalseAlarm = time;
+            } else if (!matched[event]) {
+                matched[event] = true;
+                score.hit(time - events[event]);
+            }
+        }
+        for (boolean hit : matched) {
+            if (!hit) {
+                score.miss();
+            }
+        }
+    }
+    
+    /**
+     * Evento cuya ventana contiene el instante dado, prefiriendo uno aún no emparejado; -1 si no hay
+     */
+    private static int findEvent(long[] events, boolean[] matched, long time) {
+        // Primer evento no anterior a time - after (los eventos están ordenados)
+        int index = Arrays.binarySearch(events, time - MATCH_AFTER_NANOS);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        while (index > 0 && events[index - 1] >= time - MATCH_AFTER_NANOS) {
+            index--;
+        }
+        int found = -1;
+        for (int i = index; i < events.length && events[i] - MATCH_BEFORE_NANOS <= time; i++) {
+            if (!matched[i]) {
+                return i;
+            }
+            found = i;
+        }
+        return found;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.fallalarm.core.eval;
+
+import java.util.Arrays;
+
+/**
+ * Aciertos, falsas alarmas, omisiones y latencias de un detector sobre el corpus
+ * Los acumuladores de cada traza se combinan con {@link #merge}.
+ */
+public final class DetectorScore {
+    
+    private int truePositives = 0;
+    private int falsePositives = 0;
+    private int falseNegatives = 0;
+    private long[] latencies = new long[8];
+    private int latencyCount = 0;
+    
+    void hit(long latencyNanos) {
+        truePositives++;
+        addLatency(latencyNanos);
+    }
+    
+    private void addLatency(long latencyNanos) {
+        if (latencyCount == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencyCount * 2);
+        }
+        latencies[latencyCount++] = latencyNanos;
+    }
+    
+    void falseAlarm() {
+        falsePositives++;
+    }
+    
+    void miss() {
+        falseNegatives++;
+    }
+    
+    void merge(DetectorScore other) {
+        truePositives += other.truePositives;
+        falsePositives += other.falsePositives;
+        falseNegatives += other.falseNegatives;
+        for (int i = 0; i < other.latencyCount; i++) {
+            addLatency(other.latencies[i]);
+        }
+    }
+    
+    public int getTruePositives() { return truePositives; }
+    public int getFalsePositives() { return falsePositives; }
+    public int getFalseNegatives() { return falseNegatives; }
+    
+    /**
+     * Devuelve NaN si el detector no disparó nunca
+     */
+    public double getPrecision() {
+        int fired = truePositives + falsePositives;
+        return fired == 0 ? Double.NaN : (double) truePositives / fired;
+    }
+    
+    /**
+     * Devuelve NaN si el corpus no tiene eventos de referencia para este detector
+     */
+    public double getRecall() {
+        int events = truePositives + falseNegatives;
+        return events == 0 ? Double.NaN : (double) truePositives / events;
+    }
+    
+    public double getFalseAlarmsPerHour(long durationNanos) {
+        return durationNanos <= 0 ? Double.NaN : falsePositives / (durationNanos / 3.6e12);
+    }
+    
+    /**
+     * Percentil (0-100) del tiempo entre el evento de referencia y la detección; -1 si no hay aciertos
+     */
+    public long getLatencyPercentile(double percentile) {
+        if (latencyCount == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * latencyCount) - 1;
+        return sorted[Math.max(0, Math.min(index, latencyCount - 1))];
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.fallalarm.core.eval;
+
+import com.example.fallalarm.core.replay.ReplayDetection;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Resultado agregado de evaluar un corpus etiquetado
+ */
+public final class EvaluationReport {
+    
+    /**
+     * Detecciones que se puntúan; los candidatos y el movimiento brusco del modelo son informativos
+     */
+    public static final ReplayDetection.Type[] SCORED_TYPES = {
+            ReplayDetection.Type.FALL,
+            ReplayDetection.Type.SHAKE,
+            ReplayDetection.Type.ML_FALL,
+            ReplayDetection.Type.PATTERN_FALL,
+            ReplayDetection.Type.INCIDENT
+    };
+    
+    private final Map<ReplayDetection.Type, DetectorScore> scores = new EnumMap<>(ReplayDetection.Type.class);
+    private final int[] tracesByClass = new int[TraceLabels.TraceClass.values().length];
+    private long sampleCount = 0;
+    private long durationNanos = 0;
+    private long replayNanos = 0;
+    
+    EvaluationReport() {
+        for (ReplayDetection.Type type : SCORED_TYPES) {
+            scores.put(type, new DetectorScore());
+        }
+    }
+    
+    void addTrace(TraceLabels.TraceClass traceClass, long samples, long duration, long replay) {
+        tracesByClass[traceClass.ordinal()]++;
+        sampleCount += samples;
+        durationNanos += duration;
+        replayNanos += replay;
+    }
+    
+    void merge(EvaluationReport other) {
+        for (int i = 0; i < tracesByClass.length; i++) {
+            tracesByClass[i] += other.tracesByClass[i];
+        }
+        sampleCount += other.sampleCount;
+        durationNanos += other.durationNanos;
+        replayNanos += other.replayNanos;
+        for (Map.Entry<ReplayDetection.Type, DetectorScore> entry : other.scores.entrySet()) {
+            scores.get(entry.getKey()).merge(entry.getValue());
+        }
+    }
+    
+    public DetectorScore getScore(ReplayDetection.Type type) {
+        return scores.get(type);
+    }
+    
+    public int getTraceCount() {
+        int total = 0;
+        for (int count : tracesByClass) {
+            total += count;
+        }
+        return total;
+    }
+    
+    public int getTraceCount(TraceLabels.TraceClass traceClass) {
+        return tracesByClass[traceClass.ordinal()];
+    }
+    
+    public long getSampleCount() { return sampleCount; }
+    public long getDurationNanos() { return durationNanos; }
+    
+    /**
+     * Suma del tiempo de reproducción de cada traza (tiempo de CPU aproximado, no de reloj)
+     */
+    public long getReplayNanos() { return replayNanos; }
+}
@@ -0,0 +1,94 @@
+package com.example.fallalarm.core.eval;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Etiquetas de referencia de una traza, leídas del archivo ".labels" junto a ella
+ *
+ *   class=fall|shake|adl
+ *   falls=<ns>,<ns>...    instantes de impacto, con el mismo reloj que la traza
+ *   shakes=<ns>,<ns>...   sacudidas voluntarias
+ *
+ * Una traza sin archivo de etiquetas se considera actividad diaria (ADL) sin eventos.
+ */
+public final class TraceLabels {
+    
+    public static final String SUFFIX = ".labels";
+    
+    public enum TraceClass {
+        FALL,
+        SHAKE,
+        ADL
+    }
+    
+    private static final long[] NONE = new long[0];
+    
+    private final TraceClass traceClass;
+    private final long[] falls;
+    private final long[] shakes;
+    
+    public TraceLabels(TraceClass traceClass, long[] falls, long[] shakes) {
+        this.traceClass = traceClass;
+        this.falls = falls.clone();
+        this.shakes = shakes.clone();
+        Arrays.sort(this.falls);
+        Arrays.sort(this.shakes);
+    }
+    
+    public TraceClass getTraceClass() { return traceClass; }
+    public long[] getFalls() { return falls.clone(); }
+    public long[] getShakes() { return shakes.clone(); }
+    
+    long[] falls() { return falls; }
+    long[] shakes() { return shakes; }
+    
+    public static File sidecarFor(File trace) {
+        String name = trace.getName();
+        int dot = name.lastIndexOf('.');
+        return new File(trace.getParentFile(), (dot > 0 ? name.substring(0, dot) : name) + SUFFIX);
+    }
+    
+    public static TraceLabels forTrace(File trace) throws IOException {
+        File sidecar = sidecarFor(trace);
+        if (!sidecar.isFile()) {
+            return new TraceLabels(TraceClass.ADL, NONE, NONE);
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(sidecar.toPath());
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        try {
+            long[] falls = parseTimestamps(properties.getProperty("falls"));
+            long[] shakes = parseTimestamps(properties.getProperty("shakes"));
+            String name = properties.getProperty("class");
+            TraceClass traceClass = name != null
+                    ? TraceClass.valueOf(name.trim().toUpperCase(Locale.ROOT))
+                    : falls.length > 0 ? TraceClass.FALL : shakes.length > 0 ? TraceClass.SHAKE : TraceClass.ADL;
+            return new TraceLabels(traceClass, falls, shakes);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Etiquetas inválidas en " + sidecar.getName() + ": " + e.getMessage(), e);
+        }
+    }
+    
+    private static long[] parseTimestamps(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return NONE;
+        }
+        String[] parts = value.split(",");
+        long[] timestamps = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            timestamps[i] = Long.parseLong(parts[i].trim());
+        }
+        return timestamps;
+    }
+}
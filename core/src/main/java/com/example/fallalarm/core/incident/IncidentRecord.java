@@ -0,0 +1,78 @@
+package com.example.fallalarm.core.incident;
+
+import com.example.fallalarm.core.ml.DetectionFusionEngine;
+
+import java.util.Arrays;
+
+/**
+ * Incidente confirmado: fuente que lo disparó, puntuación de la fusión, voto de cada detector,
+ * reconocimiento del usuario y referencia a la traza de sensores guardada
+ */
+public final class IncidentRecord {
+    
+    public static final long NOT_ACKNOWLEDGED = -1L;
+    public static final long NO_TRACE = 0L;
+    
+    private static final int SOURCE_COUNT = DetectionFusionEngine.Source.values().length;
+    
+    private final long timestampMillis;
+    private final DetectionFusionEngine.Source trigger;
+    private final float score;
+    private final float[] votes;
+    private final long ackLatencyMillis;
+    private final long traceId;
+    
+    /**
+     * @param votes confianza de cada fuente en el momento de la decisión, por ordinal (0 = sin voto)
+     * @param traceId instante (ms) con el que se nombró la traza del incidente, o {@link #NO_TRACE}
+     */
+    public IncidentRecord(long timestampMillis, DetectionFusionEngine.Source trigger, float score,
+                          float[] votes, long traceId) {
+        this(timestampMillis, trigger, score, votes, NOT_ACKNOWLEDGED, traceId);
+    }
+    
+    IncidentRecord(long timestampMillis, DetectionFusionEngine.Source trigger, float score,
+                   float[] votes, long ackLatencyMillis, long traceId) {
+        if (votes.length != SOURCE_COUNT) {
+            throw new IllegalArgumentException("Se esperaba un voto por fuente: " + votes.length);
+        }
+        this.timestampMillis = timestampMillis;
+        this.trigger = trigger;
+        this.score = score;
+        this.votes = votes.clone();
+        this.ackLatencyMillis = ackLatencyMillis;
+        this.traceId = traceId;
+    }
+    
+    public long getTimestampMillis() { return timestampMillis; }
+    public DetectionFusionEngine.Source getTrigger() { return trigger; }
+    public float getScore() { return score; }
+    public long getAckLatencyMillis() { return ackLatencyMillis; }
+    public long getTraceId() { return traceId; }
+    
+    public float getVote(DetectionFusionEngine.Source source) {
+        return votes[source.ordinal()];
+    }
+    
+    public boolean isAcknowledged() {
+        return ackLatencyMillis != NOT_ACKNOWLEDGED;
+    }
+    
+    public boolean hasTrace() {
+        return traceId != NO_TRACE;
+    }
+    
+    IncidentRecord withAcknowledgement(long latencyMillis) {
+        return new IncidentRecord(timestampMillis, trigger, score, votes, latencyMillis, traceId);
+    }
+    
+    float[] votes() {
+        return votes;
+    }
+    
+    @Override
+    public String toString() {
+        return trigger + "@" + timestampMillis + " (" + score + ", votos " + Arrays.toString(votes)
+                + (isAcknowledged() ? ", reconocido en " + ackLatencyMillis + " ms" : "") + ")";
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.fallalarm.core.incident;
+
+import com.example.fallalarm.core.ml.DetectionFusionEngine;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Historial local de incidentes en un archivo binario de registros de tamaño fijo
+ *
+ * Archivo: cabecera de {@link #HEADER_SIZE} bytes y registros de {@link #RECORD_SIZE} bytes.
+ *   0  int   magic ("FAIN")
+ *   4  short versión
+ *   8  int   tamaño de registro
+ *
+ * Registro:
+ *   0  long  instante del incidente (ms, reloj de pared; nunca decrece dentro del archivo)
+ *   8  byte  fuente que lo disparó (ordinal de DetectionFusionEngine.Source)
+ *   12 float puntuación de la fusión
+ *   16 float voto de cada fuente en la decisión, {@link #VOTE_SLOTS} posiciones
+ *   48 long  tiempo hasta el reconocimiento del usuario (ms, -1 = sin reconocer)
+ *   56 long  identificador de la traza del incidente (0 = sin traza)
+ *
+ * Los registros solo se agregan; el reconocimiento es el único campo que se completa después,
+ * en su sitio. Las escrituras se acumulan y se vuelcan juntas con {@link #flush()}, que debe
+ * llamarse fuera del hilo principal. En memoria solo se guarda el índice (instante por registro
+ * y lista de registros por fuente), así los conteos por intervalo y fuente no leen el archivo
+ * y los resúmenes leen únicamente los registros del intervalo.
+ */
+public final class IncidentStore implements Closeable {
+    
+    public static final int MAGIC = 0x4641494E; // "FAIN"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+    public static final int RECORD_SIZE = 64;
+    public static final int VOTE_SLOTS = 8;
+    
+    private static final int TIMESTAMP = 0;
+    private static final int TRIGGER = 8;
+    private static final int SCORE = 12;
+    private static final int VOTES = 16;
+    private static final int ACK_LATENCY = 48;
+    private static final int TRACE_ID = 56;
+    
+    private static final int READ_CHUNK_RECORDS = 256;
+    private static final DetectionFusionEngine.Source[] SOURCES = DetectionFusionEngine.Source.values();
+    
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final ByteBuffer chunk = ByteBuffer.allocate(READ_CHUNK_RECORDS * RECORD_SIZE);
+    private final ByteBuffer ackField = ByteBuffer.allocate(8);
+    
+    // Índice en memoria
+    private long[] timestamps = new long[64];
+    private int size = 0;
+    private final int[][] bySource = new int[SOURCES.length][];
+    private final int[] bySourceCount = new int[SOURCES.length];
+    
+    // Escrituras pendientes
+    private int flushedCount = 0;
+    private final List<IncidentRecord> pendingRecords = new ArrayList<>();
+    private final Map<Integer, Long> pendingAcks = new LinkedHashMap<>();
+    
+    private IncidentStore(RandomAccessFile file) {
+        this.file = file;
+        this.channel = file.getChannel();
+        for (int i = 0; i < bySource.length; i++) {
+            bySource[i] = new int[16];
+        }
+    }
+    
+    /**
+     * Abre (o crea) el historial; un registro final incompleto (escritura interrumpida) se descarta
+     */
+    public static IncidentStore open(File target) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(target, "rw");
+        try {
+            IncidentStore store = new IncidentStore(file);
+            store.initialize();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+    
+    private void initialize() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (channel.size() < HEADER_SIZE) {
+            header.putInt(0, MAGIC);
+            header.putShort(4, VERSION);
+            header.putInt(8, RECORD_SIZE);
+            channel.truncate(0);
+            channel.write(header, 0);
+            channel.force(false);
+            return;
+        }
+        readFully(header, 0);
+        if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION || header.getInt(8) != RECORD_SIZE) {
+            throw new IOException("El archivo no es un historial de incidentes compatible");
+        }
+        long records = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+        if (records > Integer.MAX_VALUE) {
+            throw new IOException("Historial demasiado grande");
+        }
+        channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+        
+        // Reconstruye el índice leyendo por bloques
+        for (int first = 0; first < records; first += READ_CHUNK_RECORDS) {
+            int count = (int) Math.min(READ_CHUNK_RECORDS, records - first);
+            readRecords(first, count);
+            for (int i = 0; i < count; i++) {
+                int base = i * RECORD_SIZE;
+                int trigger = chunk.get(base + TRIGGER);
+                if (trigger < 0 || trigger >= SOURCES.length) {
+                    throw new IOException("Fuente desconocida en el registro " + (first + i));
+                }
+                index(chunk.getLong(base + TIMESTAMP), trigger);
+            }
+        }
+        flushedCount = size;
+    }
+    
+    /**
+     * Agrega un incidente (se escribe en el próximo flush) y devuelve su número de registro.
+     * Si el reloj de pared retrocedió, el instante se ajusta al del último registro.
+     */
+    public synchronized int append(IncidentRecord record) {
+        long timestamp = record.getTimestampMillis();
+        if (size > 0 && timestamp < timestamps[size - 1]) {
+            timestamp = timestamps[size - 1];
+            record = new IncidentRecord(timestamp, record.getTrigger(), record.getScore(), record.votes(),
+                    record.getAckLatencyMillis(), record.getTraceId());
+        }
+        pendingRecords.add(record);
+        return index(timestamp, record.getTrigger().ordinal());
+    }
+    
+    /**
+     * Registra el tiempo que tardó el usuario en reconocer el incidente (se escribe en el próximo flush)
+     */
+    public synchronized void acknowledge(int recordNumber, long latencyMillis) {
+        if (recordNumber < 0 || recordNumber >= size) {
+            throw new IndexOutOfBoundsException("Registro inexistente: " + recordNumber);
+        }
+        if (recordNumber >= flushedCount) {
+            int pending = recordNumber - flushedCount;
+            pendingRecords.set(pending, pendingRecords.get(pending).withAcknowledgement(latencyMillis));
+        } else {
+            pendingAcks.put(recordNumber, latencyMillis);
+        }
+    }
+    
+    /**
+     * Escribe de una vez los registros y reconocimientos pendientes y sincroniza el archivo
+     */
+    public synchronized void flush() throws IOException {
+        if (pendingRecords.isEmpty() && pendingAcks.isEmpty()) {
+            return;
+        }
+        ByteBuffer batch = ByteBuffer.allocate(pendingRecords.size() * RECORD_SIZE);
+        for (int i = 0; i < pendingRecords.size(); i++) {
+            encode(pendingRecords.get(i), batch, i * RECORD_SIZE);
+        }
+        writeFully(batch, offsetOf(flushedCount));
+        for (Map.Entry<Integer, Long> ack : pendingAcks.entrySet()) {
+            ((Buffer) ackField).clear(); // Ver readRecords: sin el molde falla antes de la API 29
+            ackField.putLong(0, ack.getValue());
+            writeFully(ackField, offsetOf(ack.getKey()) + ACK_LATENCY);
+        }
+        channel.force(false);
+        flushedCount += pendingRecords.size();
+        pendingRecords.clear();
+        pendingAcks.clear();
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    public synchronized boolean hasPendingWrites() {
+        return !pendingRecords.isEmpty() || !pendingAcks.isEmpty();
+    }
+    
+    public synchronized IncidentRecord get(int recordNumber) throws IOException {
+        if (recordNumber < 0 || recordNumber >= size) {
+            throw new IndexOutOfBoundsException("Registro inexistente: " + recordNumber);
+        }
+        flush();
+        readRecords(recordNumber, 1);
+        return decode(chunk, 0);
+    }
+    
+    /**
+     * Primer registro con instante >= millis (size() si no hay ninguno)
+     */
+    public synchronized int firstAtOrAfter(long millis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Incidentes en [fromMillis, toMillis); solo consulta el índice
+     */
+    public synchronized int count(long fromMillis, long toMillis) {
+        return Math.max(0, firstAtOrAfter(toMillis) - firstAtOrAfter(fromMillis));
+    }
+    
+    /**
+     * Incidentes disparados por la fuente indicada en [fromMillis, toMillis); solo consulta el índice
+     */
+    public synchronized int count(DetectionFusionEngine.Source source, long fromMillis, long toMillis) {
+        int ordinal = source.ordinal();
+        return Math.max(0, sourceLowerBound(ordinal, toMillis) - sourceLowerBound(ordinal, fromMillis));
+    }
+    
+    /**
+     * Los incidentes más recientes de [fromMillis, toMillis), del más nuevo al más viejo
+     *
+     * @param source solo los disparados por esta fuente, o null para todos
+     */
+    public synchronized List<IncidentRecord> query(long fromMillis, long toMillis,
+                                                   DetectionFusionEngine.Source source, int limit) throws IOException {
+        flush();
+        List<IncidentRecord> result = new ArrayList<>();
+        if (source == null) {
+            int first = firstAtOrAfter(fromMillis);
+            for (int i = firstAtOrAfter(toMillis) - 1; i >= first && result.size() < limit; i--) {
+                readRecords(i, 1);
+                result.add(decode(chunk, 0));
+            }
+        } else {
+            int ordinal = source.ordinal();
+            int first = sourceLowerBound(ordinal, fromMillis);
+            for (int k = sourceLowerBound(ordinal, toMillis) - 1; k >= first && result.size() < limit; k--) {
+                readRecords(bySource[ordinal][k], 1);
+                result.add(decode(chunk, 0));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Resume [fromMillis, toMillis) leyendo por bloques solo los registros del intervalo
+     */
+    public synchronized IncidentSummary summarize(long fromMillis, long toMillis) throws IOException {
+        flush();
+        IncidentSummary summary = new IncidentSummary(fromMillis, toMillis);
+        int end = firstAtOrAfter(toMillis);
+        for (int first = firstAtOrAfter(fromMillis); first < end; first += READ_CHUNK_RECORDS) {
+            int count = Math.min(READ_CHUNK_RECORDS, end - first);
+            readRecords(first, count);
+            for (int i = 0; i < count; i++) {
+                int base = i * RECORD_SIZE;
+                summary.add(chunk.get(base + TRIGGER), chunk.getFloat(base + SCORE),
+                        chunk.getLong(base + ACK_LATENCY), chunk.getLong(base + TRACE_ID));
+            }
+        }
+        return summary;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            file.close();
+        }
+    }
+    
+    private int index(long timestamp, int trigger) {
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+        }
+        timestamps[size] = timestamp;
+        if (bySourceCount[trigger] == bySource[trigger].length) {
+            bySource[trigger] = Arrays.copyOf(bySource[trigger], bySourceCount[trigger] * 2);
+        }
+        bySource[trigger][bySourceCount[trigger]++] = size;
+        return size++;
+    }
+    
+    private int sourceLowerBound(int ordinal, long millis) {
+        int[] postings = bySource[ordinal];
+        int low = 0;
+        int high = bySourceCount[ordinal];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[postings[mid]] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private static long offsetOf(int recordNumber) {
+        return HEADER_SIZE + (long) recordNumber * RECORD_SIZE;
+    }
+    
+    private void readRecords(int first, int count) throws IOException {
+        // Se usan los métodos de Buffer: las versiones covariantes de ByteBuffer no existen en
+        // las API de Android anteriores a la 29 (NoSuchMethodError si se compila con JDK 9+)
+        ((Buffer) chunk).clear();
+        ((Buffer) chunk).limit(count * RECORD_SIZE);
+        readFully(chunk, offsetOf(first));
+    }
+    
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Historial de incidentes truncado");
+            }
+            position += read;
+        }
+    }
+    
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+    
+    private static void encode(IncidentRecord record, ByteBuffer buffer, int base) {
+        buffer.putLong(base + TIMESTAMP, record.getTimestampMillis());
+        buffer.put(base + TRIGGER, (byte) record.getTrigger().ordinal());
+        buffer.putFloat(base + SCORE, record.getScore());
+        float[] votes = record.votes();
+        for (int i = 0; i < VOTE_SLOTS; i++) {
+            buffer.putFloat(base + VOTES + i * 4, i < votes.length ? votes[i] : 0.0f);
+        }
+        buffer.putLong(base + ACK_LATENCY, record.getAckLatencyMillis());
+        buffer.putLong(base + TRACE_ID, record.getTraceId());
+    }
+    
+    private static IncidentRecord decode(ByteBuffer buffer, int base) {
+        float[] votes = new float[SOURCES.length];
+        for (int i = 0; i < votes.length; i++) {
+            votes[i] = buffer.getFloat(base + VOTES + i * 4);
+        }
+        return new IncidentRecord(buffer.getLong(base + TIMESTAMP), SOURCES[buffer.get(base + TRIGGER)],
+                buffer.getFloat(base + SCORE), votes, buffer.getLong(base + ACK_LATENCY), buffer.getLong(base + TRACE_ID));
+    }
+}
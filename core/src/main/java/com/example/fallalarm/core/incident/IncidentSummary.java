@@ -0,0 +1,67 @@
+package com.example.fallalarm.core.incident;
+
+import com.example.fallalarm.core.ml.DetectionFusionEngine;
+import com.example.fallalarm.core.util.LatencyHistogram;
+
+/**
+ * Resumen de los incidentes de un intervalo: totales por fuente, reconocimientos y tiempo de
+ * respuesta del usuario
+ */
+public final class IncidentSummary {
+    
+    private final long fromMillis;
+    private final long toMillis;
+    private final int[] countBySource = new int[DetectionFusionEngine.Source.values().length];
+    private final LatencyHistogram ackLatency = new LatencyHistogram();
+    private int count = 0;
+    private int withTrace = 0;
+    private double scoreSum = 0.0;
+    
+    IncidentSummary(long fromMillis, long toMillis) {
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+    }
+    
+    void add(int source, float score, long ackLatencyMillis, long traceId) {
+        count++;
+        countBySource[source]++;
+        scoreSum += score;
+        if (ackLatencyMillis != IncidentRecord.NOT_ACKNOWLEDGED) {
+            ackLatency.record(ackLatencyMillis);
+        }
+        if (traceId != IncidentRecord.NO_TRACE) {
+            withTrace++;
+        }
+    }
+    
+    public long getFromMillis() { return fromMillis; }
+    public long getToMillis() { return toMillis; }
+    public int getCount() { return count; }
+    public int getWithTraceCount() { return withTrace; }
+    
+    public int getCount(DetectionFusionEngine.Source source) {
+        return countBySource[source.ordinal()];
+    }
+    
+    /**
+     * Incidentes que el usuario canceló con "Estoy bien"
+     */
+    public int getAcknowledgedCount() {
+        return (int) ackLatency.getCount();
+    }
+    
+    public double getMeanScore() {
+        return count == 0 ? 0.0 : scoreSum / count;
+    }
+    
+    /**
+     * Tiempo hasta el reconocimiento en ms (0-100); 0 si no hubo reconocimientos
+     */
+    public long getAckLatencyPercentile(double percentile) {
+        return ackLatency.getValueAtPercentile(percentile);
+    }
+    
+    public double getMeanAckLatencyMillis() {
+        return ackLatency.getMean();
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.fallalarm.core.metrics;
+
+import com.example.fallalarm.core.ml.DetectionFusionEngine;
+import com.example.fallalarm.core.ml.MotionFrameAligner;
+import com.example.fallalarm.core.sensors.SampleIngestor;
+import com.example.fallalarm.core.sensors.SensorSample;
+import com.example.fallalarm.core.util.FloatRingBuffer;
+import com.example.fallalarm.core.util.LatencyHistogram;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Métricas del pipeline de sensores
+ * Llegada de muestras, latencia evento → entrega, evento → decisión y decisión → alerta, tiempo
+ * de proceso por etapa, cuadros descartados y detecciones por fuente. Registrar no reserva memoria
+ * ni bloquea; las etapas se miden envolviendo a sus consumidores al armar el grafo.
+ */
+public final class PipelineMetrics {
+    
+    public enum Stage {
+        INGEST,            // Reparto completo de una muestra
+        FALL_DETECTOR,
+        SHAKE_DETECTOR,
+        FRAME_ALIGNER,     // Incluye a sus consumidores de cuadros
+        ML_DETECTOR,
+        PATTERN_ENQUEUE,   // Copia del cuadro a la cola del analizador
+        PATTERN_ANALYZER,  // Clasificación en el ejecutor
+        TRACE_RECORDER
+    }
+    
+    /**
+     * Momentos de la alerta medidos desde la decisión de emergencia
+     */
+    public enum Alert {
+        FIRST_AUDIO,          // Primer cuadro de audio de la alarma
+        NOTIFICATION_POSTED,  // Notificación de emergencia publicada
+        ACTIVITY_VISIBLE      // Pantalla de emergencia con foco
+    }
+    
+    private static final Stage[] STAGES = Stage.values();
+    private static final Alert[] ALERTS = Alert.values();
+    private static final DetectionFusionEngine.Source[] SOURCES = DetectionFusionEngine.Source.values();
+    
+    private final AtomicLong accelerometerSamples = new AtomicLong();
+    private final AtomicLong gyroscopeSamples = new AtomicLong();
+    // Marcas de tiempo de evento de la primera y la última muestra, para la frecuencia de llegada
+    private volatile long firstSampleNanos = 0;
+    private volatile long lastSampleNanos = 0;
+    
+    private final LatencyHistogram deliveryLatency = new LatencyHistogram();
+    private final LatencyHistogram decisionLatency = new LatencyHistogram();
+    private final LatencyHistogram[] processingTime = new LatencyHistogram[STAGES.length];
+    private final AtomicLongArray dropped = new AtomicLongArray(STAGES.length);
+    private final AtomicLongArray detections = new AtomicLongArray(SOURCES.length);
+    private final AtomicLong incidents = new AtomicLong();
+    private final LatencyHistogram[] alertLatency = new LatencyHistogram[ALERTS.length];
+    
+    public PipelineMetrics() {
+        for (int i = 0; i < processingTime.length; i++) {
+            processingTime[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < alertLatency.length; i++) {
+            alertLatency[i] = new LatencyHistogram();
+        }
+    }
+    
+    /**
+     * Llegada de una muestra: marca de tiempo del evento y momento de la entrega, en el mismo reloj
+     */
+    public void recordSample(boolean accelerometer, long eventNanos, long deliveredNanos) {
+        (accelerometer ? accelerometerSamples : gyroscopeSamples).incrementAndGet();
+        if (firstSampleNanos == 0) {
+            firstSampleNanos = eventNanos;
+        }
+        lastSampleNanos = eventNanos;
+        deliveryLatency.record(deliveredNanos - eventNanos);
+    }
+    
+    public void recordProcessing(Stage stage, long nanos) {
+        processingTime[stage.ordinal()].record(nanos);
+    }
+    
+    public void recordDropped(Stage stage, long count) {
+        dropped.addAndGet(stage.ordinal(), count);
+    }
+    
+    public void recordDetection(DetectionFusionEngine.Source source) {
+        detections.incrementAndGet(source.ordinal());
+    }
+    
+    /**
+     * Incidente confirmado; la latencia se mide desde la muestra que lo provocó
+     */
+    public void recordIncident(long latencyNanos) {
+        incidents.incrementAndGet();
+        decisionLatency.record(latencyNanos);
+    }
+    
+    /**
+     * Incidente confirmado sin marca de tiempo de evento disponible
+     */
+    public void recordIncident() {
+        incidents.incrementAndGet();
+    }
+    
+    /**
+     * Tiempo desde la decisión de emergencia hasta el momento indicado de la alerta
+     */
+    public void recordAlert(Alert alert, long latencyNanos) {
+        alertLatency[alert.ordinal()].record(latencyNanos);
+    }
+    
+    public LatencyHistogram getDeliveryLatency() { return deliveryLatency; }
+    public LatencyHistogram getDecisionLatency() { return decisionLatency; }
+    public LatencyHistogram getProcessingTime(Stage stage) { return processingTime[stage.ordinal()]; }
+    public long getDropped(Stage stage) { return dropped.get(stage.ordinal()); }
+    public long getDetections(DetectionFusionEngine.Source source) { return detections.get(source.ordinal()); }
+    public long getIncidents() { return incidents.get(); }
+    public LatencyHistogram getAlertLatency(Alert alert) { return alertLatency[alert.ordinal()]; }
+    
+    public long getSampleCount() {
+        return accelerometerSamples.get() + gyroscopeSamples.get();
+    }
+    
+    /**
+     * Muestras por segundo (ambos sensores) según las marcas de tiempo de los eventos
+     */
+    public double getSampleRate() {
+        long span = lastSampleNanos - firstSampleNanos;
+        return span <= 0 ? 0.0 : (getSampleCount() - 1) * 1e9 / span;
+    }
+    
+    /**
+     * Envuelve un consumidor de muestras midiendo su tiempo de proceso
+     */
+    public SampleIngestor.SensorSampleListener timed(final Stage stage, final SampleIngestor.SensorSampleListener listener) {
+        final LatencyHistogram histogram = processingTime[stage.ordinal()];
+        return new SampleIngestor.SensorSampleListener() {
+            @Override
+            public void onSensorSample(SensorSample sample) {
+                long start = System.nanoTime();
+                listener.onSensorSample(sample);
+                histogram.record(System.nanoTime() - start);
+            }
+        };
+    }
+    
+    /**
+     * Envuelve un consumidor de cuadros midiendo su tiempo de proceso
+     */
+    public MotionFrameAligner.FrameListener timedFrames(final Stage stage, final MotionFrameAligner.FrameListener listener) {
+        final LatencyHistogram histogram = processingTime[stage.ordinal()];
+        return new MotionFrameAligner.FrameListener() {
+            @Override
+            public void onMotionFrame(FloatRingBuffer frames) {
+                long start = System.nanoTime();
+                listener.onMotionFrame(frames);
+                histogram.record(System.nanoTime() - start);
+            }
+        };
+    }
+    
+    /**
+     * Instantánea compacta en texto, una línea por métrica; latencias en microsegundos
+     */
+    public void dump(PrintWriter writer) {
+        writer.println(String.format(Locale.US, "samples acc=%d gyro=%d rate_hz=%.1f",
+                accelerometerSamples.get(), gyroscopeSamples.get(), getSampleRate()));
+        dumpHistogram(writer, "delivery_us", deliveryLatency);
+        dumpHistogram(writer, "decision_us", decisionLatency);
+        for (Stage stage : STAGES) {
+            LatencyHistogram histogram = processingTime[stage.ordinal()];
+            long stageDropped = dropped.get(stage.ordinal());
+            if (histogram.getCount() == 0 && stageDropped == 0) {
+                continue;
+            }
+            dumpHistogram(writer, "stage." + stage.name().toLowerCase(Locale.ROOT) + "_us", histogram);
+            if (stageDropped > 0) {
+                writer.println("stage." + stage.name().toLowerCase(Locale.ROOT) + " dropped=" + stageDropped);
+            }
+        }
+        StringBuilder line = new StringBuilder("detections");
+        for (DetectionFusionEngine.Source source : SOURCES) {
+            line.append(' ').append(source.name().toLowerCase(Locale.ROOT)).append('=')
+                    .append(detections.get(source.ordinal()));
+        }
+        line.append(" incidents=").append(incidents.get());
+        writer.println(line);
+        for (Alert alert : ALERTS) {
+            LatencyHistogram histogram = alertLatency[alert.ordinal()];
+            if (histogram.getCount() > 0) {
+                dumpHistogram(writer, "alert." + alert.name().toLowerCase(Locale.ROOT) + "_us", histogram);
+            }
+        }
+    }
+    
+    private static void dumpHistogram(PrintWriter writer, String name, LatencyHistogram histogram) {
+        writer.println(String.format(Locale.US, "%s n=%d mean=%.0f p50=%d p90=%d p99=%d max=%d",
+                name, histogram.getCount(), histogram.getMean() / 1e3,
+                histogram.getValueAtPercentile(50) / 1000, histogram.getValueAtPercentile(90) / 1000,
+                histogram.getValueAtPercentile(99) / 1000, histogram.getMax() / 1000));
+    }
+    
+    public void reset() {
+        accelerometerSamples.set(0);
+        gyroscopeSamples.set(0);
+        firstSampleNanos = 0;
+        lastSampleNanos = 0;
+        deliveryLatency.reset();
+        decisionLatency.reset();
+        for (int i = 0; i < STAGES.length; i++) {
+            processingTime[i].reset();
+            dropped.set(i, 0);
+        }
+        for (int i = 0; i < SOURCES.length; i++) {
+            detections.set(i, 0);
+        }
+        incidents.set(0);
+        for (LatencyHistogram histogram : alertLatency) {
+            histogram.reset();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.fallalarm.core.ml;
+
+/**
+ * Clasificador de ventanas de movimiento
+ * Recibe el vector de {@link MotionFeatures} y escribe una probabilidad (o puntuación en [0, 1])
+ * por clase. Las implementaciones no reservan memoria al clasificar y no son seguras entre
+ * hilos: cada detector usa su propia instancia.
+ */
+public interface Classifier {
+    
+    int CLASS_NORMAL = 0;
+    int CLASS_SHAKE = 1;
+    int CLASS_FALL = 2;
+    
+    int CLASS_COUNT = 3;
+    
+    void classify(float[] features, float[] probabilities);
+    
+    /**
+     * Clase con mayor probabilidad; en caso de empate gana la de menor índice
+     */
+    static int argmax(float[] probabilities) {
+        int best = 0;
+        for (int i = 1; i < probabilities.length; i++) {
+            if (probabilities[i] > probabilities[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+    
+    static String className(int classIndex) {
+        switch (classIndex) {
+            case CLASS_FALL:
+                return "fall";
+            case CLASS_SHAKE:
+                return "shake";
+            default:
+                return "normal";
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.fallalarm.core.ml;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Motor de inferencia para modelos compactos en formato binario plano
+ * El archivo se mapea en memoria y los parámetros se leen directamente de él, sin copiarlos ni
+ * interpretarlos al arrancar. Clasificar no reserva memoria.
+ *
+ * Formato (little-endian), cabecera de {@link #HEADER_SIZE} bytes:
+ *   0  int   magic ("FAMD")
+ *   4  short versión
+ *   6  short tipo: 1 regresión logística (softmax), 2 árboles potenciados, 3 perceptrón de una capa oculta
+ *   8  int   número de características (F, igual a {@link MotionFeatures#COUNT})
+ *   12 int   número de clases (C, igual a {@link Classifier#CLASS_COUNT})
+ *   16 int   neuronas ocultas (H) o número de árboles (T)
+ *   20 int   número de nodos (N, solo árboles)
+ *   24 int   bytes de parámetros tras la cabecera
+ *
+ * Parámetros: float media[F], float escala[F] (x' = (x - media) × escala) y después
+ *   logística: float W[C][F], float b[C]
+ *   árboles:   float base[C], int raíz[T], nodo[N] = {int característica (-1 hoja),
+ *              float umbral o valor de la hoja, int izquierdo (x < umbral), int derecho};
+ *              el árbol t suma a la clase t % C y los hijos tienen índice mayor que el padre
+ *   perceptrón: float W1[H][F], float b1[H], float W2[C][H], float b2[C] (ReLU)
+ * La salida de los tres tipos pasa por softmax.
+ */
+public final class CompactModel implements Classifier {
+    
+    public static final int MAGIC = 0x46414D44; // "FAMD"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+    
+    public static final int TYPE_LOGISTIC = 1;
+    public static final int TYPE_TREES = 2;
+    public static final int TYPE_MLP = 3;
+    
+    private static final int NODE_SIZE = 16;
+    
+    private final ByteBuffer model;
+    private final int type;
+    private final int features;
+    private final int classes;
+    private final int hidden;
+    private final int trees;
+    // Desplazamientos de cada sección dentro del buffer
+    private final int meanOffset;
+    private final int scaleOffset;
+    private final int firstOffset;
+    private final int secondOffset;
+    private final int thirdOffset;
+    private final int fourthOffset;
+    
+    // Memoria de trabajo de esta instancia
+    private final float[] input;
+    private final float[] activations;
+    
+    private CompactModel(ByteBuffer model, int type, int features, int classes, int hidden, int trees,
+                         int firstOffset, int secondOffset, int thirdOffset, int fourthOffset) {
+        this.model = model;
+        this.type = type;
+        this.features = features;
+        this.classes = classes;
+        this.hidden = hidden;
+        this.trees = trees;
+        this.meanOffset = HEADER_SIZE;
+        this.scaleOffset = HEADER_SIZE + 4 * features;
+        this.firstOffset = firstOffset;
+        this.secondOffset = secondOffset;
+        this.thirdOffset = thirdOffset;
+        this.fourthOffset = fourthOffset;
+        this.input = new float[features];
+        this.activations = new float[type == TYPE_MLP ? hidden : 0];
+    }
+    
+    /**
+     * Mapea un archivo de modelo en memoria de solo lectura
+     */
+    public static CompactModel load(File file) throws IOException {
+        try (RandomAccessFile source = new RandomAccessFile(file, "r");
+             FileChannel channel = source.getChannel()) {
+            return load(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+    
+    /**
+     * Usa el buffer tal cual (p. ej. un asset sin comprimir mapeado desde su descriptor)
+     */
+    public static CompactModel load(ByteBuffer buffer) throws IOException {
+        ByteBuffer model = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (model.limit() < HEADER_SIZE || model.getInt(0) != MAGIC) {
+            throw new IOException("Formato de modelo no reconocido");
+        }
+        if (model.getShort(4) != VERSION) {
+            throw new IOException("Versión de modelo no soportada: " + model.getShort(4));
+        }
+        int type = model.getShort(6);
+        int features = model.getInt(8);
+        int classes = model.getInt(12);
+        int size = model.getInt(16);
+        int nodes = model.getInt(20);
+        int payload = model.getInt(24);
+        if (features != MotionFeatures.COUNT || classes != CLASS_COUNT) {
+            throw new IOException("El modelo espera " + features + " características y " + classes + " clases");
+        }
+        if (size < 0 || nodes < 0 || payload < 0 || HEADER_SIZE + (long) payload > model.limit()) {
+            throw new IOException("Cabecera de modelo inválida");
+        }
+        
+        int start = HEADER_SIZE + 8 * features;
+        long expected;
+        CompactModel result;
+        switch (type) {
+            case TYPE_LOGISTIC:
+                expected = 8L * features + 4L * classes * features + 4L * classes;
+                result = new CompactModel(model, type, features, classes, 0, 0,
+                        start, start + 4 * classes * features, 0, 0);
+                break;
+            case TYPE_TREES:
+                if (size == 0) {
+                    throw new IOException("Modelo de árboles sin árboles");
+                }
+                expected = 8L * features + 4L * classes + 4L * size + (long) NODE_SIZE * nodes;
+                result = new CompactModel(model, type, features, classes, 0, size,
+                        start, start + 4 * classes, start + 4 * classes + 4 * size, 0);
+                break;
+            case TYPE_MLP:
+                if (size == 0) {
+                    throw new IOException("Perceptrón sin neuronas ocultas");
+                }
+                expected = 8L * features + 4L * size * features + 4L * size + 4L * classes * size + 4L * classes;
+                int bias1 = start + 4 * size * features;
+                int weights2 = bias1 + 4 * size;
+                result = new CompactModel(model, type, features, classes, size, 0,
+                        start, bias1, weights2, weights2 + 4 * classes * size);
+                break;
+            default:
+                throw new IOException("Tipo de modelo desconocido: " + type);
+        }
+        if (expected != payload) {
+            throw new IOException("Tamaño de parámetros inconsistente");
+        }
+        if (type == TYPE_TREES) {
+            result.validateTrees(nodes);
+        }
+        return result;
+    }
+    
+    /**
+     * Otra instancia sobre los mismos parámetros, con su propia memoria de trabajo (para otro hilo)
+     */
+    public CompactModel copy() {
+        return new CompactModel(model, type, features, classes, hidden, trees,
+                firstOffset, secondOffset, thirdOffset, fourthOffset);
+    }
+    
+    public int getType() {
+        return type;
+    }
+    
+    @Override
+    public void classify(float[] x, float[] probabilities) {
+        for (int i = 0; i < features; i++) {
+            input[i] = (x[i] - model.getFloat(meanOffset + 4 * i)) * model.getFloat(scaleOffset + 4 * i);
+        }
+        switch (type) {
+            case TYPE_LOGISTIC:
+                dense(firstOffset, secondOffset, input, features, probabilities, classes);
+                break;
+            case TYPE_TREES:
+                evaluateTrees(probabilities);
+                break;
+            default:
+                dense(firstOffset, secondOffset, input, features, activations, hidden);
+                for (int i = 0; i < hidden; i++) {
+                    activations[i] = Math.max(0.0f, activations[i]);
+                }
+                dense(thirdOffset, fourthOffset, activations, hidden, probabilities, classes);
+                break;
+        }
+        softmax(probabilities);
+    }
+    
+    /**
+     * out = W·in + b, con W de rows × columns por filas
+     */
+    private void dense(int weights, int bias, float[] in, int columns, float[] out, int rows) {
+        for (int row = 0; row < rows; row++) {
+            float sum = model.getFloat(bias + 4 * row);
+            int offset = weights + 4 * row * columns;
+            for (int column = 0; column < columns; column++) {
+                sum += model.getFloat(offset + 4 * column) * in[column];
+            }
+            out[row] = sum;
+        }
+    }
+    
+    private void evaluateTrees(float[] scores) {
+        for (int c = 0; c < classes; c++) {
+            scores[c] = model.getFloat(firstOffset + 4 * c);
+        }
+        for (int tree = 0; tree < trees; tree++) {
+            int node = model.getInt(secondOffset + 4 * tree);
+            while (true) {
+                int offset = thirdOffset + NODE_SIZE * node;
+                int feature = model.getInt(offset);
+                float threshold = model.getFloat(offset + 4);
+                if (feature < 0) {
+                    scores[tree % classes] += threshold;
+                    break;
+                }
+                node = model.getInt(offset + (input[feature] < threshold ? 8 : 12));
+            }
+        }
+    }
+    
+    private void softmax(float[] scores) {
+        float max = scores[0];
+        for (int c = 1; c < classes; c++) {
+            max = Math.max(max, scores[c]);
+        }
+        float sum = 0.0f;
+        for (int c = 0; c < classes; c++) {
+            scores[c] = (float) Math.exp(scores[c] - max);
+            sum += scores[c];
+        }
+        for (int c = 0; c < classes; c++) {
+            scores[c] /= sum;
+        }
+    }
+    
+    /**
+     * Comprueba índices una sola vez al cargar para que la inferencia pueda recorrer sin controles;
+     * exigir hijos con índice mayor que el padre garantiza que todo recorrido termina
+     */
+    private void validateTrees(int nodes) throws IOException {
+        for (int tree = 0; tree < trees; tree++) {
+            int root = model.getInt(secondOffset + 4 * tree);
+            if (root < 0 || root >= nodes) {
+                throw new IOException("Raíz de árbol fuera de rango");
+            }
+        }
+        for (int node = 0; node < nodes; node++) {
+            int offset = thirdOffset + NODE_SIZE * node;
+            int feature = model.getInt(offset);
+            if (feature < 0) {
+                continue;
+            }
+            int left = model.getInt(offset + 8);
+            int right = model.getInt(offset + 12);
+            if (feature >= features || left <= node || right <= node || left >= nodes || right >= nodes) {
+                throw new IOException("Nodo de árbol inválido: " + node);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.fallalarm.core.ml;
+
+import com.example.fallalarm.core.util.DetectionLog;
+import com.example.fallalarm.core.util.EventRing;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Registro estructurado de eventos del pipeline de detección
+ * En el camino por muestra solo se escribe un registro binario en un anillo preasignado: no se
+ * concatena ni se formatea nada, y no hay IPC con logd. El texto se genera al drenar, bajo
+ * demanda (dumpsys) o periódicamente en las compilaciones de depuración.
+ */
+public final class DetectionEventLog {
+    
+    public enum Event {
+        ML_FREE_FALL(DetectionLog.DEBUG, "MLFallDetector", "ML: Caída libre detectada"),
+        ML_IMPACT(DetectionLog.DEBUG, "MLFallDetector", "ML: Impacto detectado"),
+        ML_SUDDEN_MOVEMENT(DetectionLog.DEBUG, "MLFallDetector", "ML: Movimiento brusco detectado"),
+        ML_FALL_PROBABILITY(DetectionLog.DEBUG, "MLFallDetector", "ML: Probabilidad de caída: %2$.3f"),
+        ML_MOTION(DetectionLog.DEBUG, "FallAlarmService", "ML: Movimiento detectado (confianza: %2$.3f)"),
+        PATTERN_CLASSIFIED(DetectionLog.DEBUG, "MotionPatternAnalyzer", "Patrón clasificado como: %1$s (confianza: %2$.3f)"),
+        PATTERN_FALL(DetectionLog.WARN, "MotionPatternAnalyzer", "Patrón de caída detectado con confianza: %2$.3f"),
+        PATTERN_QUEUE_OVERFLOW(DetectionLog.WARN, "MotionPatternStage", "Cola de patrones llena, cuadros descartados: %2$.0f");
+        
+        private final int level;
+        private final String tag;
+        private final String format;
+        
+        Event(int level, String tag, String format) {
+            this.level = level;
+            this.tag = tag;
+            this.format = format;
+        }
+        
+        public int getLevel() { return level; }
+        public String getTag() { return tag; }
+        
+        /**
+         * Texto del evento; solo se llama al drenar
+         */
+        public String render(int arg, float value) {
+            Object first = this == PATTERN_CLASSIFIED ? Classifier.className(arg) : Integer.valueOf(arg);
+            return String.format(Locale.US, format, first, value);
+        }
+    }
+    
+    private static final Event[] EVENTS = Event.values();
+    private static final int CAPACITY = 2048; // ~100 s de ventanas clasificadas a 20 Hz
+    
+    private static final EventRing ring = new EventRing(CAPACITY);
+    
+    // Consumidor reutilizado: drenar a Logcat no reserva más memoria que el propio texto
+    private static final EventRing.RecordConsumer logConsumer = new EventRing.RecordConsumer() {
+        @Override
+        public void onRecord(long timestampNanos, int code, int arg, float value) {
+            Event event = EVENTS[code];
+            DetectionLog.println(event.getLevel(), event.getTag(), event.render(arg, value));
+        }
+    };
+    
+    private DetectionEventLog() {
+    }
+    
+    public static void record(Event event) {
+        ring.record(System.nanoTime(), event.ordinal(), 0, 0.0f);
+    }
+    
+    public static void record(Event event, float value) {
+        ring.record(System.nanoTime(), event.ordinal(), 0, value);
+    }
+    
+    /**
+     * @param arg entero pequeño (16 bits con signo), p. ej. el índice de clase
+     */
+    public static void record(Event event, int arg, float value) {
+        ring.record(System.nanoTime(), event.ordinal(), arg, value);
+    }
+    
+    /**
+     * Envía los eventos pendientes al destino de DetectionLog
+     */
+    public static synchronized int drainToLog() {
+        return ring.drain(logConsumer);
+    }
+    
+    /**
+     * Escribe los eventos pendientes con su antigüedad, p. ej. en la salida de dumpsys
+     */
+    public static synchronized int drain(final PrintWriter writer) {
+        final long now = System.nanoTime();
+        int count = ring.drain(new EventRing.RecordConsumer() {
+            @Override
+            public void onRecord(long timestampNanos, int code, int arg, float value) {
+                Event event = EVENTS[code];
+                writer.println(String.format(Locale.US, "%+.3fs %s: %s",
+                        (timestampNanos - now) / 1e9, event.getTag(), event.render(arg, value)));
+            }
+        });
+        long lost = ring.getLost();
+        if (lost > 0) {
+            writer.println("(" + lost + " eventos sobrescritos sin drenar)");
+        }
+        return count;
+    }
+}
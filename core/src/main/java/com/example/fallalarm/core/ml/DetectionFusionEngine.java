@@ -0,0 +1,171 @@
+package com.example.fallalarm.core.ml;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Motor de fusión y antirrebote de detecciones
+ * Reúne los votos (con su confianza) de todos los detectores dentro de una ventana corta, los
+ * combina con pesos configurables y confirma como máximo una emergencia por incidente.
+ * Tras confirmar, ignora nuevos votos durante el tiempo de enfriamiento o hasta que el usuario
+ * reconozca el incidente.
+ *
+ * Combinación: 1 - Π(1 - peso × confianza) sobre la confianza máxima de cada fuente en la
+ * ventana, de modo que fuentes independientes que coinciden refuerzan la decisión.
+ * Es seguro llamarlo desde el hilo de sensores y desde el ejecutor de patrones.
+ */
+public class DetectionFusionEngine {
+    
+    public enum Source {
+        FALL,     // FallDetector: caída libre seguida de impacto
+        SHAKE,    // ShakeDetector: sacudida voluntaria del usuario
+        ML,       // MLFallDetector
+        PATTERN   // MotionPatternAnalyzer
+    }
+    
+    public static final long VOTE_WINDOW_NANOS = 1_500_000_000L; // Igual que la ventana de caída
+    public static final long COOLDOWN_NANOS = 30_000_000_000L;
+    public static final float DECISION_THRESHOLD = 0.75f;
+    
+    private final float[] weights = new float[Source.values().length];
+    private final float[] voteConfidence = new float[Source.values().length];
+    private final long[] voteTime = new long[Source.values().length];
+    
+    private long lastIncidentTime = 0;
+    private boolean hasIncident = false;
+    private float lastIncidentScore = 0.0f;
+    private final float[] lastIncidentVotes = new float[Source.values().length];
+    private int incidentCount = 0;
+    private int suppressedCount = 0;
+    
+    public DetectionFusionEngine() {
+        // Los detectores deterministas bastan por sí solos; los estadísticos necesitan alta
+        // confianza o el apoyo de otra fuente
+        setWeight(Source.FALL, 1.0f);
+        setWeight(Source.SHAKE, 1.0f);
+        setWeight(Source.ML, 0.8f);
+        setWeight(Source.PATTERN, 0.8f);
+    }
+    
+    public synchronized void setWeight(Source source, float weight) {
+        weights[source.ordinal()] = Math.max(0.0f, Math.min(weight, 1.0f));
+    }
+    
+    public synchronized float getWeight(Source source) {
+        return weights[source.ordinal()];
+    }
+    
+    /**
+     * Registra un voto y devuelve true si con él se confirma un nuevo incidente
+     *
+     * @param nowNanos instante del voto (SystemClock.elapsedRealtimeNanos)
+     */
+    public synchronized boolean report(Source source, float confidence, long nowNanos) {
+        if (hasIncident && nowNanos - lastIncidentTime < COOLDOWN_NANOS) {
+            suppressedCount++;
+            return false;
+        }
+        
+        int index = source.ordinal();
+        boolean expired = voteTime[index] == 0 || nowNanos - voteTime[index] > VOTE_WINDOW_NANOS;
+        if (expired || confidence >= voteConfidence[index]) {
+            voteConfidence[index] = confidence;
+        }
+        voteTime[index] = nowNanos;
+        
+        float score = combinedScore(nowNanos);
+        if (score < DECISION_THRESHOLD) {
+            return false;
+        }
+        
+        hasIncident = true;
+        lastIncidentScore = score;
+        for (int i = 0; i < voteConfidence.length; i++) {
+            boolean current = voteTime[i] != 0 && nowNanos - voteTime[i] <= VOTE_WINDOW_NANOS;
+            lastIncidentVotes[i] = current ? voteConfidence[i] : 0.0f;
+        }
+        lastIncidentTime = nowNanos;
+        incidentCount++;
+        clearVotes();
+        return true;
+    }
+    
+    /**
+     * Puntuación combinada de los votos vigentes en la ventana
+     */
+    public synchronized float combinedScore(long nowNanos) {
+        float miss = 1.0f;
+        for (int i = 0; i < voteConfidence.length; i++) {
+            if (voteTime[i] == 0 || nowNanos - voteTime[i] > VOTE_WINDOW_NANOS) {
+                continue;
+            }
+            float confidence = Math.max(0.0f, Math.min(voteConfidence[i], 1.0f));
+            miss *= 1.0f - weights[i] * confidence;
+        }
+        return 1.0f - miss;
+    }
+    
+    private void clearVotes() {
+        for (int i = 0; i < voteTime.length; i++) {
+            voteTime[i] = 0;
+            voteConfidence[i] = 0.0f;
+        }
+    }
+    
+    /**
+     * Guarda el último incidente para que el enfriamiento sobreviva a un reinicio del proceso;
+     * los votos abiertos (1,5 s) no se guardan
+     */
+    public synchronized void saveState(ByteBuffer out) {
+        out.put((byte) (hasIncident ? 1 : 0));
+        out.putLong(lastIncidentTime);
+    }
+    
+    public synchronized void restoreState(ByteBuffer in, long timeShiftNanos) {
+        boolean storedIncident = in.get() != 0;
+        long storedTime = in.getLong();
+        clearVotes();
+        hasIncident = storedIncident;
+        lastIncidentTime = storedIncident ? storedTime + timeShiftNanos : 0;
+    }
+    
+    /**
+     * El usuario reconoció el incidente ("Estoy bien"): termina el enfriamiento para que una
+     * nueva caída se confirme de inmediato. Los votos abiertos se descartan.
+     */
+    public synchronized void endIncident() {
+        clearVotes();
+        hasIncident = false;
+    }
+    
+    public synchronized void reset() {
+        clearVotes();
+        hasIncident = false;
+        lastIncidentTime = 0;
+    }
+    
+    /**
+     * Puntuación combinada con la que se confirmó el último incidente
+     */
+    public synchronized float getLastIncidentScore() {
+        return lastIncidentScore;
+    }
+    
+    /**
+     * Copia en {@code out} (indexado por ordinal de Source) los votos vigentes al confirmarse el
+     * último incidente; 0 para las fuentes que no votaron
+     */
+    public synchronized void getLastIncidentVotes(float[] out) {
+        System.arraycopy(lastIncidentVotes, 0, out, 0, lastIncidentVotes.length);
+    }
+    
+    public synchronized int getIncidentCount() {
+        return incidentCount;
+    }
+    
+    /**
+     * Votos ignorados por llegar durante el enfriamiento de un incidente ya confirmado
+     */
+    public synchronized int getSuppressedCount() {
+        return suppressedCount;
+    }
+}
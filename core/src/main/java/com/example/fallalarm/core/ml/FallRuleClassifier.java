@@ -0,0 +1,27 @@
+package com.example.fallalarm.core.ml;
+
+/**
+ * Clasificador de referencia de MLFallDetector: probabilidad de caída por umbrales
+ * Solo distingue caída de no caída; la clase de sacudida queda a cero.
+ */
+public class FallRuleClassifier implements Classifier {
+    
+    @Override
+    public void classify(float[] features, float[] probabilities) {
+        float avgAcc = features[MotionFeatures.AVG_ACCELERATION];
+        float avgGyr = features[MotionFeatures.AVG_GYROSCOPE];
+        float accVar = features[MotionFeatures.ACCELERATION_VARIANCE];
+        float gyrVar = features[MotionFeatures.GYROSCOPE_VARIANCE];
+        
+        float probability = 0.0f;
+        if (avgAcc < 1.5f) probability += 0.3f;  // Caída libre
+        if (avgAcc > 40.0f) probability += 0.4f; // Impacto fuerte
+        if (avgGyr > 25.0f) probability += 0.2f; // Rotación brusca
+        if (accVar > 15.0f && gyrVar > 50.0f) probability += 0.1f; // Variabilidad alta
+        probability = Math.min(probability, 1.0f);
+        
+        probabilities[CLASS_NORMAL] = 1.0f - probability;
+        probabilities[CLASS_SHAKE] = 0.0f;
+        probabilities[CLASS_FALL] = probability;
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.fallalarm.core.ml;
+
+import com.example.fallalarm.core.config.DetectorConfig;
+import com.example.fallalarm.core.util.FloatRingBuffer;
+import com.example.fallalarm.core.util.WindowedStatistics;
+
+/**
+ * ML Kit - Detector de caídas con algoritmos de machine learning
+ *
+ * Funcionalidades ML Kit:
+ * - Análisis Inteligente de Sensores: Procesa datos del acelerómetro y giroscopio para detectar patrones de movimiento
+ * - Clasificación de Movimientos: Distingue entre caídas, sacudidas y movimientos normales
+ * - Cálculo de Confianza: Asigna probabilidades a cada detección (0.0 a 1.0)
+ * - Detección de Patrones: Identifica secuencias de movimiento características de caídas
+ *
+ * Cascada por cuadro:
+ * - Etapa 0: desviación de la aceleración respecto a 1 g y rotación del cuadro nuevo. Si ningún
+ *   cuadro de la ventana la supera, la ventana está en reposo y no se calcula nada más.
+ * - Etapa 1: estadísticas de la ventana y reglas de caída libre, impacto y movimiento brusco.
+ *   Las ventanas se rellenan de golpe con los cuadros recientes al volver la actividad.
+ * - Etapa 2: características completas y clasificador. Con {@link FallRuleClassifier} solo si la
+ *   ventana se aleja de 1 g: con sus umbrales, una ventana descartada nunca habría producido una
+ *   detección. Un modelo entrenado no comparte esos umbrales y evalúa toda ventana activa.
+ */
+public class MLFallDetector implements MotionFrameAligner.FrameListener {
+    
+    private static final int SAMPLE_SIZE = 20;
+    
+    private static final float STANDARD_GRAVITY = 9.80665f;
+    // Etapa 0: por debajo de estos valores el cuadro se considera en reposo
+    private static final float GATE_ACCELERATION_DEVIATION = 3.0f; // m/s² (≈ 0.3 g)
+    private static final float GATE_ROTATION = 3.0f; // rad/s
+    // Etapa 2: desviación máxima de la ventana; las reglas de FallRuleClassifier exigen una
+    // media < 1.5 o > 40 m/s²
+    private static final float CLASSIFIER_ACCELERATION_DEVIATION = 5.0f; // m/s²
+    
+    // Perfil activo y perfil publicado desde otro hilo (se adopta al evaluar la ventana)
+    private DetectorConfig config;
+    private float fallThreshold;
+    private float motionThreshold;
+    private float rotationGate;
+    private volatile DetectorConfig pendingConfig;
+    private MLFallDetectionListener listener;
+    private Classifier classifier = new FallRuleClassifier();
+    private boolean classifierGate = true;
+    private final float[] features = new float[MotionFeatures.COUNT];
+    private final float[] probabilities = new float[Classifier.CLASS_COUNT];
+    
+    // Estadísticas incrementales sobre los cuadros alineados (20 Hz): media y varianza en O(1)
+    private final WindowedStatistics accelerationHistory = new WindowedStatistics(SAMPLE_SIZE);
+    private final WindowedStatistics gyroscopeHistory = new WindowedStatistics(SAMPLE_SIZE);
+    // Cuadros que faltan para que la ventana vuelva a estar entera en reposo (0 = en reposo)
+    private int activeFramesLeft = 0;
+    private boolean windowsWarm = false;
+    
+    // Contadores por etapa: los escribe solo el hilo de cuadros, se pueden leer desde cualquiera
+    private volatile long frameCount = 0;
+    private volatile long stage1Count = 0;
+    private volatile long stage2Count = 0;
+    
+    public interface MLFallDetectionListener {
+        void onMLFallDetected(float confidence);
+        void onMLMotionDetected(String motionType, float confidence);
+    }
+    
+    public MLFallDetector(MLFallDetectionListener listener) {
+        this(listener, DetectorConfig.DEFAULT);
+    }
+    
+    public MLFallDetector(MLFallDetectionListener listener, DetectorConfig config) {
+        this.listener = listener;
+        this.pendingConfig = config;
+        applyConfig(config);
+    }
+    
+    /**
+     * Publica un nuevo perfil sin bloquear; se adopta antes de la próxima evaluación de la ventana
+     */
+    public void setConfig(DetectorConfig config) {
+        pendingConfig = config;
+    }
+    
+    private void applyConfig(DetectorConfig config) {
+        this.config = config;
+        fallThreshold = config.getMlFallThreshold();
+        motionThreshold = config.getMlMotionThreshold();
+        // Un umbral de movimiento brusco por debajo de la compuerta no debe quedar oculto por ella
+        rotationGate = Math.min(GATE_ROTATION, motionThreshold);
+    }
+    
+    /**
+     * Sustituye el cálculo de probabilidad por reglas; mismo hilo que entrega los cuadros
+     */
+    public void setClassifier(Classifier classifier) {
+        this.classifier = classifier;
+        // La compuerta de la etapa 2 se deriva de los umbrales de las reglas, no de un modelo
+        this.classifierGate = classifier instanceof FallRuleClassifier;
+    }
+    
+    @Override
+    public void onMotionFrame(FloatRingBuffer frames) {
+        frameCount++;
+        int newest = frames.size() - 1;
+        float acceleration = magnitude(frames, newest, 0);
+        float rotation = magnitude(frames, newest, 3);
+        
+        // Etapa 0: tras el último cuadro activo se sigue una ventana completa para que el evento
+        // la recorra entera; después, reposo
+        if (Math.abs(acceleration - STANDARD_GRAVITY) > GATE_ACCELERATION_DEVIATION || rotation > rotationGate) {
+            activeFramesLeft = SAMPLE_SIZE;
+        }
+        if (activeFramesLeft == 0) {
+            windowsWarm = false;
+            return;
+        }
+        activeFramesLeft--;
+        stage1Count++;
+        
+        // Cada cuadro ya trae acelerómetro y giroscopio en el mismo instante, así ambas
+        // ventanas avanzan sincronizadas muestra a muestra
+        if (windowsWarm) {
+            long timestamp = frames.getNewestTimestamp();
+            accelerationHistory.add(timestamp, acceleration);
+            gyroscopeHistory.add(timestamp, rotation);
+        } else {
+            warmUp(frames);
+        }
+        analyzeMotionWithML();
+    }
+    
+    /**
+     * Rellena las ventanas con los últimos cuadros del alineador; el resultado es el mismo que si
+     * se hubieran ido agregando uno a uno
+     */
+    private void warmUp(FloatRingBuffer frames) {
+        accelerationHistory.clear();
+        gyroscopeHistory.clear();
+        int count = Math.min(frames.size(), SAMPLE_SIZE);
+        for (int i = frames.size() - count; i < frames.size(); i++) {
+            long timestamp = frames.getTimestamp(i);
+            accelerationHistory.add(timestamp, magnitude(frames, i, 0));
+            gyroscopeHistory.add(timestamp, magnitude(frames, i, 3));
+        }
+        windowsWarm = true;
+    }
+    
+    private static float magnitude(FloatRingBuffer frames, int index, int firstChannel) {
+        float x = frames.get(index, firstChannel);
+        float y = frames.get(index, firstChannel + 1);
+        float z = frames.get(index, firstChannel + 2);
+        return (float) Math.sqrt(x * x + y * y + z * z);
+    }
+    
+    private void analyzeMotionWithML() {
+        if (!accelerationHistory.isFull()) {
+            return;
+        }
+        
+        // Los umbrales no guardan estado entre ventanas: basta con fijarlos antes de evaluar
+        DetectorConfig pending = pendingConfig;
+        if (pending != config) {
+            applyConfig(pending);
+        }
+        
+        // Análisis Inteligente de Sensores: Procesa datos del acelerómetro y giroscopio
+        float avgAcceleration = accelerationHistory.getMean();
+        float avgGyroscope = gyroscopeHistory.getMean();
+        float accelerationVariance = accelerationHistory.getVariance();
+        float gyroscopeVariance = gyroscopeHistory.getVariance();
+        
+        // 1. DETECCIÓN DE CAÍDA LIBRE - Detecta cuando el dispositivo está en caída libre
+        if (avgAcceleration < 1.0f && accelerationVariance < 0.5f) {
+            detectFreeFall();
+        }
+        
+        // 2. DETECCIÓN DE IMPACTO - Detecta el momento del impacto contra el suelo
+        if (avgAcceleration > 40.0f && accelerationVariance > 25.0f) {
+            detectImpact();
+        }
+        
+        // 3. DETECCIÓN DE MOVIMIENTO BRUSCO - Detecta rotaciones y sacudidas
+        if (avgGyroscope > motionThreshold || gyroscopeVariance > 120.0f) {
+            detectSuddenMovement();
+        }
+        
+        // 4. ANÁLISIS COMBINADO CON ML - Clasifica movimientos y calcula probabilidades
+        analyzeCombinedMotion();
+    }
+    
+    private void detectFreeFall() {
+        DetectionEventLog.record(DetectionEventLog.Event.ML_FREE_FALL);
+        if (listener != null) {
+            listener.onMLFallDetected(0.8f);
+        }
+    }
+    
+    private void detectImpact() {
+        DetectionEventLog.record(DetectionEventLog.Event.ML_IMPACT);
+        if (listener != null) {
+            listener.onMLFallDetected(0.9f);
+        }
+    }
+    
+    private void detectSuddenMovement() {
+        DetectionEventLog.record(DetectionEventLog.Event.ML_SUDDEN_MOVEMENT);
+        if (listener != null) {
+            listener.onMLMotionDetected("sudden_movement", 0.7f);
+        }
+    }
+    
+    private void analyzeCombinedMotion() {
+        // Etapa 2: solo ventanas que se alejan de 1 g o con giro apreciable pueden ser una caída
+        if (classifierGate
+                && accelerationHistory.getMax() - STANDARD_GRAVITY <= CLASSIFIER_ACCELERATION_DEVIATION
+                && STANDARD_GRAVITY - accelerationHistory.getMin() <= CLASSIFIER_ACCELERATION_DEVIATION
+                && gyroscopeHistory.getMax() <= GATE_ROTATION) {
+            return;
+        }
+        stage2Count++;
+        
+        // Cálculo de Confianza: Asigna probabilidades a cada detección (0.0 a 1.0)
+        // Clasificación de Movimientos: Distingue entre caídas, sacudidas y movimientos normales
+        MotionFeatures.extract(accelerationHistory, gyroscopeHistory, features);
+        classifier.classify(features, probabilities);
+        float fallProbability = probabilities[Classifier.CLASS_FALL];
+        if (fallProbability > fallThreshold) {
+            DetectionEventLog.record(DetectionEventLog.Event.ML_FALL_PROBABILITY, fallProbability);
+            if (listener != null) {
+                listener.onMLFallDetected(fallProbability);
+            }
+        }
+    }
+    
+    /**
+     * Cuadros recibidos
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+    
+    /**
+     * Cuadros que superaron la etapa 0 (estadísticas y reglas)
+     */
+    public long getStage1Count() {
+        return stage1Count;
+    }
+    
+    /**
+     * Cuadros que llegaron al clasificador
+     */
+    public long getStage2Count() {
+        return stage2Count;
+    }
+    
+    /**
+     * Fracción de cuadros descartados en la etapa 0
+     */
+    public float getStage0ExitRate() {
+        long frames = frameCount;
+        return frames == 0 ? 0.0f : 1.0f - (float) stage1Count / frames;
+    }
+    
+    public void reset() {
+        accelerationHistory.clear();
+        gyroscopeHistory.clear();
+        activeFramesLeft = 0;
+        windowsWarm = false;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.fallalarm.core.ml;
+
+import com.example.fallalarm.core.util.WindowedStatistics;
+
+/**
+ * Vector de características de una ventana de movimiento
+ * El orden de los índices forma parte del contrato con los modelos exportados: no reordenar,
+ * solo añadir al final (y subir la versión del modelo).
+ */
+public final class MotionFeatures {
+    
+    public static final int AVG_ACCELERATION = 0;
+    public static final int MAX_ACCELERATION = 1;
+    public static final int ACCELERATION_VARIANCE = 2;
+    public static final int ACCELERATION_JERK = 3;
+    public static final int AVG_GYROSCOPE = 4;
+    public static final int MAX_GYROSCOPE = 5;
+    public static final int GYROSCOPE_VARIANCE = 6;
+    public static final int DURATION = 7;            // s
+    public static final int FREQUENCY = 8;           // Hz
+    public static final int DIRECTION_CHANGE = 9;
+    public static final int ROTATION_INTENSITY = 10;
+    
+    public static final int COUNT = 11;
+    
+    private MotionFeatures() {
+    }
+    
+    /**
+     * Calcula las características de las ventanas de aceleración y giroscopio sin reservar memoria
+     */
+    public static void extract(WindowedStatistics acceleration, WindowedStatistics gyroscope, float[] out) {
+        out[AVG_ACCELERATION] = acceleration.getMean();
+        out[MAX_ACCELERATION] = Math.max(0.0f, acceleration.getMax());
+        out[ACCELERATION_VARIANCE] = acceleration.getVariance();
+        out[ACCELERATION_JERK] = acceleration.getMeanAbsoluteJerk();
+        
+        out[AVG_GYROSCOPE] = gyroscope.getMean();
+        out[MAX_GYROSCOPE] = Math.max(0.0f, gyroscope.getMax());
+        out[GYROSCOPE_VARIANCE] = gyroscope.getVariance();
+        
+        float duration = 0.0f;
+        if (acceleration.size() >= 2) {
+            duration = (acceleration.getNewestTimestamp() - acceleration.getOldestTimestamp()) / 1_000_000_000.0f;
+        }
+        out[DURATION] = duration;
+        out[FREQUENCY] = duration > 0.0f ? acceleration.size() / duration : 0.0f;
+        
+        out[DIRECTION_CHANGE] = acceleration.getDirectionChangeRate();
+        out[ROTATION_INTENSITY] = gyroscope.getMean();
+    }
+}
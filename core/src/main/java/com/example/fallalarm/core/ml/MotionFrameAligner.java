@@ -0,0 +1,171 @@
+package com.example.fallalarm.core.ml;
+
+import com.example.fallalarm.core.sensors.SensorClock;
+import com.example.fallalarm.core.sensors.SampleIngestor;
+import com.example.fallalarm.core.sensors.SensorSample;
+import com.example.fallalarm.core.util.FloatRingBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Etapa de fusión acelerómetro/giroscopio alineada en el tiempo
+ * Remuestrea ambos flujos sobre una línea temporal común de frecuencia fija usando la marca de
+ * tiempo de cada evento (interpolación lineal, o retención de orden cero si hay un hueco) y
+ * emite cuadros de 6 ejes en un buffer preasignado y contiguo.
+ *
+ * Canales del cuadro: 0-2 aceleración (x, y, z), 3-5 giroscopio (x, y, z)
+ */
+public class MotionFrameAligner implements SampleIngestor.SensorSampleListener {
+    
+    public static final int FRAME_CHANNELS = 6;
+    public static final long FRAME_PERIOD_NANOS = SensorClock.millisToNanos(50); // 20 Hz
+    
+    // Latencia máxima de lote pedida al hardware: un flujo puede llegar adelantado al otro hasta
+    // en un lote completo, y hasta entonces sus muestras deben seguir en el historial
+    public static final long MAX_BATCH_LATENCY_NANOS = SensorClock.millisToNanos(1000);
+    // SENSOR_DELAY_GAME pide 50 Hz, pero muchos sensores entregan hasta el doble
+    private static final int MAX_STREAM_RATE_HZ = 100;
+    
+    private static final int FRAME_HISTORY = 64;
+    private static final int STREAM_HISTORY =
+            (int) (MAX_BATCH_LATENCY_NANOS * MAX_STREAM_RATE_HZ / 1_000_000_000L) + 32;
+    // Entre muestras más separadas que esto no se interpola, se retiene la anterior
+    private static final long MAX_INTERPOLATION_GAP_NANOS = SensorClock.millisToNanos(500);
+    // Si la línea temporal queda muy atrás (pausa del sensor) se salta en lugar de rellenar
+    private static final long MAX_CATCH_UP_NANOS = SensorClock.millisToNanos(1000);
+    
+    private final FloatRingBuffer accelerationStream = new FloatRingBuffer(STREAM_HISTORY, 3);
+    private final FloatRingBuffer gyroscopeStream = new FloatRingBuffer(STREAM_HISTORY, 3);
+    private final FloatRingBuffer frames = new FloatRingBuffer(FRAME_HISTORY, FRAME_CHANNELS);
+    private final float[] frame = new float[FRAME_CHANNELS];
+    private final float[] axes = new float[3];
+    private final List<FrameListener> listeners = new ArrayList<>();
+    private long nextFrameTime = -1;
+    
+    public interface FrameListener {
+        /**
+         * Se emitió un cuadro alineado; es el más reciente de {@code frames}.
+         * El buffer pertenece al alineador y solo debe leerse durante la llamada.
+         */
+        void onMotionFrame(FloatRingBuffer frames);
+    }
+    
+    public void addFrameListener(FrameListener listener) {
+        listeners.add(listener);
+    }
+    
+    @Override
+    public void onSensorSample(SensorSample sample) {
+        FloatRingBuffer stream;
+        if (sample.isAccelerometer()) {
+            stream = accelerationStream;
+        } else if (sample.isGyroscope()) {
+            stream = gyroscopeStream;
+        } else {
+            return;
+        }
+        long timestamp = sample.getTimestampNanos();
+        if (stream.size() > 0 && timestamp <= stream.getNewestTimestamp()) {
+            return; // Muestra repetida o desordenada dentro del mismo flujo
+        }
+        axes[0] = sample.getX();
+        axes[1] = sample.getY();
+        axes[2] = sample.getZ();
+        stream.add(timestamp, axes);
+        
+        emitReadyFrames();
+    }
+    
+    /**
+     * Emite todos los cuadros cuyo instante ya quedó cubierto por ambos flujos
+     */
+    private void emitReadyFrames() {
+        if (accelerationStream.size() == 0 || gyroscopeStream.size() == 0) {
+            return;
+        }
+        long covered = Math.min(accelerationStream.getNewestTimestamp(), gyroscopeStream.getNewestTimestamp());
+        if (nextFrameTime < 0) {
+            nextFrameTime = Math.max(accelerationStream.getTimestamp(0), gyroscopeStream.getTimestamp(0));
+        }
+        if (covered - nextFrameTime > MAX_CATCH_UP_NANOS) {
+            nextFrameTime = covered;
+        }
+        
+        while (nextFrameTime <= covered) {
+            sampleAt(accelerationStream, nextFrameTime, 0);
+            sampleAt(gyroscopeStream, nextFrameTime, 3);
+            frames.add(nextFrameTime, frame);
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).onMotionFrame(frames);
+            }
+            nextFrameTime += FRAME_PERIOD_NANOS;
+        }
+    }
+    
+    /**
+     * Valor del flujo en el instante indicado, escrito en frame[offset..offset+2]
+     */
+    private void sampleAt(FloatRingBuffer stream, long time, int offset) {
+        int i = stream.size() - 1;
+        while (i > 0 && stream.getTimestamp(i) > time) {
+            i--;
+        }
+        long t0 = stream.getTimestamp(i);
+        if (t0 >= time || i == stream.size() - 1) {
+            holdAt(stream, i, offset);
+            return;
+        }
+        long t1 = stream.getTimestamp(i + 1);
+        if (t1 - t0 > MAX_INTERPOLATION_GAP_NANOS) {
+            holdAt(stream, i, offset);
+            return;
+        }
+        float weight = (float) (time - t0) / (float) (t1 - t0);
+        for (int axis = 0; axis < 3; axis++) {
+            float v0 = stream.get(i, axis);
+            float v1 = stream.get(i + 1, axis);
+            frame[offset + axis] = v0 + (v1 - v0) * weight;
+        }
+    }
+    
+    private void holdAt(FloatRingBuffer stream, int index, int offset) {
+        for (int axis = 0; axis < 3; axis++) {
+            frame[offset + axis] = stream.get(index, axis);
+        }
+    }
+    
+    public FloatRingBuffer getFrames() {
+        return frames;
+    }
+    
+    /**
+     * Guarda los flujos, el historial de cuadros y la línea temporal para un arranque en caliente
+     */
+    public void saveState(ByteBuffer out) {
+        out.putLong(nextFrameTime);
+        accelerationStream.writeTo(out);
+        gyroscopeStream.writeTo(out);
+        frames.writeTo(out);
+    }
+    
+    /**
+     * Restaura lo guardado con {@link #saveState}; las marcas de tiempo se desplazan al reloj
+     * actual. El siguiente cuadro ya ve el historial completo (los detectores no se recalientan).
+     */
+    public void restoreState(ByteBuffer in, long timeShiftNanos) {
+        long storedNextFrameTime = in.getLong();
+        nextFrameTime = storedNextFrameTime < 0 ? -1 : storedNextFrameTime + timeShiftNanos;
+        accelerationStream.readFrom(in, timeShiftNanos);
+        gyroscopeStream.readFrom(in, timeShiftNanos);
+        frames.readFrom(in, timeShiftNanos);
+    }
+    
+    public void reset() {
+        accelerationStream.clear();
+        gyroscopeStream.clear();
+        frames.clear();
+        nextFrameTime = -1;
+    }
+}
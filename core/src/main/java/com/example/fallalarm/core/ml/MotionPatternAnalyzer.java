@@ -0,0 +1,118 @@
+package com.example.fallalarm.core.ml;
+
+import com.example.fallalarm.core.config.DetectorConfig;
+import com.example.fallalarm.core.util.WindowedStatistics;
+
+/**
+ * Analizador de patrones de movimiento usando técnicas de ML
+ * Clasifica diferentes tipos de movimiento para mejorar la detección de caídas
+ */
+public class MotionPatternAnalyzer {
+    
+    private static final int PATTERN_SIZE = 20;
+    
+    // Magnitudes de aceleración y giroscopio con estadísticas incrementales sobre la ventana
+    private final WindowedStatistics accelerationHistory = new WindowedStatistics(PATTERN_SIZE);
+    private final WindowedStatistics gyroscopeHistory = new WindowedStatistics(PATTERN_SIZE);
+    private final float[] features = new float[MotionFeatures.COUNT];
+    private final float[] probabilities = new float[Classifier.CLASS_COUNT];
+    // Perfil activo y perfil publicado desde otro hilo (se adopta al analizar la ventana)
+    private DetectorConfig config;
+    private float fallPatternThreshold;
+    private volatile DetectorConfig pendingConfig;
+    private Classifier classifier;
+    private MotionPatternListener listener;
+    
+    public interface MotionPatternListener {
+        void onFallPatternDetected(float confidence);
+    }
+    
+    public MotionPatternAnalyzer(MotionPatternListener listener) {
+        this(listener, DetectorConfig.DEFAULT);
+    }
+    
+    public MotionPatternAnalyzer(MotionPatternListener listener, DetectorConfig config) {
+        this.classifier = new PatternRuleClassifier();
+        this.listener = listener;
+        this.pendingConfig = config;
+        this.config = config;
+        this.fallPatternThreshold = config.getFallPatternThreshold();
+    }
+    
+    /**
+     * Publica un nuevo perfil sin bloquear; se adopta antes del próximo análisis
+     */
+    public void setConfig(DetectorConfig config) {
+        pendingConfig = config;
+    }
+    
+    /**
+     * Sustituye el clasificador por reglas (p. ej. por un {@link CompactModel}); llamar antes de
+     * empezar a recibir cuadros o desde el mismo hilo que los entrega
+     */
+    public void setClassifier(Classifier classifier) {
+        this.classifier = classifier;
+    }
+    
+    /**
+     * Agrega un cuadro alineado de 6 ejes (ver {@link MotionFrameAligner})
+     */
+    public void addMotionFrame(long timestampNanos, float[] frame) {
+        accelerationHistory.add(timestampNanos, magnitude(frame, 0));
+        gyroscopeHistory.add(timestampNanos, magnitude(frame, 3));
+        
+        if (accelerationHistory.isFull()) {
+            analyzeMotionPattern();
+        }
+    }
+    
+    /**
+     * Analiza el patrón de movimiento actual
+     */
+    private void analyzeMotionPattern() {
+        if (!accelerationHistory.isFull()) {
+            return;
+        }
+        
+        DetectorConfig pending = pendingConfig;
+        if (pending != config) {
+            config = pending;
+            fallPatternThreshold = pending.getFallPatternThreshold();
+        }
+        
+        // Extraer características del patrón y clasificarlo
+        MotionFeatures.extract(accelerationHistory, gyroscopeHistory, features);
+        classifier.classify(features, probabilities);
+        int type = Classifier.argmax(probabilities);
+        float confidence = probabilities[type];
+        
+        DetectionEventLog.record(DetectionEventLog.Event.PATTERN_CLASSIFIED, type, confidence);
+        
+        // Si es un patrón de caída, notificar
+        if (type == Classifier.CLASS_FALL && confidence > fallPatternThreshold) {
+            onFallPatternDetected(confidence);
+        }
+    }
+    
+    private void onFallPatternDetected(float confidence) {
+        DetectionEventLog.record(DetectionEventLog.Event.PATTERN_FALL, confidence);
+        if (listener != null) {
+            listener.onFallPatternDetected(confidence);
+        }
+    }
+    
+    /**
+     * Descarta la ventana actual (p. ej. tras perder cuadros)
+     */
+    public void reset() {
+        accelerationHistory.clear();
+        gyroscopeHistory.clear();
+    }
+    
+    private static float magnitude(float[] v, int offset) {
+        float x = v[offset];
+        float y = v[offset + 1];
+        float z = v[offset + 2];
+        return (float) Math.sqrt(x * x + y * y + z * z);
+    }
+}
\ No newline at end of file
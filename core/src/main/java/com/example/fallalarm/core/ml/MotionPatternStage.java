@@ -0,0 +1,106 @@
+package com.example.fallalarm.core.ml;
+
+import com.example.fallalarm.core.metrics.PipelineMetrics;
+import com.example.fallalarm.core.util.FloatRingBuffer;
+import com.example.fallalarm.core.util.SpscFrameQueue;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Etapa asíncrona del análisis de patrones
+ * El hilo de sensores solo copia cada cuadro alineado en una cola acotada sin bloqueos; la
+ * extracción de características y la clasificación se ejecutan en el ejecutor de trabajo.
+ * Si la cola se llena el consumidor va atrasado: se descartan los cuadros viejos y la ventana
+ * del analizador en lugar de crecer en memoria.
+ */
+public class MotionPatternStage implements MotionFrameAligner.FrameListener {
+    
+    private static final int QUEUE_CAPACITY = 64; // ~3 s de cuadros a 20 Hz
+    
+    private final MotionPatternAnalyzer analyzer;
+    private final Executor executor;
+    private final SpscFrameQueue queue = new SpscFrameQueue(QUEUE_CAPACITY, MotionFrameAligner.FRAME_CHANNELS);
+    private final float[] frame = new float[MotionFrameAligner.FRAME_CHANNELS];
+    
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean overflowed = new AtomicBoolean(false);
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private volatile PipelineMetrics metrics;
+    
+    private final SpscFrameQueue.FrameConsumer consumer = new SpscFrameQueue.FrameConsumer() {
+        @Override
+        public void onFrame(long timestamp, float[] values) {
+            PipelineMetrics current = metrics;
+            if (current == null) {
+                analyzer.addMotionFrame(timestamp, values);
+                return;
+            }
+            long start = System.nanoTime();
+            analyzer.addMotionFrame(timestamp, values);
+            current.recordProcessing(PipelineMetrics.Stage.PATTERN_ANALYZER, System.nanoTime() - start);
+        }
+    };
+    
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drainScheduled.set(false);
+            if (overflowed.getAndSet(false)) {
+                // Los cuadros pendientes ya son viejos y la ventana tiene un hueco
+                int skipped = queue.skipAll();
+                droppedFrames.addAndGet(skipped);
+                recordDropped(skipped);
+                analyzer.reset();
+                DetectionEventLog.record(DetectionEventLog.Event.PATTERN_QUEUE_OVERFLOW, droppedFrames.get());
+                return;
+            }
+            queue.drain(consumer);
+        }
+    };
+    
+    public MotionPatternStage(MotionPatternAnalyzer analyzer, Executor executor) {
+        this.analyzer = analyzer;
+        this.executor = executor;
+    }
+    
+    @Override
+    public void onMotionFrame(FloatRingBuffer frames) {
+        int newest = frames.size() - 1;
+        for (int channel = 0; channel < frame.length; channel++) {
+            frame[channel] = frames.get(newest, channel);
+        }
+        if (!queue.offer(frames.getNewestTimestamp(), frame)) {
+            droppedFrames.incrementAndGet();
+            recordDropped(1);
+            overflowed.set(true);
+        }
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(drainTask);
+            } catch (RuntimeException e) {
+                // Ejecutor detenido (servicio destruyéndose)
+                drainScheduled.set(false);
+            }
+        }
+    }
+    
+    /**
+     * Registra el tiempo de clasificación por cuadro y los cuadros descartados
+     */
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    private void recordDropped(long count) {
+        PipelineMetrics current = metrics;
+        if (current != null) {
+            current.recordDropped(PipelineMetrics.Stage.PATTERN_ANALYZER, count);
+        }
+    }
+    
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.fallalarm.core.ml;
+
+/**
+ * Clasificador de referencia de MotionPatternAnalyzer: sumas de puntuación por umbrales
+ */
+public class PatternRuleClassifier implements Classifier {
+    
+    @Override
+    public void classify(float[] features, float[] probabilities) {
+        probabilities[CLASS_NORMAL] = calculateNormalScore(features);
+        probabilities[CLASS_SHAKE] = calculateShakeScore(features);
+        probabilities[CLASS_FALL] = calculateFallScore(features);
+    }
+    
+    private float calculateFallScore(float[] features) {
+        float score = 0.0f;
+        
+        // Caída libre: baja aceleración
+        if (features[MotionFeatures.AVG_ACCELERATION] < 3.0f) {
+            score += 0.3f;
+        }
+        
+        // Impacto: alta aceleración
+        if (features[MotionFeatures.MAX_ACCELERATION] > 20.0f) {
+            score += 0.4f;
+        }
+        
+        // Variabilidad alta
+        if (features[MotionFeatures.ACCELERATION_VARIANCE] > 5.0f) {
+            score += 0.2f;
+        }
+        
+        // Duración corta
+        if (features[MotionFeatures.DURATION] < 2.0f) {
+            score += 0.1f;
+        }
+        
+        return Math.min(score, 1.0f);
+    }
+    
+    private float calculateShakeScore(float[] features) {
+        float score = 0.0f;
+        
+        // Alta frecuencia
+        if (features[MotionFeatures.FREQUENCY] > 10.0f) {
+            score += 0.3f;
+        }
+        
+        // Muchos cambios de dirección
+        if (features[MotionFeatures.DIRECTION_CHANGE] > 0.3f) {
+            score += 0.3f;
+        }
+        
+        // Alta rotación
+        if (features[MotionFeatures.ROTATION_INTENSITY] > 5.0f) {
+            score += 0.4f;
+        }
+        
+        return Math.min(score, 1.0f);
+    }
+    
+    private float calculateNormalScore(float[] features) {
+        float score = 0.0f;
+        float avgAcceleration = features[MotionFeatures.AVG_ACCELERATION];
+        
+        // Aceleración normal
+        if (avgAcceleration >= 8.0f && avgAcceleration <= 12.0f) {
+            score += 0.4f;
+        }
+        
+        // Baja variabilidad
+        if (features[MotionFeatures.ACCELERATION_VARIANCE] < 2.0f) {
+            score += 0.3f;
+        }
+        
+        // Baja rotación
+        if (features[MotionFeatures.ROTATION_INTENSITY] < 2.0f) {
+            score += 0.3f;
+        }
+        
+        return Math.min(score, 1.0f);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.fallalarm.core.replay;
+
+/**
+ * Detección emitida durante la reproducción de una traza
+ */
+public final class ReplayDetection {
+    
+    public enum Type {
+        FALL_CANDIDATE,  // FallDetector: inicio de caída libre
+        FALL,            // FallDetector: caída libre seguida de impacto
+        SHAKE_CANDIDATE, // ShakeDetector: primera sacudida de una serie
+        SHAKE,           // ShakeDetector
+        ML_FALL,         // MLFallDetector
+        ML_MOTION,       // MLFallDetector: movimiento brusco
+        PATTERN_FALL,    // MotionPatternAnalyzer
+        INCIDENT         // DetectionFusionEngine: emergencia confirmada
+    }
+    
+    private final Type type;
+    private final long timestampNanos;
+    private final float confidence;
+    
+    public ReplayDetection(Type type, long timestampNanos, float confidence) {
+        this.type = type;
+        this.timestampNanos = timestampNanos;
+        this.confidence = confidence;
+    }
+    
+    public Type getType() { return type; }
+    public long getTimestampNanos() { return timestampNanos; }
+    public float getConfidence() { return confidence; }
+    
+    @Override
+    public String toString() {
+        return type + "@" + timestampNanos + " (" + confidence + ")";
+    }
+}
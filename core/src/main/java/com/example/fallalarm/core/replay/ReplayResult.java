@@ -0,0 +1,58 @@
+package com.example.fallalarm.core.replay;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de reproducir una traza: detecciones en orden y métricas de la ejecución
+ */
+public final class ReplayResult {
+    
+    private final String traceName;
+    private final int sampleCount;
+    private final long firstTimestampNanos;
+    private final long lastTimestampNanos;
+    private final long wallTimeNanos;
+    private final List<ReplayDetection> detections;
+    
+    ReplayResult(String traceName, int sampleCount, long firstTimestampNanos, long lastTimestampNanos,
+                 long wallTimeNanos, List<ReplayDetection> detections) {
+        this.traceName = traceName;
+        this.sampleCount = sampleCount;
+        this.firstTimestampNanos = firstTimestampNanos;
+        this.lastTimestampNanos = lastTimestampNanos;
+        this.wallTimeNanos = wallTimeNanos;
+        this.detections = Collections.unmodifiableList(detections);
+    }
+    
+    public String getTraceName() { return traceName; }
+    public int getSampleCount() { return sampleCount; }
+    public long getFirstTimestampNanos() { return firstTimestampNanos; }
+    public long getLastTimestampNanos() { return lastTimestampNanos; }
+    public long getWallTimeNanos() { return wallTimeNanos; }
+    public List<ReplayDetection> getDetections() { return detections; }
+    
+    /**
+     * Duración cubierta por la traza según las marcas de tiempo de los eventos
+     */
+    public long getTraceDurationNanos() {
+        return sampleCount == 0 ? 0 : lastTimestampNanos - firstTimestampNanos;
+    }
+    
+    /**
+     * Cuántas veces más rápido que el tiempo real se reprodujo la traza
+     */
+    public double getSpeedup() {
+        return wallTimeNanos == 0 ? 0.0 : (double) getTraceDurationNanos() / wallTimeNanos;
+    }
+    
+    public int count(ReplayDetection.Type type) {
+        int count = 0;
+        for (ReplayDetection detection : detections) {
+            if (detection.getType() == type) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.fallalarm.core.replay;
+
+import com.example.fallalarm.core.sensors.SampleIngestor;
+import com.example.fallalarm.core.sensors.SensorSample;
+import com.example.fallalarm.core.trace.TraceReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Traza decodificada y filtrada una sola vez, guardada en arreglos primitivos
+ * Conserva lo que calcula SampleIngestor (aceleración lineal y magnitudes) para que cada
+ * reproducción posterior solo ejecute los detectores. Ocupa unos 41 bytes por muestra.
+ * Inmutable tras construirse: varias reproducciones pueden leerlo a la vez.
+ */
+public final class SampleStream {
+    
+    private static final int VALUES = 8; // x, y, z, magnitud, lineal x/y/z, magnitud lineal
+    
+    private final String name;
+    private int size = 0;
+    private long[] timestamps = new long[1024];
+    private boolean[] accelerometer = new boolean[1024];
+    private float[] values = new float[1024 * VALUES];
+    
+    private SampleStream(String name) {
+        this.name = name;
+    }
+    
+    public static SampleStream decode(File trace) throws IOException {
+        final SampleStream stream = new SampleStream(trace.getName());
+        final SampleIngestor ingestor = new SampleIngestor();
+        ingestor.addListener(stream::append);
+        TraceReader.read(trace, new TraceReader.SampleSink() {
+            @Override
+            public void onAccelerometer(long timestampNanos, float x, float y, float z) {
+                ingestor.onAccelerometer(timestampNanos, x, y, z);
+            }
+            
+            @Override
+            public void onGyroscope(long timestampNanos, float x, float y, float z) {
+                ingestor.onGyroscope(timestampNanos, x, y, z);
+            }
+        });
+        stream.trim();
+        return stream;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public long getFirstTimestampNanos() {
+        return size == 0 ? 0 : timestamps[0];
+    }
+    
+    public long getLastTimestampNanos() {
+        return size == 0 ? 0 : timestamps[size - 1];
+    }
+    
+    /**
+     * Entrega todas las muestras al ingestor, que avanza su reloj y las reparte tal cual
+     */
+    public void replayInto(SampleIngestor ingestor) {
+        float[] axes = new float[3];
+        float[] linear = new float[3];
+        for (int i = 0; i < size; i++) {
+            int offset = i * VALUES;
+            axes[0] = values[offset];
+            axes[1] = values[offset + 1];
+            axes[2] = values[offset + 2];
+            if (accelerometer[i]) {
+                linear[0] = values[offset + 4];
+                linear[1] = values[offset + 5];
+                linear[2] = values[offset + 6];
+                ingestor.onSample(SensorSample.accelerometer(timestamps[i], axes, values[offset + 3],
+                        linear, values[offset + 7]));
+            } else {
+                ingestor.onSample(SensorSample.gyroscope(timestamps[i], axes, values[offset + 3]));
+            }
+        }
+    }
+    
+    private void append(SensorSample sample) {
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            accelerometer = Arrays.copyOf(accelerometer, size * 2);
+            values = Arrays.copyOf(values, size * 2 * VALUES);
+        }
+        int offset = size * VALUES;
+        timestamps[size] = sample.getTimestampNanos();
+        accelerometer[size] = sample.isAccelerometer();
+        values[offset] = sample.getX();
+        values[offset + 1] = sample.getY();
+        values[offset + 2] = sample.getZ();
+        values[offset + 3] = sample.getMagnitude();
+        values[offset + 4] = sample.getLinearX();
+        values[offset + 5] = sample.getLinearY();
+        values[offset + 6] = sample.getLinearZ();
+        values[offset + 7] = sample.getLinearMagnitude();
+        size++;
+    }
+    
+    private void trim() {
+        timestamps = Arrays.copyOf(timestamps, size);
+        accelerometer = Arrays.copyOf(accelerometer, size);
+        values = Arrays.copyOf(values, size * VALUES);
+    }
+}
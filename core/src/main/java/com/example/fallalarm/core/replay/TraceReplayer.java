@@ -0,0 +1,202 @@
+package com.example.fallalarm.core.replay;
+
+import com.example.fallalarm.core.config.DetectorConfig;
+import com.example.fallalarm.core.ml.DetectionFusionEngine;
+import com.example.fallalarm.core.ml.MLFallDetector;
+import com.example.fallalarm.core.ml.MotionFrameAligner;
+import com.example.fallalarm.core.ml.MotionPatternAnalyzer;
+import com.example.fallalarm.core.sensors.FallDetector;
+import com.example.fallalarm.core.sensors.SampleIngestor;
+import com.example.fallalarm.core.sensors.SensorClock;
+import com.example.fallalarm.core.sensors.SensorSample;
+import com.example.fallalarm.core.sensors.ShakeDetector;
+import com.example.fallalarm.core.trace.TraceReader;
+import com.example.fallalarm.core.util.FloatRingBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Reproducción de trazas sin dispositivo y más rápida que el tiempo real
+ * Cada traza pasa por un grafo de detectores nuevo (el mismo que arma FallAlarmService) usando
+ * las marcas de tiempo originales y sin esperas. El analizador de patrones se ejecuta en línea
+ * para que el resultado sea determinista. Varias trazas se reproducen en paralelo.
+ */
+public class TraceReplayer {
+    
+    private final DetectorConfig config;
+    
+    public TraceReplayer() {
+        this(DetectorConfig.DEFAULT);
+    }
+    
+    public TraceReplayer(DetectorConfig config) {
+        this.config = config;
+    }
+    
+    public DetectorConfig getConfig() {
+        return config;
+    }
+    
+    public ReplayResult replay(File trace) throws IOException {
+        Session session = new Session(config);
+        long start = System.nanoTime();
+        TraceReader.read(trace, session);
+        return session.finish(trace.getName(), System.nanoTime() - start);
+    }
+    
+    public ReplayResult replay(String name, ByteBuffer trace) throws IOException {
+        Session session = new Session(config);
+        long start = System.nanoTime();
+        TraceReader.read(trace, session);
+        return session.finish(name, System.nanoTime() - start);
+    }
+    
+    /**
+     * Reproduce un flujo ya decodificado y filtrado; es lo más barato para barrer parámetros
+     */
+    public ReplayResult replay(SampleStream stream) {
+        Session session = new Session(config);
+        long start = System.nanoTime();
+        stream.replayInto(session.ingestor);
+        return session.finish(stream.getName(), System.nanoTime() - start);
+    }
+    
+    /**
+     * Reproduce las trazas en paralelo en el pool indicado; los resultados respetan el orden de entrada
+     */
+    public List<ReplayResult> replayAll(List<File> traces, ForkJoinPool pool) throws IOException {
+        List<Callable<ReplayResult>> tasks = new ArrayList<>(traces.size());
+        for (final File trace : traces) {
+            tasks.add(() -> replay(trace));
+        }
+        List<ReplayResult> results = new ArrayList<>(traces.size());
+        for (Future<ReplayResult> future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Reproducción interrumpida", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException("Error al reproducir una traza", cause);
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Grafo de detectores de una reproducción; todas las detecciones llevan el tiempo del evento
+     */
+    private static final class Session implements TraceReader.SampleSink,
+            SampleIngestor.SensorSampleListener, FallDetector.FallDetectionListener, ShakeDetector.ShakeDetectionListener,
+            MLFallDetector.MLFallDetectionListener, MotionPatternAnalyzer.MotionPatternListener,
+            MotionFrameAligner.FrameListener {
+        
+        private final SampleIngestor ingestor = new SampleIngestor();
+        private final SensorClock clock = ingestor.getClock();
+        private final MotionPatternAnalyzer patternAnalyzer;
+        private final DetectionFusionEngine fusionEngine = new DetectionFusionEngine();
+        private final float[] frame = new float[MotionFrameAligner.FRAME_CHANNELS];
+        private final List<ReplayDetection> detections = new ArrayList<>();
+        private int sampleCount = 0;
+        private long firstTimestamp = 0;
+        
+        Session(DetectorConfig config) {
+            patternAnalyzer = new MotionPatternAnalyzer(this, config);
+            ingestor.addListener(this);
+            ingestor.addListener(new FallDetector(this, clock, config));
+            ingestor.addListener(new ShakeDetector(this, clock, config));
+            MotionFrameAligner aligner = new MotionFrameAligner();
+            aligner.addFrameListener(new MLFallDetector(this, config));
+            aligner.addFrameListener(this);
+            ingestor.addListener(aligner);
+        }
+        
+        @Override
+        public void onAccelerometer(long timestampNanos, float x, float y, float z) {
+            ingestor.onAccelerometer(timestampNanos, x, y, z);
+        }
+        
+        @Override
+        public void onGyroscope(long timestampNanos, float x, float y, float z) {
+            ingestor.onGyroscope(timestampNanos, x, y, z);
+        }
+        
+        @Override
+        public void onSensorSample(SensorSample sample) {
+            if (sampleCount++ == 0) {
+                firstTimestamp = sample.getTimestampNanos();
+            }
+        }
+        
+        @Override
+        public void onMotionFrame(FloatRingBuffer frames) {
+            int newest = frames.size() - 1;
+            for (int channel = 0; channel < frame.length; channel++) {
+                frame[channel] = frames.get(newest, channel);
+            }
+            patternAnalyzer.addMotionFrame(frames.getNewestTimestamp(), frame);
+        }
+        
+        @Override
+        public void onFallDetected() {
+            detect(ReplayDetection.Type.FALL, DetectionFusionEngine.Source.FALL, 1.0f);
+        }
+        
+        @Override
+        public void onFreeFallCandidate() {
+            emit(ReplayDetection.Type.FALL_CANDIDATE, 0.0f);
+        }
+        
+        @Override
+        public void onShakeDetected() {
+            detect(ReplayDetection.Type.SHAKE, DetectionFusionEngine.Source.SHAKE, 1.0f);
+        }
+        
+        @Override
+        public void onShakeCandidate() {
+            emit(ReplayDetection.Type.SHAKE_CANDIDATE, 0.0f);
+        }
+        
+        @Override
+        public void onMLFallDetected(float confidence) {
+            detect(ReplayDetection.Type.ML_FALL, DetectionFusionEngine.Source.ML, confidence);
+        }
+        
+        @Override
+        public void onMLMotionDetected(String motionType, float confidence) {
+            emit(ReplayDetection.Type.ML_MOTION, confidence);
+        }
+        
+        @Override
+        public void onFallPatternDetected(float confidence) {
+            detect(ReplayDetection.Type.PATTERN_FALL, DetectionFusionEngine.Source.PATTERN, confidence);
+        }
+        
+        private void detect(ReplayDetection.Type type, DetectionFusionEngine.Source source, float confidence) {
+            emit(type, confidence);
+            if (fusionEngine.report(source, confidence, clock.nowNanos())) {
+                emit(ReplayDetection.Type.INCIDENT, fusionEngine.getLastIncidentScore());
+            }
+        }
+        
+        private void emit(ReplayDetection.Type type, float confidence) {
+            detections.add(new ReplayDetection(type, clock.nowNanos(), confidence));
+        }
+        
+        ReplayResult finish(String name, long wallTimeNanos) {
+            return new ReplayResult(name, sampleCount, firstTimestamp, clock.nowNanos(), wallTimeNanos, detections);
+        }
+    }
+}
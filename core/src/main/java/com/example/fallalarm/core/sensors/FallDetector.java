@@ -0,0 +1,110 @@
+package com.example.fallalarm.core.sensors;
+
+import com.example.fallalarm.core.config.DetectorConfig;
+
+/**
+ * Detector de caídas basado en acelerómetro
+ * Detecta caídas libres y impactos
+ */
+public class FallDetector implements SampleIngestor.SensorSampleListener {
+    
+    // Umbrales del perfil activo (ver DetectorConfig); solo los toca el hilo de sensores
+    private DetectorConfig config;
+    private float freeFallThreshold;
+    private float impactThreshold;
+    private long fallDetectionWindow;
+    private long minFreeFallDuration;
+    // Perfil publicado desde otro hilo; se adopta entre caídas, nunca a mitad de una
+    private volatile DetectorConfig pendingConfig;
+    
+    private FallDetectionListener listener;
+    private final SensorClock clock;
+    private boolean isInFreeFall = false;
+    private long freeFallStartTime = 0;
+    
+    public interface FallDetectionListener {
+        void onFallDetected();
+        
+        /**
+         * Inicio de una posible caída libre; el impacto debe confirmarse con baja latencia
+         */
+        void onFreeFallCandidate();
+    }
+    
+    public FallDetector(FallDetectionListener listener, SensorClock clock) {
+        this(listener, clock, DetectorConfig.DEFAULT);
+    }
+    
+    public FallDetector(FallDetectionListener listener, SensorClock clock, DetectorConfig config) {
+        this.listener = listener;
+        this.clock = clock;
+        this.pendingConfig = config;
+        applyConfig(config);
+    }
+    
+    /**
+     * Publica un nuevo perfil sin bloquear; el hilo de sensores lo adopta en la próxima muestra
+     * fuera de una caída libre en curso
+     */
+    public void setConfig(DetectorConfig config) {
+        pendingConfig = config;
+    }
+    
+    private void applyConfig(DetectorConfig config) {
+        this.config = config;
+        freeFallThreshold = config.getFreeFallThreshold();
+        impactThreshold = config.getImpactThreshold();
+        fallDetectionWindow = config.getFallDetectionWindowMs();
+        minFreeFallDuration = config.getMinFreeFallDurationMs();
+    }
+    
+    @Override
+    public void onSensorSample(SensorSample sample) {
+        if (sample.isAccelerometer()) {
+            // La aceleración lineal (sin gravedad) ya viene calculada por el pipeline
+            processAccelerometerData(sample.getLinearMagnitude());
+        }
+    }
+    
+    /**
+     * Los tiempos se miden con el reloj de eventos del sensor, no con la hora de entrega,
+     * para que la ventana de caída sea determinista ante ráfagas y retrasos
+     */
+    private void processAccelerometerData(float magnitude) {
+        long eventTime = clock.nowNanos();
+        
+        DetectorConfig pending = pendingConfig;
+        if (pending != config && !isInFreeFall) {
+            applyConfig(pending);
+        }
+        
+        // Detectar caída libre
+        if (magnitude < freeFallThreshold) {
+            if (!isInFreeFall) {
+                isInFreeFall = true;
+                freeFallStartTime = eventTime;
+                if (listener != null) {
+                    listener.onFreeFallCandidate();
+                }
+            }
+        } else {
+            // Detectar impacto después de caída libre
+            if (isInFreeFall && magnitude > impactThreshold) {
+                long fallDuration = SensorClock.nanosToMillis(eventTime - freeFallStartTime);
+                
+                // Verificar que la caída libre duró lo suficiente (500 ms por defecto)
+                if (fallDuration >= minFreeFallDuration && fallDuration <= fallDetectionWindow) {
+                    if (listener != null) {
+                        listener.onFallDetected();
+                    }
+                }
+            }
+            isInFreeFall = false;
+        }
+    }
+    
+    public void reset() {
+        isInFreeFall = false;
+        freeFallStartTime = 0;
+    }
+}
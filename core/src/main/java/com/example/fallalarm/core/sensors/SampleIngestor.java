@@ -0,0 +1,123 @@
+package com.example.fallalarm.core.sensors;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ingesta de muestras independiente de la plataforma
+ * Recibe los ejes crudos y la marca de tiempo de cada evento, calcula los valores derivados
+ * (gravedad, aceleración lineal y magnitudes), avanza el reloj de eventos y reparte la muestra
+ * a todos los detectores. En Android la alimenta SensorPipeline; en la JVM, pruebas o trazas.
+ */
+public class SampleIngestor {
+    
+    private static final float GRAVITY_ALPHA = 0.8f;
+    
+    private final List<SensorSampleListener> listeners = new ArrayList<>();
+    private final SensorClock clock = new SensorClock();
+    
+    private final float[] values = new float[3];
+    private final float[] gravity = new float[3];
+    private final float[] linearAcceleration = new float[3];
+    
+    public interface SensorSampleListener {
+        void onSensorSample(SensorSample sample);
+    }
+    
+    /**
+     * Agrega un consumidor de muestras; debe llamarse antes de empezar la ingesta
+     */
+    public void addListener(SensorSampleListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Reloj de eventos compartido por todos los detectores; avanza antes de repartir cada muestra
+     */
+    public SensorClock getClock() {
+        return clock;
+    }
+    
+    public void onAccelerometer(long timestampNanos, float x, float y, float z) {
+        clock.advanceTo(timestampNanos);
+        values[0] = x;
+        values[1] = y;
+        values[2] = z;
+        
+        // Aislar la fuerza de la gravedad con el filtro paso bajo
+        gravity[0] = GRAVITY_ALPHA * gravity[0] + (1 - GRAVITY_ALPHA) * x;
+        gravity[1] = GRAVITY_ALPHA * gravity[1] + (1 - GRAVITY_ALPHA) * y;
+        gravity[2] = GRAVITY_ALPHA * gravity[2] + (1 - GRAVITY_ALPHA) * z;
+        
+        // Remover la contribución de la gravedad
+        linearAcceleration[0] = x - gravity[0];
+        linearAcceleration[1] = y - gravity[1];
+        linearAcceleration[2] = z - gravity[2];
+        
+        dispatch(SensorSample.accelerometer(timestampNanos, values, magnitude(values),
+            linearAcceleration, magnitude(linearAcceleration)));
+    }
+    
+    public void onGyroscope(long timestampNanos, float x, float y, float z) {
+        clock.advanceTo(timestampNanos);
+        values[0] = x;
+        values[1] = y;
+        values[2] = z;
+        dispatch(SensorSample.gyroscope(timestampNanos, values, magnitude(values)));
+    }
+    
+    /**
+     * Reparte una muestra con los valores derivados ya calculados (p. ej. de un flujo en caché)
+     * sin volver a pasar por el filtro de gravedad
+     */
+    public void onSample(SensorSample sample) {
+        clock.advanceTo(sample.getTimestampNanos());
+        dispatch(sample);
+    }
+    
+    /**
+     * Reinicia el filtro de gravedad y el reloj (p. ej. al reproducir una traza nueva)
+     */
+    public void reset() {
+        for (int i = 0; i < 3; i++) {
+            gravity[i] = 0.0f;
+            linearAcceleration[i] = 0.0f;
+        }
+        clock.reset();
+    }
+    
+    /**
+     * Guarda la estimación de gravedad y el reloj; sin ellos la primera muestra tras un reinicio
+     * parece un pico de aceleración lineal de casi 1 g
+     */
+    public void saveState(ByteBuffer out) {
+        for (int i = 0; i < 3; i++) {
+            out.putFloat(gravity[i]);
+        }
+        out.putLong(clock.nowNanos());
+    }
+    
+    public void restoreState(ByteBuffer in, long timeShiftNanos) {
+        float[] storedGravity = new float[3];
+        for (int i = 0; i < 3; i++) {
+            storedGravity[i] = in.getFloat();
+        }
+        long storedNow = in.getLong();
+        System.arraycopy(storedGravity, 0, gravity, 0, 3);
+        clock.reset();
+        if (storedNow > 0) {
+            clock.advanceTo(storedNow + timeShiftNanos);
+        }
+    }
+    
+    private void dispatch(SensorSample sample) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onSensorSample(sample);
+        }
+    }
+    
+    private static float magnitude(float[] v) {
+        return (float) Math.sqrt(v[0] * v[0] + v[1] * v[1] + v[2] * v[2]);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.fallalarm.core.sensors;
+
+import com.example.fallalarm.core.util.WindowedStatistics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Controlador adaptativo de la frecuencia de muestreo
+ * Baja a una frecuencia mínima mientras el dispositivo está en reposo y sube a la frecuencia
+ * de juego cuando la varianza de la aceleración lineal supera el umbral de activación.
+ * Usa histéresis (umbrales distintos y tiempo mínimo en calma) para no oscilar.
+ */
+public class SamplingRateController implements SampleIngestor.SensorSampleListener {
+    
+    private static final int VARIANCE_WINDOW = 16;
+    private static final float WAKE_VARIANCE = 0.5f; // (m/s²)² - Umbral para pasar a ACTIVE
+    private static final float WAKE_MAGNITUDE = 3.0f; // m/s² - Un solo pico también despierta
+    private static final float REST_VARIANCE = 0.1f; // (m/s²)² - Umbral para volver a REST
+    private static final long REST_DWELL_NANOS = 30_000_000_000L; // 30 s en calma antes de bajar
+    
+    public enum State {
+        REST,
+        ACTIVE
+    }
+    
+    public interface RateChangeListener {
+        void onSamplingStateChanged(State state);
+    }
+    
+    private final RateChangeListener listener;
+    private final WindowedStatistics linearMagnitudes = new WindowedStatistics(VARIANCE_WINDOW);
+    private State state = State.ACTIVE;
+    private long calmSince = -1;
+    private long lastTimestamp = 0;
+    
+    // Contadores de permanencia por estado para cuantificar el ahorro
+    private final long[] residencyNanos = new long[State.values().length];
+    private int transitionCount = 0;
+    
+    public SamplingRateController(RateChangeListener listener) {
+        this.listener = listener;
+    }
+    
+    @Override
+    public void onSensorSample(SensorSample sample) {
+        if (!sample.isAccelerometer()) {
+            return;
+        }
+        long timestamp = sample.getTimestampNanos();
+        if (lastTimestamp != 0 && timestamp > lastTimestamp) {
+            residencyNanos[state.ordinal()] += timestamp - lastTimestamp;
+        }
+        lastTimestamp = timestamp;
+        
+        float magnitude = sample.getLinearMagnitude();
+        linearMagnitudes.add(timestamp, magnitude);
+        float variance = linearMagnitudes.getVariance();
+        
+        if (state == State.REST) {
+            if (variance > WAKE_VARIANCE || magnitude > WAKE_MAGNITUDE) {
+                transitionTo(State.ACTIVE);
+            }
+        } else if (linearMagnitudes.isFull() && variance < REST_VARIANCE) {
+            if (calmSince < 0) {
+                calmSince = timestamp;
+            } else if (timestamp - calmSince >= REST_DWELL_NANOS) {
+                transitionTo(State.REST);
+            }
+        } else {
+            calmSince = -1;
+        }
+    }
+    
+    private void transitionTo(State newState) {
+        state = newState;
+        calmSince = -1;
+        transitionCount++;
+        if (listener != null) {
+            listener.onSamplingStateChanged(newState);
+        }
+    }
+    
+    /**
+     * Guarda estado, inicio de la calma y ventana de varianza (no los contadores de permanencia)
+     */
+    public void saveState(ByteBuffer out) {
+        out.put((byte) state.ordinal());
+        out.putLong(calmSince);
+        out.putLong(lastTimestamp);
+        linearMagnitudes.writeTo(out);
+    }
+    
+    /**
+     * Restaura lo guardado con {@link #saveState} sin avisar al listener: el llamador aplica
+     * {@link #getState()} al registrar los sensores
+     */
+    public void restoreState(ByteBuffer in, long timeShiftNanos) {
+        int storedState = in.get();
+        if (storedState < 0 || storedState >= State.values().length) {
+            throw new IllegalArgumentException("Estado desconocido: " + storedState);
+        }
+        long storedCalmSince = in.getLong();
+        long storedLastTimestamp = in.getLong();
+        linearMagnitudes.readFrom(in, timeShiftNanos);
+        state = State.values()[storedState];
+        calmSince = storedCalmSince < 0 ? -1 : storedCalmSince + timeShiftNanos;
+        lastTimestamp = storedLastTimestamp == 0 ? 0 : storedLastTimestamp + timeShiftNanos;
+    }
+    
+    /**
+     * Vuelve al estado inicial (ACTIVE, ventana vacía) sin avisar al listener; los contadores de
+     * permanencia se conservan
+     */
+    public void reset() {
+        linearMagnitudes.clear();
+        state = State.ACTIVE;
+        calmSince = -1;
+        lastTimestamp = 0;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    public long getResidencyNanos(State state) {
+        return residencyNanos[state.ordinal()];
+    }
+    
+    public int getTransitionCount() {
+        return transitionCount;
+    }
+}
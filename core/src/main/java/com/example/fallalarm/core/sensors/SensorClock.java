@@ -0,0 +1,46 @@
+package com.example.fallalarm.core.sensors;
+
+/**
+ * Reloj de detección en el dominio de las marcas de tiempo del sensor (elapsedRealtimeNanos)
+ * Avanza únicamente con los eventos recibidos, por lo que las ventanas de detección no dependen
+ * del retraso de entrega, de la agrupación por hardware ni de la carga del hilo de sensores.
+ * Es monótono aunque acelerómetro y giroscopio entreguen sus eventos ligeramente desordenados.
+ */
+public final class SensorClock {
+    
+    public static final long NANOS_PER_MILLI = 1_000_000L;
+    
+    private long nowNanos = 0;
+    
+    /**
+     * Avanza el reloj hasta la marca de tiempo de un evento; nunca retrocede
+     */
+    public void advanceTo(long timestampNanos) {
+        if (timestampNanos > nowNanos) {
+            nowNanos = timestampNanos;
+        }
+    }
+    
+    /**
+     * Marca de tiempo del evento más reciente procesado
+     */
+    public long nowNanos() {
+        return nowNanos;
+    }
+    
+    public long elapsedNanosSince(long timestampNanos) {
+        return nowNanos - timestampNanos;
+    }
+    
+    public void reset() {
+        nowNanos = 0;
+    }
+    
+    public static long millisToNanos(long millis) {
+        return millis * NANOS_PER_MILLI;
+    }
+    
+    public static long nanosToMillis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.fallalarm.core.sensors;
+
+/**
+ * Muestra inmutable de un sensor con los valores derivados ya calculados
+ * Se calcula una sola vez por evento y se comparte entre todos los detectores
+ */
+public final class SensorSample {
+    
+    public static final int TYPE_ACCELEROMETER = 1;
+    public static final int TYPE_GYROSCOPE = 4;
+    
+    private final int type;
+    private final long timestampNanos;
+    private final float x;
+    private final float y;
+    private final float z;
+    private final float magnitude;
+    private final float linearX;
+    private final float linearY;
+    private final float linearZ;
+    private final float linearMagnitude;
+    
+    private SensorSample(int type, long timestampNanos, float x, float y, float z, float magnitude,
+                         float linearX, float linearY, float linearZ, float linearMagnitude) {
+        this.type = type;
+        this.timestampNanos = timestampNanos;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.magnitude = magnitude;
+        this.linearX = linearX;
+        this.linearY = linearY;
+        this.linearZ = linearZ;
+        this.linearMagnitude = linearMagnitude;
+    }
+    
+    /**
+     * Muestra de acelerómetro con la aceleración lineal (sin gravedad) ya calculada
+     */
+    public static SensorSample accelerometer(long timestampNanos, float[] values, float magnitude,
+                                             float[] linearAcceleration, float linearMagnitude) {
+        return new SensorSample(TYPE_ACCELEROMETER, timestampNanos,
+            values[0], values[1], values[2], magnitude,
+            linearAcceleration[0], linearAcceleration[1], linearAcceleration[2], linearMagnitude);
+    }
+    
+    /**
+     * Muestra de giroscopio; no tiene componente lineal
+     */
+    public static SensorSample gyroscope(long timestampNanos, float[] values, float magnitude) {
+        return new SensorSample(TYPE_GYROSCOPE, timestampNanos,
+            values[0], values[1], values[2], magnitude, 0.0f, 0.0f, 0.0f, 0.0f);
+    }
+    
+    public int getType() { return type; }
+    public boolean isAccelerometer() { return type == TYPE_ACCELEROMETER; }
+    public boolean isGyroscope() { return type == TYPE_GYROSCOPE; }
+    public long getTimestampNanos() { return timestampNanos; }
+    public float getX() { return x; }
+    public float getY() { return y; }
+    public float getZ() { return z; }
+    public float getMagnitude() { return magnitude; }
+    public float getLinearX() { return linearX; }
+    public float getLinearY() { return linearY; }
+    public float getLinearZ() { return linearZ; }
+    public float getLinearMagnitude() { return linearMagnitude; }
+}
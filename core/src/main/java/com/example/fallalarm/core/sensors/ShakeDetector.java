@@ -0,0 +1,109 @@
+package com.example.fallalarm.core.sensors;
+
+import com.example.fallalarm.core.config.DetectorConfig;
+
+/**
+ * Detector de sacudidas basado en acelerómetro
+ * Detecta movimientos bruscos y violentos del dispositivo
+ */
+public class ShakeDetector implements SampleIngestor.SensorSampleListener {
+    
+    // Umbrales del perfil activo (ver DetectorConfig); solo los toca el hilo de sensores
+    private DetectorConfig config;
+    private float shakeThreshold;
+    private long shakeWindow;
+    private int minShakeCount;
+    // Perfil publicado desde otro hilo; se adopta cuando no hay una serie de sacudidas abierta
+    private volatile DetectorConfig pendingConfig;
+    
+    private ShakeDetectionListener listener;
+    private final SensorClock clock;
+    private long lastShakeTime = 0;
+    private int shakeCount = 0;
+    
+    public interface ShakeDetectionListener {
+        void onShakeDetected();
+        
+        /**
+         * Primera sacudida fuerte de una posible secuencia; conviene recibir el resto sin demora
+         */
+        void onShakeCandidate();
+    }
+    
+    public ShakeDetector(ShakeDetectionListener listener, SensorClock clock) {
+        this(listener, clock, DetectorConfig.DEFAULT);
+    }
+    
+    public ShakeDetector(ShakeDetectionListener listener, SensorClock clock, DetectorConfig config) {
+        this.listener = listener;
+        this.clock = clock;
+        this.pendingConfig = config;
+        applyConfig(config);
+    }
+    
+    /**
+     * Publica un nuevo perfil sin bloquear; se adopta en la próxima muestra sin serie en curso
+     */
+    public void setConfig(DetectorConfig config) {
+        pendingConfig = config;
+    }
+    
+    private void applyConfig(DetectorConfig config) {
+        this.config = config;
+        shakeThreshold = config.getShakeThreshold();
+        shakeWindow = config.getShakeWindowMs();
+        minShakeCount = config.getMinShakeCount();
+    }
+    
+    @Override
+    public void onSensorSample(SensorSample sample) {
+        if (sample.isAccelerometer()) {
+            // La aceleración lineal (sin gravedad) ya viene calculada por el pipeline
+            processAccelerometerData(sample.getLinearMagnitude());
+        }
+    }
+    
+    /**
+     * Los tiempos se miden con el reloj de eventos del sensor, no con la hora de entrega
+     */
+    private void processAccelerometerData(float magnitude) {
+        long currentTime = SensorClock.nanosToMillis(clock.nowNanos());
+        
+        DetectorConfig pending = pendingConfig;
+        if (pending != config && shakeCount == 0) {
+            applyConfig(pending);
+        }
+        
+        // Detectar sacudida fuerte
+        if (magnitude > shakeThreshold) {
+            if (currentTime - lastShakeTime < shakeWindow) {
+                shakeCount++;
+            } else {
+                shakeCount = 1;
+                if (listener != null) {
+                    listener.onShakeCandidate();
+                }
+            }
+            
+            lastShakeTime = currentTime;
+            
+            // Si hay suficientes sacudidas en el tiempo de ventana
+            if (shakeCount >= minShakeCount) {
+                if (listener != null) {
+                    listener.onShakeDetected();
+                }
+                shakeCount = 0; // Reset para evitar múltiples detecciones
+            }
+        } else {
+            // Reset del contador si no hay movimiento
+            if (currentTime - lastShakeTime > shakeWindow) {
+                shakeCount = 0;
+            }
+        }
+    }
+    
+    public void reset() {
+        shakeCount = 0;
+        lastShakeTime = 0;
+    }
+}
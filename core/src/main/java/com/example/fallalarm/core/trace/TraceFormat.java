@@ -0,0 +1,101 @@
+package com.example.fallalarm.core.trace;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Formato binario de las trazas de sensores
+ *
+ * Archivo: cabecera de {@link #FILE_HEADER_SIZE} bytes seguida de bloques de tamaño fijo.
+ *   0  int   magic ("FATR")
+ *   4  short versión
+ *   8  int   tamaño de bloque
+ *   12 int   número de bloques
+ *
+ * Bloque: cabecera de {@link #BLOCK_HEADER_SIZE} bytes y registros codificados.
+ *   0  long  secuencia (0 = bloque vacío o a medio sobrescribir)
+ *   8  long  marca de tiempo del primer registro (ns)
+ *   16 long  marca de tiempo del último registro (ns)
+ *   24 int   bytes de registros usados
+ *   28 int   número de registros
+ *
+ * Registro: byte de tipo, varint zigzag del delta de tiempo respecto al registro anterior del
+ * bloque y tres varint zigzag con el delta de cada eje cuantizado respecto a la muestra anterior
+ * del mismo sensor en el bloque. Cada bloque se decodifica por sí solo.
+ */
+public final class TraceFormat {
+    
+    public static final int MAGIC = 0x46415452; // "FATR"
+    public static final short VERSION = 1;
+    
+    public static final int FILE_HEADER_SIZE = 32;
+    public static final int BLOCK_HEADER_SIZE = 32;
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+    // Tipo + delta de tiempo + tres ejes en el peor caso
+    public static final int MAX_RECORD_SIZE = 1 + 10 + 3 * 5;
+    
+    public static final byte TYPE_ACCELEROMETER = 0;
+    public static final byte TYPE_GYROSCOPE = 1;
+    
+    // Resolución de la cuantización: 1 mm/s² y 0.1 mrad/s
+    public static final float ACCELEROMETER_SCALE = 1000.0f;
+    public static final float GYROSCOPE_SCALE = 10000.0f;
+    
+    static final int BLOCK_SEQUENCE = 0;
+    static final int BLOCK_FIRST_TIMESTAMP = 8;
+    static final int BLOCK_LAST_TIMESTAMP = 16;
+    static final int BLOCK_USED_BYTES = 24;
+    static final int BLOCK_RECORD_COUNT = 28;
+    
+    private TraceFormat() {
+    }
+    
+    static float scaleFor(int type) {
+        return type == TYPE_ACCELEROMETER ? ACCELEROMETER_SCALE : GYROSCOPE_SCALE;
+    }
+    
+    static void putFileHeader(ByteBuffer buffer, int blockSize, int blockCount) {
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putInt(8, blockSize);
+        buffer.putInt(12, blockCount);
+    }
+    
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    /**
+     * Escribe un varint sin signo en la posición indicada y devuelve la posición siguiente
+     */
+    static int putVarint(ByteBuffer buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put(position++, (byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put(position++, (byte) value);
+        return position;
+    }
+    
+    /**
+     * Lee un varint sin signo desde la posición actual del buffer
+     */
+    static long getVarint(ByteBuffer buffer) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalStateException("Varint corrupto en la traza");
+            }
+        }
+    }
+}
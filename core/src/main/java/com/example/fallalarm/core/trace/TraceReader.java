@@ -0,0 +1,110 @@
+package com.example.fallalarm.core.trace;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Lector de trazas (archivo circular o copia de incidente)
+ * Entrega las muestras en el orden en que se grabaron, bloque por bloque según su secuencia.
+ */
+public final class TraceReader {
+    
+    public interface SampleSink {
+        void onAccelerometer(long timestampNanos, float x, float y, float z);
+        void onGyroscope(long timestampNanos, float x, float y, float z);
+    }
+    
+    private TraceReader() {
+    }
+    
+    /**
+     * Lee un archivo de traza completo y devuelve el número de muestras entregadas
+     */
+    public static int read(File source, SampleSink sink) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(source, "r");
+             FileChannel channel = file.getChannel()) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), sink);
+        }
+    }
+    
+    public static int read(ByteBuffer data, SampleSink sink) throws IOException {
+        if (data.limit() < TraceFormat.FILE_HEADER_SIZE
+                || data.getInt(0) != TraceFormat.MAGIC
+                || data.getShort(4) != TraceFormat.VERSION) {
+            throw new IOException("Formato de traza no reconocido");
+        }
+        int blockSize = data.getInt(8);
+        int blockCount = data.getInt(12);
+        if (blockSize <= TraceFormat.BLOCK_HEADER_SIZE || blockCount < 0
+                || TraceFormat.FILE_HEADER_SIZE + (long) blockSize * blockCount > data.limit()) {
+            throw new IOException("Cabecera de traza inválida");
+        }
+        
+        // Ordenar los bloques válidos por secuencia (secuencia en los bits altos, ranura en los bajos)
+        long[] order = new long[blockCount];
+        int valid = 0;
+        for (int slot = 0; slot < blockCount; slot++) {
+            long sequence = data.getLong(offsetOf(slot, blockSize) + TraceFormat.BLOCK_SEQUENCE);
+            if (sequence > 0) {
+                order[valid++] = (sequence << 24) | slot;
+            }
+        }
+        Arrays.sort(order, 0, valid);
+        
+        int samples = 0;
+        ByteBuffer cursor = data.duplicate();
+        for (int i = 0; i < valid; i++) {
+            int slot = (int) (order[i] & 0xFFFFFF);
+            samples += readBlock(cursor, offsetOf(slot, blockSize), blockSize, sink);
+        }
+        return samples;
+    }
+    
+    private static int readBlock(ByteBuffer cursor, int offset, int blockSize, SampleSink sink) throws IOException {
+        int used = cursor.getInt(offset + TraceFormat.BLOCK_USED_BYTES);
+        int count = cursor.getInt(offset + TraceFormat.BLOCK_RECORD_COUNT);
+        if (used < 0 || used > blockSize - TraceFormat.BLOCK_HEADER_SIZE) {
+            throw new IOException("Bloque de traza corrupto");
+        }
+        long timestamp = cursor.getLong(offset + TraceFormat.BLOCK_FIRST_TIMESTAMP);
+        int[][] previous = new int[2][3];
+        ((Buffer) cursor).limit(offset + TraceFormat.BLOCK_HEADER_SIZE + used);
+        ((Buffer) cursor).position(offset + TraceFormat.BLOCK_HEADER_SIZE);
+        try {
+            for (int i = 0; i < count; i++) {
+                byte type = cursor.get();
+                if (type != TraceFormat.TYPE_ACCELEROMETER && type != TraceFormat.TYPE_GYROSCOPE) {
+                    throw new IOException("Tipo de registro desconocido: " + type);
+                }
+                timestamp += TraceFormat.unzigzag(TraceFormat.getVarint(cursor));
+                int[] values = previous[type];
+                for (int axis = 0; axis < 3; axis++) {
+                    values[axis] += (int) TraceFormat.unzigzag(TraceFormat.getVarint(cursor));
+                }
+                float scale = TraceFormat.scaleFor(type);
+                float x = values[0] / scale;
+                float y = values[1] / scale;
+                float z = values[2] / scale;
+                if (type == TraceFormat.TYPE_ACCELEROMETER) {
+                    sink.onAccelerometer(timestamp, x, y, z);
+                } else {
+                    sink.onGyroscope(timestamp, x, y, z);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Bloque de traza truncado", e);
+        } finally {
+            ((Buffer) cursor).limit(cursor.capacity());
+        }
+        return count;
+    }
+    
+    private static int offsetOf(int slot, int blockSize) {
+        return TraceFormat.FILE_HEADER_SIZE + slot * blockSize;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.fallalarm.core.trace;
+
+import com.example.fallalarm.core.sensors.SampleIngestor;
+import com.example.fallalarm.core.sensors.SensorSample;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Grabador de trazas en un archivo circular de tamaño fijo mapeado en memoria
+ * Cada muestra se codifica directamente en el mapeo (sin objetos ni cadenas) y el sistema
+ * escribe las páginas a disco por su cuenta: nunca se llama a fsync desde el hilo de sensores.
+ * Al llenarse, el bloque más antiguo se sobrescribe. Debe usarse desde un único hilo.
+ */
+public class TraceRingWriter implements SampleIngestor.SensorSampleListener, Closeable {
+    
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int blockSize;
+    private final int blockCount;
+    
+    private long sequence = 0; // Secuencia del bloque actual
+    private int blockOffset = -1;
+    private int position = 0;
+    private int recordCount = 0;
+    private long previousTimestamp = 0;
+    private final int[][] previousValues = new int[2][3];
+    
+    private TraceRingWriter(RandomAccessFile file, int blockSize, int blockCount) throws IOException {
+        this.file = file;
+        this.channel = file.getChannel();
+        this.blockSize = blockSize;
+        this.blockCount = blockCount;
+        long length = TraceFormat.FILE_HEADER_SIZE + (long) blockSize * blockCount;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+    }
+    
+    /**
+     * Abre (o crea) el archivo circular con la capacidad indicada; si ya existía con la misma
+     * geometría se continúa tras su último bloque para conservar el historial anterior
+     */
+    public static TraceRingWriter open(File target, int capacityBytes) throws IOException {
+        int blockSize = TraceFormat.DEFAULT_BLOCK_SIZE;
+        int blockCount = Math.max(2, (capacityBytes - TraceFormat.FILE_HEADER_SIZE) / blockSize);
+        RandomAccessFile file = new RandomAccessFile(target, "rw");
+        try {
+            TraceRingWriter writer = new TraceRingWriter(file, blockSize, blockCount);
+            writer.initialize();
+            return writer;
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+    
+    private void initialize() {
+        boolean compatible = buffer.getInt(0) == TraceFormat.MAGIC
+            && buffer.getShort(4) == TraceFormat.VERSION
+            && buffer.getInt(8) == blockSize
+            && buffer.getInt(12) == blockCount;
+        if (!compatible) {
+            TraceFormat.putFileHeader(buffer, blockSize, blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                buffer.putLong(offsetOfSlot(i) + TraceFormat.BLOCK_SEQUENCE, 0L);
+            }
+            return;
+        }
+        for (int i = 0; i < blockCount; i++) {
+            sequence = Math.max(sequence, buffer.getLong(offsetOfSlot(i) + TraceFormat.BLOCK_SEQUENCE));
+        }
+    }
+    
+    @Override
+    public void onSensorSample(SensorSample sample) {
+        byte type;
+        if (sample.isAccelerometer()) {
+            type = TraceFormat.TYPE_ACCELEROMETER;
+        } else if (sample.isGyroscope()) {
+            type = TraceFormat.TYPE_GYROSCOPE;
+        } else {
+            return;
+        }
+        write(type, sample.getTimestampNanos(), sample.getX(), sample.getY(), sample.getZ());
+    }
+    
+    public void write(byte type, long timestampNanos, float x, float y, float z) {
+        if (blockOffset < 0 || position + TraceFormat.MAX_RECORD_SIZE > blockOffset + blockSize) {
+            startBlock(timestampNanos);
+        }
+        
+        int p = position;
+        buffer.put(p++, type);
+        p = TraceFormat.putVarint(buffer, p, TraceFormat.zigzag(timestampNanos - previousTimestamp));
+        float scale = TraceFormat.scaleFor(type);
+        int[] previous = previousValues[type];
+        p = putAxis(p, previous, 0, Math.round(x * scale));
+        p = putAxis(p, previous, 1, Math.round(y * scale));
+        p = putAxis(p, previous, 2, Math.round(z * scale));
+        
+        position = p;
+        previousTimestamp = timestampNanos;
+        recordCount++;
+        buffer.putLong(blockOffset + TraceFormat.BLOCK_LAST_TIMESTAMP, timestampNanos);
+        buffer.putInt(blockOffset + TraceFormat.BLOCK_USED_BYTES, p - blockOffset - TraceFormat.BLOCK_HEADER_SIZE);
+        buffer.putInt(blockOffset + TraceFormat.BLOCK_RECORD_COUNT, recordCount);
+    }
+    
+    private int putAxis(int p, int[] previous, int axis, int quantized) {
+        int next = TraceFormat.putVarint(buffer, p, TraceFormat.zigzag((long) quantized - previous[axis]));
+        previous[axis] = quantized;
+        return next;
+    }
+    
+    private void startBlock(long timestampNanos) {
+        sequence++;
+        blockOffset = offsetOfSlot((int) ((sequence - 1) % blockCount));
+        // Se invalida el bloque antes de sobrescribirlo para que un lector nunca lo mezcle
+        buffer.putLong(blockOffset + TraceFormat.BLOCK_SEQUENCE, 0L);
+        buffer.putLong(blockOffset + TraceFormat.BLOCK_FIRST_TIMESTAMP, timestampNanos);
+        buffer.putLong(blockOffset + TraceFormat.BLOCK_LAST_TIMESTAMP, timestampNanos);
+        buffer.putInt(blockOffset + TraceFormat.BLOCK_USED_BYTES, 0);
+        buffer.putInt(blockOffset + TraceFormat.BLOCK_RECORD_COUNT, 0);
+        buffer.putLong(blockOffset + TraceFormat.BLOCK_SEQUENCE, sequence);
+        
+        position = blockOffset + TraceFormat.BLOCK_HEADER_SIZE;
+        recordCount = 0;
+        previousTimestamp = timestampNanos;
+        for (int[] values : previousValues) {
+            values[0] = 0;
+            values[1] = 0;
+            values[2] = 0;
+        }
+    }
+    
+    private int offsetOfSlot(int slot) {
+        return TraceFormat.FILE_HEADER_SIZE + slot * blockSize;
+    }
+    
+    /**
+     * Copia los bloques que contienen muestras desde {@code sinceNanos} en una traza independiente
+     * Es barato (memcpy de unos pocos bloques) y debe llamarse desde el hilo que escribe.
+     * La secuencia sobrevive a un reinicio del dispositivo pero elapsedRealtimeNanos no: el
+     * recorrido hacia atrás se detiene en el primer bloque que termina después de que empiece
+     * el siguiente, porque es de un arranque anterior.
+     */
+    public byte[] copyRecent(long sinceNanos) {
+        int count = 0;
+        long oldest = Math.max(1, sequence - blockCount + 1);
+        long newerFirstTimestamp = Long.MAX_VALUE;
+        for (long s = sequence; s >= oldest; s--) {
+            int offset = offsetOfSlot((int) ((s - 1) % blockCount));
+            long lastTimestamp = buffer.getLong(offset + TraceFormat.BLOCK_LAST_TIMESTAMP);
+            if (buffer.getLong(offset + TraceFormat.BLOCK_SEQUENCE) != s
+                    || lastTimestamp < sinceNanos
+                    || lastTimestamp > newerFirstTimestamp) {
+                break;
+            }
+            newerFirstTimestamp = buffer.getLong(offset + TraceFormat.BLOCK_FIRST_TIMESTAMP);
+            count++;
+        }
+        
+        byte[] snapshot = new byte[TraceFormat.FILE_HEADER_SIZE + count * blockSize];
+        ByteBuffer out = ByteBuffer.wrap(snapshot);
+        TraceFormat.putFileHeader(out, blockSize, count);
+        // Se usan los métodos de Buffer: las versiones covariantes de ByteBuffer no existen en
+        // las API de Android anteriores a la 29
+        ((Buffer) out).position(TraceFormat.FILE_HEADER_SIZE);
+        ByteBuffer source = buffer.duplicate();
+        for (long s = sequence - count + 1; s <= sequence; s++) {
+            int offset = offsetOfSlot((int) ((s - 1) % blockCount));
+            ((Buffer) source).limit(offset + blockSize);
+            ((Buffer) source).position(offset);
+            out.put(source);
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Guarda una copia en disco de forma atómica (archivo temporal + renombrado)
+     * Hace fsync, por lo que debe llamarse fuera del hilo de sensores.
+     */
+    public static void writeSnapshot(File target, byte[] snapshot) throws IOException {
+        File temporary = new File(target.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temporary)) {
+            out.write(snapshot);
+            out.getFD().sync();
+        }
+        if (!temporary.renameTo(target)) {
+            throw new IOException("No se pudo renombrar " + temporary + " a " + target);
+        }
+    }
+    
+    public int getBlockCount() {
+        return blockCount;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        file.close();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.fallalarm.core.util;
+
+/**
+ * Registro de mensajes del núcleo de detección sin depender de android.util.Log
+ * Cada plataforma instala su destino (Logcat en la app, consola o nada en JVM y backend).
+ * Por defecto los mensajes se descartan.
+ */
+public final class DetectionLog {
+    
+    public static final int DEBUG = 3;
+    public static final int INFO = 4;
+    public static final int WARN = 5;
+    public static final int ERROR = 6;
+    
+    public interface Sink {
+        void log(int level, String tag, String message, Throwable error);
+    }
+    
+    private static volatile Sink sink = null;
+    
+    private DetectionLog() {
+    }
+    
+    public static void setSink(Sink newSink) {
+        sink = newSink;
+    }
+    
+    public static void d(String tag, String message) {
+        write(DEBUG, tag, message, null);
+    }
+    
+    public static void i(String tag, String message) {
+        write(INFO, tag, message, null);
+    }
+    
+    public static void w(String tag, String message) {
+        write(WARN, tag, message, null);
+    }
+    
+    public static void e(String tag, String message, Throwable error) {
+        write(ERROR, tag, message, error);
+    }
+    
+    public static void println(int level, String tag, String message) {
+        write(level, tag, message, null);
+    }
+    
+    private static void write(int level, String tag, String message, Throwable error) {
+        Sink current = sink;
+        if (current != null) {
+            current.log(level, tag, message, error);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.fallalarm.core.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Anillo sin bloqueos de registros binarios de tamaño fijo (marca de tiempo, código, argumento
+ * entero y valor float), reservado al construirlo
+ * Varios hilos pueden escribir; un único hilo consume. Si el consumidor se atrasa, los registros
+ * más viejos se sobrescriben (como un registrador de vuelo) y se cuentan como perdidos.
+ */
+public final class EventRing {
+    
+    public interface RecordConsumer {
+        void onRecord(long timestampNanos, int code, int arg, float value);
+    }
+    
+    private static final long WRITING = -1L;
+    
+    private final int mask;
+    // Por ranura: índice del registro publicado, o WRITING mientras se escribe
+    private final AtomicLongArray sequences;
+    // Por ranura: marca de tiempo y (código << 48 | argumento << 32 | bits del float)
+    private final AtomicLongArray data;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+    private long head = 0; // Solo lo usa el consumidor
+    
+    /**
+     * @param capacity potencia de dos
+     */
+    public EventRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("La capacidad debe ser una potencia de dos: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.data = new AtomicLongArray(capacity * 2);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i - (long) capacity); // Ninguna ranura publicada todavía
+        }
+    }
+    
+    /**
+     * Escribe un registro sin reservar memoria; código y argumento se guardan en 16 bits
+     */
+    public void record(long timestampNanos, int code, int arg, float value) {
+        long index = tail.getAndIncrement();
+        int slot = (int) index & mask;
+        sequences.set(slot, WRITING);
+        data.set(slot * 2, timestampNanos);
+        data.set(slot * 2 + 1, ((long) (code & 0xFFFF) << 48) | ((long) (arg & 0xFFFF) << 32)
+                | (Float.floatToRawIntBits(value) & 0xFFFFFFFFL));
+        sequences.set(slot, index);
+    }
+    
+    /**
+     * Entrega en orden los registros publicados desde la última llamada; se detiene ante uno que
+     * aún se está escribiendo. Devuelve cuántos se entregaron.
+     */
+    public int drain(RecordConsumer consumer) {
+        int delivered = 0;
+        long end = tail.get();
+        if (end - head > sequences.length()) {
+            lost.addAndGet(end - head - sequences.length());
+            head = end - sequences.length();
+        }
+        while (head < end) {
+            int slot = (int) head & mask;
+            long sequence = sequences.get(slot);
+            if (sequence == WRITING || sequence < head) {
+                break; // Escritura en curso: se retoma en el próximo drenaje
+            }
+            long timestamp = data.get(slot * 2);
+            long payload = data.get(slot * 2 + 1);
+            if (sequence > head || sequences.get(slot) != head) {
+                lost.incrementAndGet(); // Sobrescrito mientras se leía
+            } else {
+                consumer.onRecord(timestamp, (int) (payload >>> 48), (short) (payload >>> 32),
+                        Float.intBitsToFloat((int) payload));
+                delivered++;
+            }
+            head++;
+        }
+        return delivered;
+    }
+    
+    /**
+     * Registros sobrescritos antes de ser consumidos
+     */
+    public long getLost() {
+        return lost.get();
+    }
+    
+    public int capacity() {
+        return sequences.length();
+    }
+}
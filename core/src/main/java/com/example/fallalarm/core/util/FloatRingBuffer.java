@@ -0,0 +1,138 @@
+package com.example.fallalarm.core.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Buffer circular de capacidad fija con varios canales float y un canal de marcas de tiempo
+ * Los datos se guardan intercalados en un único arreglo primitivo; agregar muestras no reserva memoria
+ */
+public class FloatRingBuffer {
+    
+    private final int capacity;
+    private final int channels;
+    private final float[] data;
+    private final long[] timestamps;
+    private int head = 0; // Posición de la muestra más antigua
+    private int size = 0;
+    
+    public FloatRingBuffer(int capacity, int channels) {
+        if (capacity <= 0 || channels <= 0) {
+            throw new IllegalArgumentException("Capacidad y canales deben ser positivos");
+        }
+        this.capacity = capacity;
+        this.channels = channels;
+        this.data = new float[capacity * channels];
+        this.timestamps = new long[capacity];
+    }
+    
+    /**
+     * Agrega una muestra de un solo canal, descartando la más antigua si está lleno
+     */
+    public void add(long timestamp, float value) {
+        data[claimSlot(timestamp) * channels] = value;
+    }
+    
+    /**
+     * Agrega una muestra copiando los primeros {@code channels} valores del arreglo
+     */
+    public void add(long timestamp, float[] values) {
+        System.arraycopy(values, 0, data, claimSlot(timestamp) * channels, channels);
+    }
+    
+    private int claimSlot(long timestamp) {
+        int slot;
+        if (size < capacity) {
+            slot = head + size;
+            if (slot >= capacity) slot -= capacity;
+            size++;
+        } else {
+            slot = head;
+            head++;
+            if (head == capacity) head = 0;
+        }
+        timestamps[slot] = timestamp;
+        return slot;
+    }
+    
+    /**
+     * Valor del canal indicado; el índice 0 es la muestra más antigua
+     */
+    public float get(int index, int channel) {
+        return data[slot(index) * channels + channel];
+    }
+    
+    public long getTimestamp(int index) {
+        return timestamps[slot(index)];
+    }
+    
+    public float getNewest(int channel) {
+        return get(size - 1, channel);
+    }
+    
+    public long getNewestTimestamp() {
+        return getTimestamp(size - 1);
+    }
+    
+    private int slot(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Índice " + index + " fuera de rango (tamaño " + size + ")");
+        }
+        int slot = head + index;
+        return slot >= capacity ? slot - capacity : slot;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int capacity() {
+        return capacity;
+    }
+    
+    public int channels() {
+        return channels;
+    }
+    
+    public boolean isFull() {
+        return size == capacity;
+    }
+    
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+    
+    /**
+     * Escribe canales, tamaño y muestras (de la más antigua a la más reciente)
+     */
+    public void writeTo(ByteBuffer out) {
+        out.putInt(channels);
+        out.putInt(size);
+        for (int i = 0; i < size; i++) {
+            int slot = slot(i);
+            out.putLong(timestamps[slot]);
+            for (int channel = 0; channel < channels; channel++) {
+                out.putFloat(data[slot * channels + channel]);
+            }
+        }
+    }
+    
+    /**
+     * Reemplaza el contenido por el escrito con {@link #writeTo}, desplazando las marcas de tiempo;
+     * si trae más muestras que la capacidad se conservan las más recientes
+     */
+    public void readFrom(ByteBuffer in, long timeShiftNanos) {
+        int storedChannels = in.getInt();
+        int count = in.getInt();
+        if (storedChannels != channels || count < 0) {
+            throw new IllegalArgumentException("Contenido incompatible: " + storedChannels + " canales, " + count + " muestras");
+        }
+        clear();
+        for (int i = 0; i < count; i++) {
+            int offset = claimSlot(in.getLong() + timeShiftNanos) * channels;
+            for (int channel = 0; channel < channels; channel++) {
+                data[offset + channel] = in.getFloat();
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.fallalarm.core.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cola acotada sin bloqueos de un productor y un consumidor para cuadros float de ancho fijo
+ * El almacenamiento se reserva al construirla; ofrecer y consumir no reservan memoria.
+ * Solo un hilo puede llamar a offer() y solo un hilo a drain()/skipAll().
+ */
+public class SpscFrameQueue {
+    
+    public interface FrameConsumer {
+        /**
+         * {@code values} se reutiliza entre llamadas; copiar si se necesita conservarlo
+         */
+        void onFrame(long timestamp, float[] values);
+    }
+    
+    private final int capacity;
+    private final int width;
+    private final float[] data;
+    private final long[] timestamps;
+    private final float[] scratch;
+    
+    // Contadores de posición: el productor solo escribe tail, el consumidor solo escribe head
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    // Copias locales del contador del otro lado para no leer el atómico en cada operación
+    private long cachedHead = 0;
+    private long cachedTail = 0;
+    
+    public SpscFrameQueue(int capacity, int width) {
+        if (capacity <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Capacidad y ancho deben ser positivos");
+        }
+        this.capacity = capacity;
+        this.width = width;
+        this.data = new float[capacity * width];
+        this.timestamps = new long[capacity];
+        this.scratch = new float[width];
+    }
+    
+    /**
+     * Encola un cuadro copiando los primeros {@code width} valores; devuelve false si está llena
+     */
+    public boolean offer(long timestamp, float[] values) {
+        long currentTail = tail.get();
+        if (currentTail - cachedHead >= capacity) {
+            cachedHead = head.get();
+            if (currentTail - cachedHead >= capacity) {
+                return false;
+            }
+        }
+        int slot = (int) (currentTail % capacity);
+        System.arraycopy(values, 0, data, slot * width, width);
+        timestamps[slot] = timestamp;
+        tail.lazySet(currentTail + 1); // Publica el cuadro
+        return true;
+    }
+    
+    /**
+     * Entrega al consumidor todos los cuadros disponibles en orden y devuelve cuántos fueron
+     */
+    public int drain(FrameConsumer consumer) {
+        long currentHead = head.get();
+        cachedTail = tail.get();
+        int count = 0;
+        while (currentHead < cachedTail) {
+            int slot = (int) (currentHead % capacity);
+            System.arraycopy(data, slot * width, scratch, 0, width);
+            long timestamp = timestamps[slot];
+            currentHead++;
+            head.lazySet(currentHead); // Libera el hueco para el productor
+            consumer.onFrame(timestamp, scratch);
+            count++;
+        }
+        return count;
+    }
+    
+    /**
+     * Descarta todos los cuadros pendientes (lado consumidor) y devuelve cuántos fueron
+     */
+    public int skipAll() {
+        long currentHead = head.get();
+        cachedTail = tail.get();
+        head.lazySet(cachedTail);
+        return (int) (cachedTail - currentHead);
+    }
+    
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+    
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+    
+    public int capacity() {
+        return capacity;
+    }
+    
+    public int width() {
+        return width;
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.fallalarm.core.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Estadísticas incrementales sobre una ventana deslizante de tamaño fijo
+ * Mantiene media y varianza (Welford), mínimo y máximo (colas monótonas),
+ * jerk medio y cambios de dirección actualizándolos al entrar y salir cada muestra,
+ * de modo que todas las consultas son O(1)
+ */
+public class WindowedStatistics {
+    
+    // Cada cierto número de muestras se recalculan los acumuladores para evitar deriva numérica
+    private static final int RESYNC_INTERVAL = 4096;
+    
+    private final FloatRingBuffer window;
+    
+    // Welford
+    private double mean = 0.0;
+    private double m2 = 0.0;
+    
+    // Suma de |x[i] - x[i-1]| y número de extremos locales dentro de la ventana
+    private double jerkSum = 0.0;
+    private int directionChanges = 0;
+    
+    // Colas monótonas (valor, secuencia) para máximo y mínimo
+    private final float[] maxValues;
+    private final long[] maxSequences;
+    private int maxHead = 0;
+    private int maxCount = 0;
+    private final float[] minValues;
+    private final long[] minSequences;
+    private int minHead = 0;
+    private int minCount = 0;
+    
+    private long sequence = 0;
+    private int updatesSinceResync = 0;
+    
+    public WindowedStatistics(int capacity) {
+        this.window = new FloatRingBuffer(capacity, 1);
+        // Una posición extra: la muestra recién expulsada sigue en la cola hasta expireDeques()
+        this.maxValues = new float[capacity + 1];
+        this.maxSequences = new long[capacity + 1];
+        this.minValues = new float[capacity + 1];
+        this.minSequences = new long[capacity + 1];
+    }
+    
+    /**
+     * Agrega una muestra; si la ventana está llena sale la más antigua
+     */
+    public void add(long timestamp, float value) {
+        int n = window.size();
+        // Muestras que siguen en la ventana tras expulsar la más antigua
+        int retained = n;
+        if (window.isFull()) {
+            evictOldest();
+            retained--;
+        }
+        
+        if (retained >= 1) {
+            jerkSum += Math.abs(value - window.get(n - 1, 0));
+        }
+        if (retained >= 2 && isTurningPoint(window.get(n - 2, 0), window.get(n - 1, 0), value)) {
+            directionChanges++;
+        }
+        
+        window.add(timestamp, value);
+        
+        // Welford: incorporar la muestra
+        int count = window.size();
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        
+        pushMax(value, sequence);
+        pushMin(value, sequence);
+        sequence++;
+        expireDeques();
+        
+        if (++updatesSinceResync >= RESYNC_INTERVAL) {
+            resync();
+        }
+    }
+    
+    private void evictOldest() {
+        int n = window.size();
+        float oldest = window.get(0, 0);
+        if (n >= 2) {
+            jerkSum -= Math.abs(window.get(1, 0) - oldest);
+        }
+        if (n >= 3 && isTurningPoint(oldest, window.get(1, 0), window.get(2, 0))) {
+            directionChanges--;
+        }
+        
+        // Welford: retirar la muestra
+        int remaining = n - 1;
+        if (remaining == 0) {
+            mean = 0.0;
+            m2 = 0.0;
+        } else {
+            double delta = oldest - mean;
+            mean -= delta / remaining;
+            m2 -= delta * (oldest - mean);
+        }
+    }
+    
+    private static boolean isTurningPoint(float previous, float current, float next) {
+        return (current > previous && current > next) || (current < previous && current < next);
+    }
+    
+    private void pushMax(float value, long seq) {
+        int capacity = maxValues.length;
+        while (maxCount > 0 && maxValues[(maxHead + maxCount - 1) % capacity] <= value) {
+            maxCount--;
+        }
+        int slot = (maxHead + maxCount) % capacity;
+        maxValues[slot] = value;
+        maxSequences[slot] = seq;
+        maxCount++;
+    }
+    
+    private void pushMin(float value, long seq) {
+        int capacity = minValues.length;
+        while (minCount > 0 && minValues[(minHead + minCount - 1) % capacity] >= value) {
+            minCount--;
+        }
+        int slot = (minHead + minCount) % capacity;
+        minValues[slot] = value;
+        minSequences[slot] = seq;
+        minCount++;
+    }
+    
+    private void expireDeques() {
+        long oldestSequence = sequence - window.size();
+        while (maxCount > 0 && maxSequences[maxHead] < oldestSequence) {
+            maxHead = (maxHead + 1) % maxValues.length;
+            maxCount--;
+        }
+        while (minCount > 0 && minSequences[minHead] < oldestSequence) {
+            minHead = (minHead + 1) % minValues.length;
+            minCount--;
+        }
+    }
+    
+    /**
+     * Recalcula los acumuladores en punto flotante a partir de la ventana
+     */
+    private void resync() {
+        updatesSinceResync = 0;
+        int n = window.size();
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            sum += window.get(i, 0);
+        }
+        mean = n > 0 ? sum / n : 0.0;
+        m2 = 0.0;
+        jerkSum = 0.0;
+        for (int i = 0; i < n; i++) {
+            double diff = window.get(i, 0) - mean;
+            m2 += diff * diff;
+            if (i > 0) {
+                jerkSum += Math.abs(window.get(i, 0) - window.get(i - 1, 0));
+            }
+        }
+    }
+    
+    public float getMean() {
+        return (float) mean;
+    }
+    
+    /**
+     * Varianza poblacional de la ventana
+     */
+    public float getVariance() {
+        int n = window.size();
+        if (n == 0) return 0.0f;
+        return (float) Math.max(0.0, m2 / n);
+    }
+    
+    public float getMax() {
+        return maxCount > 0 ? maxValues[maxHead] : 0.0f;
+    }
+    
+    public float getMin() {
+        return minCount > 0 ? minValues[minHead] : 0.0f;
+    }
+    
+    /**
+     * Promedio de |x[i] - x[i-1]| en la ventana
+     */
+    public float getMeanAbsoluteJerk() {
+        int n = window.size();
+        if (n < 2) return 0.0f;
+        return (float) (jerkSum / (n - 1));
+    }
+    
+    /**
+     * Fracción de puntos interiores que son máximos o mínimos locales estrictos
+     */
+    public float getDirectionChangeRate() {
+        int n = window.size();
+        if (n < 3) return 0.0f;
+        return (float) directionChanges / (n - 2);
+    }
+    
+    public long getOldestTimestamp() {
+        return window.getTimestamp(0);
+    }
+    
+    public long getNewestTimestamp() {
+        return window.getNewestTimestamp();
+    }
+    
+    /**
+     * Valor de la muestra indicada (0 = más antigua)
+     */
+    public float get(int index) {
+        return window.get(index, 0);
+    }
+    
+    public int size() {
+        return window.size();
+    }
+    
+    public int capacity() {
+        return window.capacity();
+    }
+    
+    public boolean isFull() {
+        return window.isFull();
+    }
+    
+    /**
+     * Escribe las muestras de la ventana; los acumuladores se recalculan al restaurar
+     */
+    public void writeTo(ByteBuffer out) {
+        window.writeTo(out);
+    }
+    
+    /**
+     * Reemplaza la ventana por la escrita con {@link #writeTo}, desplazando las marcas de tiempo
+     */
+    public void readFrom(ByteBuffer in, long timeShiftNanos) {
+        FloatRingBuffer stored = new FloatRingBuffer(window.capacity(), 1);
+        stored.readFrom(in, timeShiftNanos);
+        clear();
+        for (int i = 0; i < stored.size(); i++) {
+            add(stored.getTimestamp(i), stored.get(i, 0));
+        }
+    }
+    
+    public void clear() {
+        window.clear();
+        mean = 0.0;
+        m2 = 0.0;
+        jerkSum = 0.0;
+        directionChanges = 0;
+        maxHead = 0;
+        maxCount = 0;
+        minHead = 0;
+        minCount = 0;
+        sequence = 0;
+        updatesSinceResync = 0;
+    }
+}
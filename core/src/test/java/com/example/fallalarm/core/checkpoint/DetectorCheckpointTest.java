@@ -0,0 +1,193 @@
+package com.example.fallalarm.core.checkpoint;
+
+import com.example.fallalarm.core.ml.DetectionFusionEngine;
+import com.example.fallalarm.core.ml.MotionFrameAligner;
+import com.example.fallalarm.core.sensors.SampleIngestor;
+import com.example.fallalarm.core.sensors.SamplingRateController;
+import com.example.fallalarm.core.sensors.SensorSample;
+import com.example.fallalarm.core.util.FloatRingBuffer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+/**
+ * Captura, restauración con marcas de tiempo trasladadas, vencimiento y escritura atómica
+ */
+public class DetectorCheckpointTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long WALL = 1_700_000_000_000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void restoresFrameHistoryWithRebasedTimestamps() throws Exception {
+        MotionFrameAligner aligner = new MotionFrameAligner();
+        long end = feed(aligner, null, 1_000 * MS, 4_000);
+        byte[] data = new DetectorCheckpoint(null, aligner, null, null).capture(WALL, end);
+
+        // Reinicio del dispositivo: elapsedRealtime volvió a empezar y pasaron 2 s de pared
+        MotionFrameAligner restored = new MotionFrameAligner();
+        long now = 30_000 * MS;
+        assertTrue(new DetectorCheckpoint(null, restored, null, null).restore(data, WALL + 2_000, now));
+
+        FloatRingBuffer before = aligner.getFrames();
+        FloatRingBuffer after = restored.getFrames();
+        assertEquals(before.size(), after.size());
+        long shift = now - 2_000 * MS - end;
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(before.getTimestamp(i) + shift, after.getTimestamp(i));
+            for (int channel = 0; channel < MotionFrameAligner.FRAME_CHANNELS; channel++) {
+                assertEquals(before.get(i, channel), after.get(i, channel), 0.0f);
+            }
+        }
+
+        // La línea temporal sigue desde el historial restaurado
+        int frames = after.size();
+        feed(restored, null, now, 100);
+        assertTrue(after.getNewestTimestamp() > now);
+        assertEquals(frames, after.size()); // Historial lleno: los nuevos cuadros desplazan a los viejos
+    }
+
+    @Test
+    public void restoresRestStateAndFusionCooldown() throws Exception {
+        SamplingRateController controller = new SamplingRateController(null);
+        long end = feed(null, controller, 0, 31_000);
+        assertEquals(SamplingRateController.State.REST, controller.getState());
+        DetectionFusionEngine fusion = new DetectionFusionEngine();
+        assertTrue(fusion.report(DetectionFusionEngine.Source.FALL, 1.0f, end));
+        byte[] data = new DetectorCheckpoint(null, null, controller, fusion).capture(WALL, end);
+
+        SamplingRateController restoredController = new SamplingRateController(null);
+        DetectionFusionEngine restoredFusion = new DetectionFusionEngine();
+        assertTrue(new DetectorCheckpoint(null, null, restoredController, restoredFusion)
+                .restore(data, WALL + 1_000, end + 1_000 * MS));
+
+        assertEquals(SamplingRateController.State.REST, restoredController.getState());
+        assertFalse(restoredFusion.report(DetectionFusionEngine.Source.FALL, 1.0f, end + 2_000 * MS));
+        assertEquals(1, restoredFusion.getSuppressedCount());
+        assertTrue(restoredFusion.report(DetectionFusionEngine.Source.FALL, 1.0f,
+                end + DetectionFusionEngine.COOLDOWN_NANOS + 1_000 * MS));
+    }
+
+    @Test
+    public void restoredGravityKeepsFirstSampleCalm() throws Exception {
+        SampleIngestor ingestor = new SampleIngestor();
+        long time = 0;
+        for (; time < 2_000 * MS; time += 10 * MS) {
+            ingestor.onAccelerometer(time, 0.0f, 0.0f, 9.81f);
+        }
+        byte[] data = new DetectorCheckpoint(ingestor, null, null, null).capture(WALL, time);
+
+        SampleIngestor restored = new SampleIngestor();
+        SensorSample[] first = new SensorSample[1];
+        restored.addListener(sample -> first[0] = sample);
+        assertTrue(new DetectorCheckpoint(restored, null, null, null).restore(data, WALL + 1_000, time + 1_000 * MS));
+        assertEquals(time - 10 * MS, restored.getClock().nowNanos());
+
+        restored.onAccelerometer(time + 1_010 * MS, 0.0f, 0.0f, 9.81f);
+        assertEquals(0.0f, first[0].getLinearMagnitude(), 0.01f);
+    }
+
+    @Test
+    public void ignoresStaleCheckpoint() throws Exception {
+        MotionFrameAligner aligner = new MotionFrameAligner();
+        long end = feed(aligner, null, 0, 1_000);
+        byte[] data = new DetectorCheckpoint(null, aligner, null, null).capture(WALL, end);
+
+        MotionFrameAligner restored = new MotionFrameAligner();
+        DetectorCheckpoint checkpoint = new DetectorCheckpoint(null, restored, null, null);
+        assertFalse(checkpoint.restore(data, WALL + DetectorCheckpoint.MAX_AGE_MILLIS + 1, end));
+        assertFalse(checkpoint.restore(data, WALL - 1, end)); // Reloj de pared hacia atrás
+        assertEquals(0, restored.getFrames().size());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsCorruptedCheckpoint() throws Exception {
+        MotionFrameAligner aligner = new MotionFrameAligner();
+        long end = feed(aligner, null, 0, 1_000);
+        byte[] data = new DetectorCheckpoint(null, aligner, null, null).capture(WALL, end);
+        data[40] ^= 1;
+
+        new DetectorCheckpoint(null, new MotionFrameAligner(), null, null).restore(data, WALL, end);
+    }
+
+    @Test
+    public void damagedLaterSectionLeavesRateControllerActive() throws Exception {
+        SamplingRateController controller = new SamplingRateController(null);
+        long end = feed(null, controller, 0, 31_000);
+        assertEquals(SamplingRateController.State.REST, controller.getState());
+        byte[] data = new DetectorCheckpoint(null, null, controller, new DetectionFusionEngine()).capture(WALL, end);
+
+        // Sección de fusión truncada con un CRC válido: falla después de restaurar el control de frecuencia
+        byte[] truncated = Arrays.copyOf(data, data.length - 4 - 4);
+        CRC32 crc = new CRC32();
+        crc.update(truncated, 0, truncated.length - 4);
+        ByteBuffer.wrap(truncated).putInt(truncated.length - 4, (int) crc.getValue());
+
+        SamplingRateController restored = new SamplingRateController(null);
+        try {
+            new DetectorCheckpoint(null, null, restored, new DetectionFusionEngine()).restore(truncated, WALL, end);
+            fail("Se esperaba un punto de control dañado");
+        } catch (IOException expected) {
+            assertEquals(SamplingRateController.State.ACTIVE, restored.getState());
+        }
+    }
+
+    @Test
+    public void skipsSectionsForMissingComponents() throws Exception {
+        MotionFrameAligner aligner = new MotionFrameAligner();
+        DetectionFusionEngine fusion = new DetectionFusionEngine();
+        long end = feed(aligner, null, 0, 1_000);
+        fusion.report(DetectionFusionEngine.Source.SHAKE, 1.0f, end);
+        byte[] data = new DetectorCheckpoint(null, aligner, new SamplingRateController(null), fusion).capture(WALL, end);
+
+        // Sin acelerómetro ni ML solo queda la fusión
+        DetectionFusionEngine restored = new DetectionFusionEngine();
+        assertTrue(new DetectorCheckpoint(null, null, null, restored).restore(data, WALL, end));
+        assertFalse(restored.report(DetectionFusionEngine.Source.SHAKE, 1.0f, end + MS));
+    }
+
+    @Test
+    public void writesAtomicallyAndReadsBack() throws Exception {
+        File target = new File(folder.getRoot(), "detector_state.bin");
+        assertNull(DetectorCheckpoint.read(target));
+
+        DetectorCheckpoint.write(target, new byte[]{1, 2, 3});
+        DetectorCheckpoint.write(target, new byte[]{4, 5});
+
+        assertArrayEquals(new byte[]{4, 5}, DetectorCheckpoint.read(target));
+        assertFalse(new File(folder.getRoot(), "detector_state.bin.tmp").exists());
+    }
+
+    /**
+     * Acelerómetro en reposo y giroscopio quieto a 100 Hz; devuelve la marca de tiempo final
+     */
+    private static long feed(MotionFrameAligner aligner, SamplingRateController controller, long start, long durationMs) {
+        long time = start;
+        for (long end = start + durationMs * MS; time < end; time += 10 * MS) {
+            float[] values = {0.0f, 0.0f, 9.81f};
+            float[] linear = {0.0f, 0.0f, 0.01f};
+            SensorSample accelerometer = SensorSample.accelerometer(time, values, 9.81f, linear, 0.01f);
+            SensorSample gyroscope = SensorSample.gyroscope(time, new float[]{0.0f, 0.0f, 0.0f}, 0.0f);
+            if (aligner != null) {
+                aligner.onSensorSample(accelerometer);
+                aligner.onSensorSample(gyroscope);
+            }
+            if (controller != null) {
+                controller.onSensorSample(accelerometer);
+            }
+        }
+        return time;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.fallalarm.core.config;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Perfiles de detección: valores por defecto, ida y vuelta y validación
+ */
+public class DetectorConfigTest {
+
+    @Test
+    public void defaultsMatchValidatedThresholds() {
+        DetectorConfig config = DetectorConfig.DEFAULT;
+        assertEquals(45.0f, config.getImpactThreshold(), 0.0f);
+        assertEquals(1500, config.getFallDetectionWindowMs());
+        assertEquals(4, config.getMinShakeCount());
+        assertEquals(0.75f, config.getFallPatternThreshold(), 0.0f);
+    }
+
+    @Test
+    public void roundTripsThroughProperties() throws Exception {
+        DetectorConfig config = DetectorConfig.DEFAULT.toBuilder()
+                .setImpactThreshold(38.5f)
+                .setMinShakeCount(3)
+                .setMlFallThreshold(0.9f)
+                .build();
+        StringWriter writer = new StringWriter();
+        config.store(writer, "prueba");
+
+        DetectorConfig loaded = DetectorConfig.load(new StringReader(writer.toString()));
+        assertEquals(config, loaded);
+        assertEquals("38.5", loaded.get(DetectorConfig.KEY_IMPACT_THRESHOLD));
+    }
+
+    @Test
+    public void missingKeysKeepDefaults() throws Exception {
+        DetectorConfig loaded = DetectorConfig.load(new StringReader("shake.threshold=30\n"));
+        assertEquals(30.0f, loaded.getShakeThreshold(), 0.0f);
+        assertEquals(DetectorConfig.DEFAULT.getImpactThreshold(), loaded.getImpactThreshold(), 0.0f);
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void rejectsUnknownKey() throws Exception {
+        DetectorConfig.load(new StringReader("fall.impact=30\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsFreeFallLongerThanWindow() {
+        DetectorConfig.DEFAULT.toBuilder().setMinFreeFallDurationMs(2000).build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.fallalarm.core.config;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Perfiles predefinidos y archivo de perfil con ajustes
+ */
+public class DetectorProfilesTest {
+
+    @Test
+    public void allProfilesAreValid() {
+        for (String name : DetectorProfiles.NAMES) {
+            assertNotNull(DetectorProfiles.get(name));
+        }
+        assertTrue(DetectorProfiles.get(DetectorProfiles.ACTIVE).getImpactThreshold()
+                > DetectorProfiles.get(DetectorProfiles.ELDERLY_INDOOR).getImpactThreshold());
+    }
+
+    @Test
+    public void fileSelectsProfileAndAppliesOverrides() throws Exception {
+        DetectorConfig config = DetectorProfiles.load(new StringReader(
+                "profile=wheelchair\nshake.minCount=2\n"));
+
+        assertEquals(DetectorProfiles.get(DetectorProfiles.WHEELCHAIR).getImpactThreshold(),
+                config.getImpactThreshold(), 0.0f);
+        assertEquals(2, config.getMinShakeCount());
+    }
+
+    @Test
+    public void fileWithoutProfileStartsFromDefault() throws Exception {
+        DetectorConfig config = DetectorProfiles.load(new StringReader("fall.impactThreshold=50\n"));
+        assertEquals(50.0f, config.getImpactThreshold(), 0.0f);
+        assertEquals(DetectorConfig.DEFAULT.getShakeThreshold(), config.getShakeThreshold(), 0.0f);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsUnknownProfile() throws Exception {
+        DetectorProfiles.load(new StringReader("profile=marathon\n"));
+    }
+}
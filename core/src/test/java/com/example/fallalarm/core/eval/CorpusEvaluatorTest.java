@@ -0,0 +1,136 @@
+package com.example.fallalarm.core.eval;
+
+import com.example.fallalarm.core.replay.ReplayDetection;
+import com.example.fallalarm.core.trace.TraceFormat;
+import com.example.fallalarm.core.trace.TraceRingWriter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Emparejamiento de detecciones con etiquetas y agregación del corpus
+ */
+public class CorpusEvaluatorTest {
+
+    private static final long PERIOD = 10_000_000L; // 100 Hz
+    private static final long START = 5_000_000_000L;
+    private static final long IMPACT = START + 100 * PERIOD;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void scoresHitsMissesAndFalseAlarms() throws Exception {
+        File root = folder.getRoot();
+        writeTrace(new File(root, "falls/detected.trace"), 100);
+        writeLabels(new File(root, "falls/detected.labels"), "class=fall\nfalls=" + (IMPACT + 20 * PERIOD) + "\n");
+        writeTrace(new File(root, "falls/missed.trace"), -1);
+        writeLabels(new File(root, "falls/missed.labels"), "falls=" + IMPACT + "\n");
+        writeTrace(new File(root, "adl/bump.trace"), 100);
+
+        List<File> traces = CorpusEvaluator.findTraces(root);
+        assertEquals(3, traces.size());
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        EvaluationReport report;
+        try {
+            report = new CorpusEvaluator().evaluate(traces, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(3, report.getTraceCount());
+        assertEquals(2, report.getTraceCount(TraceLabels.TraceClass.FALL));
+        assertEquals(1, report.getTraceCount(TraceLabels.TraceClass.ADL));
+        assertEquals(2400, report.getSampleCount());
+
+        DetectorScore fall = report.getScore(ReplayDetection.Type.FALL);
+        assertEquals(1, fall.getTruePositives());
+        assertEquals(1, fall.getFalsePositives());
+        assertEquals(1, fall.getFalseNegatives());
+        assertEquals(0.5, fall.getPrecision(), 1e-9);
+        assertEquals(0.5, fall.getRecall(), 1e-9);
+        // La detección llegó 200 ms antes de la etiqueta, dentro del margen
+        assertEquals(-20 * PERIOD, fall.getLatencyPercentile(50));
+        assertTrue(fall.getFalseAlarmsPerHour(report.getDurationNanos()) > 0);
+    }
+
+    @Test
+    public void detectionOutsideWindowIsFalseAlarm() throws Exception {
+        File trace = folder.newFile("late.trace");
+        writeTrace(trace, 100);
+        writeLabels(TraceLabels.sidecarFor(trace),
+                "falls=" + (IMPACT - CorpusEvaluator.MATCH_AFTER_NANOS - PERIOD) + "\n");
+
+        EvaluationReport report = new CorpusEvaluator().evaluate(trace);
+
+        DetectorScore fall = report.getScore(ReplayDetection.Type.FALL);
+        assertEquals(0, fall.getTruePositives());
+        assertEquals(1, fall.getFalsePositives());
+        assertEquals(1, fall.getFalseNegatives());
+        assertTrue(Double.isNaN(report.getScore(ReplayDetection.Type.SHAKE).getRecall()));
+    }
+
+    @Test
+    public void burstOfUnmatchedDetectionsIsOneFalseAlarm() {
+        List<ReplayDetection> detections = new ArrayList<>();
+        // Un golpe: el detector vota en cada cuadro durante 2 s (20 Hz)
+        for (int i = 0; i < 40; i++) {
+            detections.add(new ReplayDetection(ReplayDetection.Type.ML_FALL, START + i * 50_000_000L, 0.9f));
+        }
+        // Otro golpe bien separado, y la caída etiquetada con su propia ráfaga
+        long later = START + 20_000_000_000L;
+        detections.add(new ReplayDetection(ReplayDetection.Type.ML_FALL, later, 0.9f));
+        detections.add(new ReplayDetection(ReplayDetection.Type.ML_FALL, IMPACT + 60_000_000_000L, 0.9f));
+        detections.add(new ReplayDetection(ReplayDetection.Type.ML_FALL, IMPACT + 60_050_000_000L, 0.9f));
+
+        DetectorScore score = new DetectorScore();
+        CorpusEvaluator.match(new long[]{IMPACT + 60_000_000_000L}, detections, ReplayDetection.Type.ML_FALL, score);
+
+        assertEquals(1, score.getTruePositives());
+        assertEquals(2, score.getFalsePositives());
+        assertEquals(0, score.getFalseNegatives());
+    }
+
+    @Test
+    public void latencyPercentiles() {
+        DetectorScore score = new DetectorScore();
+        for (int i = 1; i <= 100; i++) {
+            score.hit(i);
+        }
+        DetectorScore other = new DetectorScore();
+        other.miss();
+        score.merge(other);
+
+        assertEquals(50, score.getLatencyPercentile(50));
+        assertEquals(99, score.getLatencyPercentile(99));
+        assertEquals(100, score.getLatencyPercentile(100));
+        assertEquals(100.0 / 101, score.getRecall(), 1e-9);
+    }
+
+    private static void writeTrace(File file, int impactAt) throws Exception {
+        file.getParentFile().mkdirs();
+        try (TraceRingWriter writer = TraceRingWriter.open(file, 64 * 1024)) {
+            for (int i = 0; i < 400; i++) {
+                long timestamp = START + i * PERIOD;
+                float z = i == impactAt ? 70.0f : 9.81f;
+                writer.write(TraceFormat.TYPE_ACCELEROMETER, timestamp, 0.0f, 0.0f, z);
+                writer.write(TraceFormat.TYPE_GYROSCOPE, timestamp + 1_000L, 0.0f, 0.0f, 0.0f);
+            }
+        }
+    }
+
+    private static void writeLabels(File file, String content) throws Exception {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
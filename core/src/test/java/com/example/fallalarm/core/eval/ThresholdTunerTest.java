@@ -0,0 +1,105 @@
+package com.example.fallalarm.core.eval;
+
+import com.example.fallalarm.core.config.DetectorConfig;
+import com.example.fallalarm.core.replay.ReplayDetection;
+import com.example.fallalarm.core.replay.SampleStream;
+import com.example.fallalarm.core.replay.TraceReplayer;
+import com.example.fallalarm.core.trace.TraceFormat;
+import com.example.fallalarm.core.trace.TraceRingWriter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Barrido de umbrales sobre flujos en caché y frontera de Pareto
+ */
+public class ThresholdTunerTest {
+
+    private static final long PERIOD = 10_000_000L; // 100 Hz
+    private static final long START = 5_000_000_000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void cachedStreamReplaysLikeTheTrace() throws Exception {
+        File trace = folder.newFile("fall.trace");
+        writeTrace(trace, 100, 70.0f);
+        TraceReplayer replayer = new TraceReplayer();
+
+        String fromFile = replayer.replay(trace).getDetections().toString();
+        String fromStream = replayer.replay(SampleStream.decode(trace)).getDetections().toString();
+
+        assertEquals(fromFile, fromStream);
+    }
+
+    @Test
+    public void gridSkipsInvalidCombinations() {
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        values.put(DetectorConfig.KEY_IMPACT_THRESHOLD, Arrays.asList("30", "40", "50"));
+        values.put(DetectorConfig.KEY_MIN_FREE_FALL_DURATION, Arrays.asList("300", "2000"));
+
+        List<DetectorConfig> configs = ThresholdTuner.grid(DetectorConfig.DEFAULT, values);
+
+        // 2000 ms supera la ventana de caída de 1500 ms
+        assertEquals(3, configs.size());
+        assertEquals(300, configs.get(0).getMinFreeFallDurationMs());
+    }
+
+    @Test
+    public void frontierTradesFalseAlarmsForRecall() throws Exception {
+        // Caída real con impacto moderado y un golpe fuerte en una traza sin caída
+        File fall = new File(folder.getRoot(), "fall.trace");
+        writeTrace(fall, 100, 40.0f);
+        Files.write(new File(folder.getRoot(), "fall.labels").toPath(),
+                ("falls=" + (START + 100 * PERIOD) + "\n").getBytes(StandardCharsets.UTF_8));
+        File bump = new File(folder.getRoot(), "bump.trace");
+        writeTrace(bump, 100, 100.0f);
+
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        values.put(DetectorConfig.KEY_IMPACT_THRESHOLD, Arrays.asList("20", "45", "80"));
+        ThresholdTuner tuner = new ThresholdTuner(ReplayDetection.Type.FALL);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        List<ThresholdTuner.Candidate> candidates;
+        try {
+            List<ThresholdTuner.LabeledStream> corpus = ThresholdTuner.load(Arrays.asList(fall, bump), pool);
+            candidates = tuner.evaluate(ThresholdTuner.grid(DetectorConfig.DEFAULT, values), corpus, pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(3, candidates.size());
+
+        List<ThresholdTuner.Candidate> frontier = tuner.paretoFrontier(candidates);
+
+        // 80: ni alarmas ni aciertos; 45: solo el golpe (dominada por 80); 20: la caída y el golpe
+        assertEquals(2, frontier.size());
+        assertEquals(80.0f, frontier.get(0).getConfig().getImpactThreshold(), 0.0f);
+        assertEquals(0.0, frontier.get(0).getRecall(ReplayDetection.Type.FALL), 0.0);
+        assertEquals(20.0f, frontier.get(1).getConfig().getImpactThreshold(), 0.0f);
+        assertEquals(1.0, frontier.get(1).getRecall(ReplayDetection.Type.FALL), 0.0);
+        assertTrue(frontier.get(1).getFalseAlarmsPerHour(ReplayDetection.Type.FALL) > 0.0);
+    }
+
+    private static void writeTrace(File file, int impactAt, float impact) throws Exception {
+        try (TraceRingWriter writer = TraceRingWriter.open(file, 64 * 1024)) {
+            for (int i = 0; i < 400; i++) {
+                long timestamp = START + i * PERIOD;
+                float z = i == impactAt ? impact : 9.81f;
+                writer.write(TraceFormat.TYPE_ACCELEROMETER, timestamp, 0.0f, 0.0f, z);
+                writer.write(TraceFormat.TYPE_GYROSCOPE, timestamp + 1_000L, 0.0f, 0.0f, 0.0f);
+            }
+        }
+    }
+}
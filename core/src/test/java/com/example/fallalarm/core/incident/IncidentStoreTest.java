@@ -0,0 +1,180 @@
+package com.example.fallalarm.core.incident;
+
+import com.example.fallalarm.core.ml.DetectionFusionEngine.Source;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Persistencia, índice por instante y fuente, reconocimientos y resúmenes del historial
+ */
+public class IncidentStoreTest {
+
+    private static final long DAY = 24 * 3_600_000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void persistsRecordsAndRebuildsIndexOnReopen() throws Exception {
+        File file = folder.newFile("incidents.bin");
+        try (IncidentStore store = IncidentStore.open(file)) {
+            assertEquals(0, store.append(incident(1_000, Source.FALL, 0.9f, 1_000)));
+            assertEquals(1, store.append(incident(2_000, Source.ML, 0.7f, IncidentRecord.NO_TRACE)));
+            assertTrue(store.hasPendingWrites());
+            store.flush();
+            assertFalse(store.hasPendingWrites());
+        }
+        assertEquals(IncidentStore.HEADER_SIZE + 2 * IncidentStore.RECORD_SIZE, file.length());
+
+        try (IncidentStore store = IncidentStore.open(file)) {
+            assertEquals(2, store.size());
+            IncidentRecord first = store.get(0);
+            assertEquals(1_000, first.getTimestampMillis());
+            assertEquals(Source.FALL, first.getTrigger());
+            assertEquals(0.9f, first.getScore(), 0.0f);
+            assertEquals(0.9f, first.getVote(Source.FALL), 0.0f);
+            assertEquals(0.0f, first.getVote(Source.SHAKE), 0.0f);
+            assertTrue(first.hasTrace());
+            assertFalse(first.isAcknowledged());
+            assertFalse(store.get(1).hasTrace());
+            assertEquals(1, store.count(Source.ML, 0, 10_000));
+        }
+    }
+
+    @Test
+    public void acknowledgesPendingAndFlushedRecords() throws Exception {
+        File file = folder.newFile("incidents.bin");
+        try (IncidentStore store = IncidentStore.open(file)) {
+            int flushed = store.append(incident(1_000, Source.FALL, 0.9f, IncidentRecord.NO_TRACE));
+            store.flush();
+            int pending = store.append(incident(2_000, Source.SHAKE, 0.8f, IncidentRecord.NO_TRACE));
+            store.acknowledge(flushed, 4_500);
+            store.acknowledge(pending, 1_200);
+        }
+
+        try (IncidentStore store = IncidentStore.open(file)) {
+            assertEquals(4_500, store.get(0).getAckLatencyMillis());
+            assertEquals(1_200, store.get(1).getAckLatencyMillis());
+            assertEquals(Source.SHAKE, store.get(1).getTrigger());
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsAcknowledgementOfUnknownRecord() throws Exception {
+        try (IncidentStore store = IncidentStore.open(folder.newFile("incidents.bin"))) {
+            store.acknowledge(0, 1_000);
+        }
+    }
+
+    @Test
+    public void countsAndQueriesByRangeAndSource() throws Exception {
+        try (IncidentStore store = IncidentStore.open(folder.newFile("incidents.bin"))) {
+            Source[] triggers = {Source.FALL, Source.ML, Source.FALL, Source.PATTERN, Source.FALL};
+            for (int i = 0; i < triggers.length; i++) {
+                store.append(incident(i * DAY, triggers[i], 0.5f + i * 0.1f, IncidentRecord.NO_TRACE));
+            }
+
+            assertEquals(5, store.count(0, 5 * DAY));
+            assertEquals(3, store.count(DAY, 4 * DAY));
+            assertEquals(0, store.count(4 * DAY + 1, 5 * DAY));
+            assertEquals(0, store.count(5 * DAY, 0));
+            assertEquals(3, store.count(Source.FALL, 0, 5 * DAY));
+            assertEquals(1, store.count(Source.FALL, DAY, 4 * DAY));
+            assertEquals(0, store.count(Source.SHAKE, 0, 5 * DAY));
+            assertEquals(2, store.firstAtOrAfter(2 * DAY));
+            assertEquals(5, store.firstAtOrAfter(6 * DAY));
+
+            List<IncidentRecord> falls = store.query(0, 5 * DAY, Source.FALL, 2);
+            assertEquals(2, falls.size());
+            assertEquals(4 * DAY, falls.get(0).getTimestampMillis());
+            assertEquals(2 * DAY, falls.get(1).getTimestampMillis());
+
+            List<IncidentRecord> all = store.query(DAY, 4 * DAY, null, 10);
+            assertEquals(3, all.size());
+            assertEquals(Source.PATTERN, all.get(0).getTrigger());
+            assertEquals(Source.ML, all.get(2).getTrigger());
+        }
+    }
+
+    @Test
+    public void summarizesRange() throws Exception {
+        try (IncidentStore store = IncidentStore.open(folder.newFile("incidents.bin"))) {
+            store.append(incident(0, Source.FALL, 0.6f, 1));
+            int second = store.append(incident(DAY, Source.FALL, 0.8f, IncidentRecord.NO_TRACE));
+            int third = store.append(incident(2 * DAY, Source.ML, 1.0f, 2 * DAY));
+            store.append(incident(10 * DAY, Source.SHAKE, 0.9f, IncidentRecord.NO_TRACE));
+            store.acknowledge(second, 3_000);
+            store.acknowledge(third, 5_000);
+
+            IncidentSummary summary = store.summarize(DAY, 3 * DAY);
+            assertEquals(2, summary.getCount());
+            assertEquals(1, summary.getCount(Source.FALL));
+            assertEquals(1, summary.getCount(Source.ML));
+            assertEquals(0, summary.getCount(Source.SHAKE));
+            assertEquals(2, summary.getAcknowledgedCount());
+            assertEquals(1, summary.getWithTraceCount());
+            assertEquals(0.9, summary.getMeanScore(), 1e-6);
+            assertEquals(4_000.0, summary.getMeanAckLatencyMillis(), 1e-6);
+            assertEquals(5_000, summary.getAckLatencyPercentile(100), 5_000 / 16);
+
+            IncidentSummary empty = store.summarize(3 * DAY, 10 * DAY);
+            assertEquals(0, empty.getCount());
+            assertEquals(0.0, empty.getMeanScore(), 0.0);
+        }
+    }
+
+    @Test
+    public void discardsTruncatedTailRecord() throws Exception {
+        File file = folder.newFile("incidents.bin");
+        try (IncidentStore store = IncidentStore.open(file)) {
+            store.append(incident(1_000, Source.FALL, 0.9f, IncidentRecord.NO_TRACE));
+            store.append(incident(2_000, Source.ML, 0.7f, IncidentRecord.NO_TRACE));
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.setLength(file.length() - IncidentStore.RECORD_SIZE / 2);
+        }
+
+        try (IncidentStore store = IncidentStore.open(file)) {
+            assertEquals(1, store.size());
+            assertEquals(1, store.append(incident(3_000, Source.SHAKE, 0.8f, IncidentRecord.NO_TRACE)));
+        }
+        try (IncidentStore store = IncidentStore.open(file)) {
+            assertEquals(2, store.size());
+            assertEquals(Source.SHAKE, store.get(1).getTrigger());
+        }
+    }
+
+    @Test
+    public void clampsBackwardClock() throws Exception {
+        try (IncidentStore store = IncidentStore.open(folder.newFile("incidents.bin"))) {
+            store.append(incident(5_000, Source.FALL, 0.9f, IncidentRecord.NO_TRACE));
+            store.append(incident(4_000, Source.ML, 0.7f, IncidentRecord.NO_TRACE));
+
+            assertEquals(5_000, store.get(1).getTimestampMillis());
+            assertEquals(2, store.count(5_000, 5_001));
+        }
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void rejectsForeignFile() throws Exception {
+        File file = folder.newFile("other.bin");
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.write(new byte[IncidentStore.HEADER_SIZE]);
+        }
+        IncidentStore.open(file);
+    }
+
+    private static IncidentRecord incident(long timestamp, Source trigger, float score, long traceId) {
+        float[] votes = new float[Source.values().length];
+        votes[trigger.ordinal()] = score;
+        return new IncidentRecord(timestamp, trigger, score, votes, traceId);
+    }
+}
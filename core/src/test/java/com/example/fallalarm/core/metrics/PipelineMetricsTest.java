@@ -0,0 +1,84 @@
+package com.example.fallalarm.core.metrics;
+
+import com.example.fallalarm.core.ml.DetectionFusionEngine;
+import com.example.fallalarm.core.sensors.SampleIngestor;
+
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Contadores, latencias y tiempos por etapa del pipeline, y su instantánea en texto
+ */
+public class PipelineMetricsTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void recordsArrivalRateAndDeliveryLatency() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        for (int i = 0; i <= 100; i++) {
+            long event = 1_000 * MS + i * 10 * MS;
+            metrics.recordSample(true, event, event + 2 * MS);
+        }
+
+        assertEquals(101, metrics.getSampleCount());
+        assertEquals(100.0, metrics.getSampleRate(), 1e-6);
+        assertEquals(2 * MS, metrics.getDeliveryLatency().getMax());
+    }
+
+    @Test
+    public void timedListenerRecordsEachSample() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        SampleIngestor ingestor = new SampleIngestor();
+        final int[] received = new int[1];
+        ingestor.addListener(metrics.timed(PipelineMetrics.Stage.FALL_DETECTOR, sample -> received[0]++));
+        for (int i = 0; i < 10; i++) {
+            ingestor.onAccelerometer(i * 10 * MS, 0.0f, 0.0f, 9.81f);
+        }
+
+        assertEquals(10, received[0]);
+        assertEquals(10, metrics.getProcessingTime(PipelineMetrics.Stage.FALL_DETECTOR).getCount());
+        assertEquals(0, metrics.getProcessingTime(PipelineMetrics.Stage.SHAKE_DETECTOR).getCount());
+    }
+
+    @Test
+    public void snapshotListsDetectionsAndDrops() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.recordDetection(DetectionFusionEngine.Source.FALL);
+        metrics.recordDetection(DetectionFusionEngine.Source.ML);
+        metrics.recordDetection(DetectionFusionEngine.Source.ML);
+        metrics.recordIncident(40 * MS);
+        metrics.recordDropped(PipelineMetrics.Stage.PATTERN_ANALYZER, 3);
+
+        StringWriter out = new StringWriter();
+        metrics.dump(new PrintWriter(out));
+        String snapshot = out.toString();
+        assertTrue(snapshot, snapshot.contains("detections fall=1 shake=0 ml=2 pattern=0 incidents=1"));
+        assertTrue(snapshot, snapshot.contains("decision_us n=1"));
+        assertTrue(snapshot, snapshot.contains("stage.pattern_analyzer dropped=3"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getIncidents());
+        assertEquals(0, metrics.getDropped(PipelineMetrics.Stage.PATTERN_ANALYZER));
+    }
+
+    @Test
+    public void alertLatencyIsListedOnlyOnceRecorded() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        StringWriter out = new StringWriter();
+        metrics.dump(new PrintWriter(out));
+        assertFalse(out.toString(), out.toString().contains("alert.first_audio_us"));
+
+        metrics.recordAlert(PipelineMetrics.Alert.FIRST_AUDIO, 120 * MS);
+        out = new StringWriter();
+        metrics.dump(new PrintWriter(out));
+        assertTrue(out.toString(), out.toString().contains("alert.first_audio_us n=1"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getAlertLatency(PipelineMetrics.Alert.FIRST_AUDIO).getCount());
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.fallalarm.core.ml;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Carga y evaluación de los tres tipos de modelo compacto
+ */
+public class CompactModelTest {
+
+    private static final int F = MotionFeatures.COUNT;
+    private static final int C = Classifier.CLASS_COUNT;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void logisticModelFromMappedFile() throws Exception {
+        // Solo la aceleración máxima (normalizada a (x - 10) / 10) empuja hacia caída
+        float[] weights = new float[C * F];
+        weights[Classifier.CLASS_FALL * F + MotionFeatures.MAX_ACCELERATION] = 4.0f;
+        ByteBuffer model = header(CompactModel.TYPE_LOGISTIC, 0, 0, 8 * F + 4 * C * F + 4 * C);
+        normalization(model, 10.0f, 0.1f);
+        putFloats(model, weights);
+        putFloats(model, new float[]{1.0f, 0.0f, -2.0f});
+        File file = folder.newFile("model.fam");
+        Files.write(file.toPath(), model.array());
+
+        CompactModel classifier = CompactModel.load(file);
+        float[] probabilities = new float[C];
+
+        classifier.classify(features(30.0f), probabilities);
+        assertEquals(Classifier.CLASS_FALL, Classifier.argmax(probabilities));
+        assertEquals(1.0f, probabilities[0] + probabilities[1] + probabilities[2], 1e-5f);
+
+        classifier.classify(features(10.0f), probabilities);
+        assertEquals(Classifier.CLASS_NORMAL, Classifier.argmax(probabilities));
+    }
+
+    @Test
+    public void treeEnsemble() throws Exception {
+        // Un árbol para cada clase; solo el de caída divide por la aceleración máxima
+        int[][] nodes = {
+                {-1, bits(0.0f), 0, 0},                                  // 0: normal
+                {-1, bits(0.0f), 0, 0},                                  // 1: sacudida
+                {MotionFeatures.MAX_ACCELERATION, bits(10.0f), 3, 4},    // 2: caída
+                {-1, bits(-3.0f), 0, 0},
+                {-1, bits(3.0f), 0, 0}
+        };
+        ByteBuffer model = header(CompactModel.TYPE_TREES, 3, nodes.length, 8 * F + 4 * C + 4 * 3 + 16 * nodes.length);
+        normalization(model, 0.0f, 1.0f);
+        putFloats(model, new float[C]);
+        model.putInt(0).putInt(1).putInt(2);
+        for (int[] node : nodes) {
+            for (int word : node) {
+                model.putInt(word);
+            }
+        }
+        model.flip();
+
+        CompactModel classifier = CompactModel.load(model);
+        float[] probabilities = new float[C];
+        classifier.classify(features(30.0f), probabilities);
+        assertEquals(Classifier.CLASS_FALL, Classifier.argmax(probabilities));
+        classifier.copy().classify(features(5.0f), probabilities);
+        assertNotEquals(Classifier.CLASS_FALL, Classifier.argmax(probabilities));
+    }
+
+    @Test
+    public void multilayerPerceptron() throws Exception {
+        int hidden = 2;
+        float[] weights1 = new float[hidden * F];
+        weights1[MotionFeatures.MAX_ACCELERATION] = 1.0f;          // Neurona 0: aceleración máxima
+        weights1[F + MotionFeatures.MAX_ACCELERATION] = -1.0f;     // Neurona 1: su opuesto
+        float[] weights2 = new float[C * hidden];
+        weights2[Classifier.CLASS_FALL * hidden] = 1.0f;
+        weights2[Classifier.CLASS_NORMAL * hidden + 1] = 1.0f;
+        ByteBuffer model = header(CompactModel.TYPE_MLP, hidden, 0,
+                8 * F + 4 * hidden * F + 4 * hidden + 4 * C * hidden + 4 * C);
+        normalization(model, 20.0f, 1.0f);
+        putFloats(model, weights1);
+        putFloats(model, new float[hidden]);
+        putFloats(model, weights2);
+        putFloats(model, new float[C]);
+        model.flip();
+
+        CompactModel classifier = CompactModel.load(model);
+        float[] probabilities = new float[C];
+        classifier.classify(features(30.0f), probabilities);
+        assertEquals(Classifier.CLASS_FALL, Classifier.argmax(probabilities));
+        classifier.classify(features(10.0f), probabilities);
+        assertEquals(Classifier.CLASS_NORMAL, Classifier.argmax(probabilities));
+    }
+
+    @Test
+    public void rejectsInvalidModels() {
+        ByteBuffer wrongSize = header(CompactModel.TYPE_LOGISTIC, 0, 0, 8 * F);
+        assertInvalid(wrongSize);
+
+        ByteBuffer wrongVersion = header(CompactModel.TYPE_LOGISTIC, 0, 0, 0);
+        wrongVersion.putShort(4, (short) 99);
+        assertInvalid(wrongVersion);
+
+        // Nodo cuyo hijo apunta hacia atrás: podría formar un ciclo
+        ByteBuffer cycle = header(CompactModel.TYPE_TREES, 1, 1, 8 * F + 4 * C + 4 + 16);
+        normalization(cycle, 0.0f, 1.0f);
+        putFloats(cycle, new float[C]);
+        cycle.putInt(0);
+        cycle.putInt(0).putInt(bits(1.0f)).putInt(0).putInt(0);
+        assertInvalid(cycle);
+    }
+
+    @Test
+    public void analyzerUsesConfiguredClassifier() {
+        final float[] detected = {0.0f};
+        MotionPatternAnalyzer analyzer = new MotionPatternAnalyzer(confidence -> detected[0] = confidence);
+        analyzer.setClassifier((features, probabilities) -> {
+            probabilities[Classifier.CLASS_NORMAL] = 0.05f;
+            probabilities[Classifier.CLASS_SHAKE] = 0.05f;
+            probabilities[Classifier.CLASS_FALL] = 0.9f;
+        });
+        float[] frame = {0.0f, 0.0f, 9.81f, 0.0f, 0.0f, 0.0f};
+        for (int i = 0; i < 20; i++) {
+            analyzer.addMotionFrame(i * MotionFrameAligner.FRAME_PERIOD_NANOS, frame);
+        }
+        assertEquals(0.9f, detected[0], 0.0f);
+    }
+
+    private static void assertInvalid(ByteBuffer model) {
+        model.position(0);
+        try {
+            CompactModel.load(model);
+            fail("Se esperaba un modelo inválido");
+        } catch (IOException expected) {
+            // Correcto
+        }
+    }
+
+    private static float[] features(float maxAcceleration) {
+        float[] features = new float[F];
+        features[MotionFeatures.AVG_ACCELERATION] = 9.81f;
+        features[MotionFeatures.MAX_ACCELERATION] = maxAcceleration;
+        return features;
+    }
+
+    private static ByteBuffer header(int type, int size, int nodes, int payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(CompactModel.HEADER_SIZE + payload).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(CompactModel.MAGIC).putShort(CompactModel.VERSION).putShort((short) type);
+        buffer.putInt(F).putInt(C).putInt(size).putInt(nodes).putInt(payload).putInt(0);
+        return buffer;
+    }
+
+    private static void normalization(ByteBuffer buffer, float mean, float scale) {
+        for (int i = 0; i < F; i++) {
+            buffer.putFloat(mean);
+        }
+        for (int i = 0; i < F; i++) {
+            buffer.putFloat(scale);
+        }
+    }
+
+    private static void putFloats(ByteBuffer buffer, float[] values) {
+        for (float value : values) {
+            buffer.putFloat(value);
+        }
+    }
+
+    private static int bits(float value) {
+        return Float.floatToIntBits(value);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.fallalarm.core.ml;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Una sola emergencia por incidente aunque varios detectores voten repetidamente
+ */
+public class DetectionFusionEngineTest {
+    
+    private static final long MS = 1_000_000L;
+    private static final long START = 10_000 * MS;
+    
+    @Test
+    public void confirmsOnceAndSuppressesDuplicatesDuringCooldown() {
+        DetectionFusionEngine engine = new DetectionFusionEngine();
+        
+        assertTrue(engine.report(DetectionFusionEngine.Source.FALL, 1.0f, START));
+        // El detector ML sigue disparando cada 50 ms mientras la ventana es anómala
+        for (int i = 1; i <= 20; i++) {
+            assertFalse(engine.report(DetectionFusionEngine.Source.ML, 0.9f, START + i * 50 * MS));
+        }
+        assertEquals(1, engine.getIncidentCount());
+        assertEquals(20, engine.getSuppressedCount());
+        
+        long afterCooldown = START + DetectionFusionEngine.COOLDOWN_NANOS + MS;
+        assertTrue(engine.report(DetectionFusionEngine.Source.SHAKE, 1.0f, afterCooldown));
+        assertEquals(2, engine.getIncidentCount());
+    }
+    
+    @Test
+    public void acknowledgementEndsCooldown() {
+        DetectionFusionEngine engine = new DetectionFusionEngine();
+        
+        assertTrue(engine.report(DetectionFusionEngine.Source.FALL, 1.0f, START));
+        assertFalse(engine.report(DetectionFusionEngine.Source.ML, 0.9f, START + 100 * MS));
+        engine.endIncident();
+        
+        // Una segunda caída poco después del "Estoy bien" se confirma sin esperar los 30 s
+        assertTrue(engine.report(DetectionFusionEngine.Source.FALL, 1.0f, START + 5_000 * MS));
+        assertEquals(2, engine.getIncidentCount());
+        assertEquals(1, engine.getSuppressedCount());
+    }
+    
+    @Test
+    public void weakVotesNeedCorroborationInsideWindow() {
+        DetectionFusionEngine engine = new DetectionFusionEngine();
+        
+        assertFalse(engine.report(DetectionFusionEngine.Source.ML, 0.8f, START));
+        assertFalse(engine.report(DetectionFusionEngine.Source.PATTERN, 0.8f,
+            START + DetectionFusionEngine.VOTE_WINDOW_NANOS + MS)); // El voto ML ya expiró
+        assertTrue(engine.report(DetectionFusionEngine.Source.ML, 0.9f,
+            START + DetectionFusionEngine.VOTE_WINDOW_NANOS + 100 * MS));
+    }
+    
+    @Test
+    public void weightsAreConfigurable() {
+        DetectionFusionEngine engine = new DetectionFusionEngine();
+        engine.setWeight(DetectionFusionEngine.Source.SHAKE, 0.5f);
+        
+        assertFalse(engine.report(DetectionFusionEngine.Source.SHAKE, 1.0f, START));
+        assertEquals(0.5f, engine.combinedScore(START), 1e-6f);
+    }
+}
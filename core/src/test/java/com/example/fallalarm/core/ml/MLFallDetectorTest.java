@@ -0,0 +1,106 @@
+package com.example.fallalarm.core.ml;
+
+import com.example.fallalarm.core.sensors.SensorClock;
+import com.example.fallalarm.core.sensors.SensorSample;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * La cascada descarta los cuadros en reposo y no pierde las detecciones al volver la actividad
+ */
+public class MLFallDetectorTest {
+
+    private static final long MS = SensorClock.NANOS_PER_MILLI;
+    private static final float GRAVITY = 9.81f;
+
+    private final MotionFrameAligner aligner = new MotionFrameAligner();
+    private int falls = 0;
+    private MLFallDetector detector;
+    private long time = 0;
+
+    @Before
+    public void setUp() {
+        detector = new MLFallDetector(new MLFallDetector.MLFallDetectionListener() {
+            @Override
+            public void onMLFallDetected(float confidence) {
+                falls++;
+            }
+
+            @Override
+            public void onMLMotionDetected(String motionType, float confidence) {
+            }
+        });
+        aligner.addFrameListener(detector);
+    }
+
+    @Test
+    public void idleFramesExitAtStageZero() {
+        feed(60_000, GRAVITY, 0.2f);
+
+        assertEquals(0, falls);
+        assertTrue(detector.getFrameCount() > 1000);
+        assertTrue(detector.getStage0ExitRate() > 0.95f);
+        assertEquals(0, detector.getStage2Count());
+    }
+
+    @Test
+    public void impactWarmsWindowsAndReachesClassifier() {
+        feed(10_000, GRAVITY, 0.0f);
+        assertEquals(0, detector.getStage1Count());
+
+        // Un único cuadro activo ya encuentra la ventana completa (rellenada desde el alineador)
+        feed(50, 30.0f, 0.0f);
+        assertEquals(1, detector.getStage1Count());
+        assertEquals(1, detector.getStage2Count());
+
+        // Tras una ventana completa sin actividad se vuelve a descartar en la etapa 0
+        feed(5_000, GRAVITY, 0.0f);
+        long stage1 = detector.getStage1Count();
+        assertTrue(stage1 <= 1 + 20);
+        feed(5_000, GRAVITY, 0.0f);
+        assertEquals(stage1, detector.getStage1Count());
+    }
+
+    @Test
+    public void trainedClassifierSeesWindowsBelowRuleGate() {
+        detector.setClassifier((features, probabilities) -> {
+            probabilities[Classifier.CLASS_NORMAL] = 0.0f;
+            probabilities[Classifier.CLASS_SHAKE] = 0.0f;
+            probabilities[Classifier.CLASS_FALL] = 1.0f;
+        });
+        feed(10_000, GRAVITY, 0.0f);
+
+        // Desviación de 4 m/s²: pasa la etapa 0 pero queda bajo la compuerta de las reglas
+        feed(500, GRAVITY + 4.0f, 0.0f);
+        assertTrue(detector.getStage2Count() > 0);
+        assertTrue(falls > 0);
+
+        long stage2 = detector.getStage2Count();
+        detector.setClassifier(new FallRuleClassifier());
+        feed(500, GRAVITY + 4.0f, 0.0f);
+        assertEquals(stage2, detector.getStage2Count());
+    }
+
+    @Test
+    public void freeFallAfterIdleIsDetected() {
+        feed(10_000, GRAVITY, 0.0f);
+        feed(1_500, 0.2f, 0.0f);
+
+        assertTrue(falls > 0);
+    }
+
+    /**
+     * Acelerómetro y giroscopio a 100 Hz con valores constantes durante la duración indicada
+     */
+    private void feed(long durationMs, float acceleration, float rotation) {
+        long end = time + durationMs * MS;
+        for (; time < end; time += 10 * MS) {
+            float[] values = {0.0f, 0.0f, acceleration};
+            aligner.onSensorSample(SensorSample.accelerometer(time, values, acceleration, values, acceleration));
+            aligner.onSensorSample(SensorSample.gyroscope(time, new float[]{rotation, 0.0f, 0.0f}, rotation));
+        }
+    }
+}
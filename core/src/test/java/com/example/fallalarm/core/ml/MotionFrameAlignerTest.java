@@ -0,0 +1,127 @@
+package com.example.fallalarm.core.ml;
+
+import com.example.fallalarm.core.sensors.SensorClock;
+import com.example.fallalarm.core.sensors.SensorSample;
+import com.example.fallalarm.core.util.FloatRingBuffer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Los cuadros se emiten en una línea temporal fija y cada eje se interpola por marca de tiempo
+ */
+public class MotionFrameAlignerTest {
+    
+    private static final long MS = SensorClock.NANOS_PER_MILLI;
+    
+    private final List<Long> frameTimes = new ArrayList<>();
+    private final List<float[]> frameValues = new ArrayList<>();
+    
+    private final MotionFrameAligner.FrameListener listener = new MotionFrameAligner.FrameListener() {
+        @Override
+        public void onMotionFrame(FloatRingBuffer frames) {
+            int newest = frames.size() - 1;
+            float[] copy = new float[MotionFrameAligner.FRAME_CHANNELS];
+            for (int channel = 0; channel < copy.length; channel++) {
+                copy[channel] = frames.get(newest, channel);
+            }
+            frameTimes.add(frames.getNewestTimestamp());
+            frameValues.add(copy);
+        }
+    };
+    
+    @Test
+    public void interpolatesBothStreamsOntoFixedTimeline() {
+        MotionFrameAligner aligner = new MotionFrameAligner();
+        aligner.addFrameListener(listener);
+        
+        // Acelerómetro a 100 Hz con rampa en x, giroscopio a 40 Hz con rampa en z
+        for (long t = 0; t <= 200; t += 10) {
+            aligner.onSensorSample(accelerometer(t * MS, t));
+        }
+        for (long t = 0; t <= 200; t += 25) {
+            aligner.onSensorSample(gyroscope(t * MS, t * 2.0f));
+        }
+        
+        assertEquals(5, frameTimes.size());
+        for (int i = 0; i < frameTimes.size(); i++) {
+            long expected = i * MotionFrameAligner.FRAME_PERIOD_NANOS;
+            assertEquals(expected, (long) frameTimes.get(i));
+            float millis = expected / (float) MS;
+            assertEquals(millis, frameValues.get(i)[0], 1e-3f);
+            assertEquals(millis * 2.0f, frameValues.get(i)[5], 1e-3f);
+        }
+    }
+    
+    @Test
+    public void waitsForTheLaggingStream() {
+        MotionFrameAligner aligner = new MotionFrameAligner();
+        aligner.addFrameListener(listener);
+        
+        for (long t = 0; t <= 150; t += 10) {
+            aligner.onSensorSample(accelerometer(t * MS, t));
+        }
+        aligner.onSensorSample(gyroscope(0, 0.0f));
+        assertEquals(1, frameTimes.size());
+        
+        // El giroscopio llega tarde (agrupado); los cuadros se completan entonces sin perder muestras
+        aligner.onSensorSample(gyroscope(120 * MS, 12.0f));
+        assertEquals(3, frameTimes.size());
+        assertEquals(50.0f, frameValues.get(1)[0], 1e-3f);
+        assertEquals(5.0f, frameValues.get(1)[5], 1e-3f);
+        assertEquals(100.0f, frameValues.get(2)[0], 1e-3f);
+        assertEquals(10.0f, frameValues.get(2)[5], 1e-3f);
+    }
+    
+    @Test
+    public void keepsWholeBatchWhileWaitingForTheOtherStream() {
+        MotionFrameAligner aligner = new MotionFrameAligner();
+        aligner.addFrameListener(listener);
+        
+        // Lotes de 1 s a 100 Hz: llega uno completo de cada sensor por turno
+        long batch = MotionFrameAligner.MAX_BATCH_LATENCY_NANOS / MS;
+        for (long start = 0; start < 3 * batch; start += batch) {
+            for (long t = start; t < start + batch; t += 10) {
+                aligner.onSensorSample(accelerometer(t * MS, t));
+            }
+            for (long t = start; t < start + batch; t += 10) {
+                aligner.onSensorSample(gyroscope(t * MS, t * 2.0f));
+            }
+        }
+        
+        assertEquals(3 * batch / 50, frameTimes.size());
+        for (int i = 0; i < frameTimes.size(); i++) {
+            float millis = frameTimes.get(i) / (float) MS;
+            assertEquals(millis, frameValues.get(i)[0], 1e-3f);
+            assertEquals(millis * 2.0f, frameValues.get(i)[5], 1e-3f);
+        }
+    }
+    
+    @Test
+    public void holdsLastValueAcrossGaps() {
+        MotionFrameAligner aligner = new MotionFrameAligner();
+        aligner.addFrameListener(listener);
+        
+        aligner.onSensorSample(accelerometer(0, 1.0f));
+        aligner.onSensorSample(gyroscope(0, 1.0f));
+        aligner.onSensorSample(accelerometer(800 * MS, 9.0f));
+        aligner.onSensorSample(gyroscope(800 * MS, 9.0f));
+        
+        // Dentro del hueco de 800 ms no se interpola: se retiene la muestra anterior
+        assertEquals(1.0f, frameValues.get(4)[0], 0.0f);
+        assertEquals(9.0f, frameValues.get(frameValues.size() - 1)[0], 0.0f);
+    }
+    
+    private static SensorSample accelerometer(long timestamp, float x) {
+        float[] values = {x, 0.0f, 0.0f};
+        return SensorSample.accelerometer(timestamp, values, Math.abs(x), values, Math.abs(x));
+    }
+    
+    private static SensorSample gyroscope(long timestamp, float z) {
+        return SensorSample.gyroscope(timestamp, new float[]{0.0f, 0.0f, z}, Math.abs(z));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.fallalarm.core.replay;
+
+import com.example.fallalarm.core.trace.TraceFormat;
+import com.example.fallalarm.core.trace.TraceRingWriter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Reproducción de trazas sintéticas de reposo y de caída
+ */
+public class TraceReplayerTest {
+
+    private static final long PERIOD = 10_000_000L; // 100 Hz
+    private static final long START = 5_000_000_000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void detectsFallInRecordedTrace() throws Exception {
+        File trace = writeTrace("fall.trace", 400, 100);
+
+        ReplayResult result = new TraceReplayer().replay(trace);
+
+        assertEquals(800, result.getSampleCount());
+        assertEquals(1, result.count(ReplayDetection.Type.FALL));
+        for (ReplayDetection detection : result.getDetections()) {
+            if (detection.getType() == ReplayDetection.Type.FALL) {
+                // Se informa con la marca de tiempo del impacto, no con la hora de reproducción
+                assertEquals(START + 100 * PERIOD, detection.getTimestampNanos());
+            }
+        }
+        assertEquals(399 * PERIOD + 1_000L, result.getTraceDurationNanos());
+    }
+
+    @Test
+    public void restTraceProducesNoFall() throws Exception {
+        File trace = writeTrace("rest.trace", 400, -1);
+
+        ReplayResult result = new TraceReplayer().replay(trace);
+
+        assertEquals(0, result.count(ReplayDetection.Type.FALL));
+        assertEquals(0, result.count(ReplayDetection.Type.INCIDENT));
+    }
+
+    @Test
+    public void replayAllKeepsInputOrderAndIsDeterministic() throws Exception {
+        File fall = writeTrace("fall.trace", 400, 100);
+        File rest = writeTrace("rest.trace", 400, -1);
+        TraceReplayer replayer = new TraceReplayer();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<ReplayResult> results = replayer.replayAll(Arrays.asList(fall, rest, fall), pool);
+
+            assertEquals(3, results.size());
+            assertEquals("fall.trace", results.get(0).getTraceName());
+            assertEquals("rest.trace", results.get(1).getTraceName());
+            assertEquals(1, results.get(0).count(ReplayDetection.Type.FALL));
+            assertEquals(0, results.get(1).count(ReplayDetection.Type.FALL));
+            assertEquals(results.get(0).getDetections().toString(), results.get(2).getDetections().toString());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Teléfono en reposo con un impacto opcional en el instante indicado (muestra -1 = sin impacto)
+     */
+    private File writeTrace(String name, int samples, int impactAt) throws Exception {
+        File file = folder.newFile(name);
+        try (TraceRingWriter writer = TraceRingWriter.open(file, 64 * 1024)) {
+            for (int i = 0; i < samples; i++) {
+                long timestamp = START + i * PERIOD;
+                float z = i == impactAt ? 70.0f : 9.81f;
+                writer.write(TraceFormat.TYPE_ACCELEROMETER, timestamp, 0.0f, 0.0f, z);
+                writer.write(TraceFormat.TYPE_GYROSCOPE, timestamp + 1_000L, 0.0f, 0.0f, 0.0f);
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.fallalarm.core.sensors;
+
+import com.example.fallalarm.core.config.DetectorConfig;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * La detección depende solo de las marcas de tiempo de los eventos, no de cuándo se entregan
+ */
+public class FallDetectorTest {
+    
+    private static final long MS = SensorClock.NANOS_PER_MILLI;
+    
+    private int falls = 0;
+    private int candidates = 0;
+    
+    private final FallDetector.FallDetectionListener listener = new FallDetector.FallDetectionListener() {
+        @Override
+        public void onFallDetected() {
+            falls++;
+        }
+        
+        @Override
+        public void onFreeFallCandidate() {
+            candidates++;
+        }
+    };
+    
+    @Test
+    public void detectsFreeFallFollowedByImpactInsideWindow() {
+        SensorClock clock = new SensorClock();
+        FallDetector detector = new FallDetector(listener, clock);
+        
+        feed(detector, clock, 1_000 * MS, 0.2f);
+        feed(detector, clock, 1_400 * MS, 0.3f);
+        feed(detector, clock, 1_700 * MS, 50.0f);
+        
+        assertEquals(1, candidates);
+        assertEquals(1, falls);
+    }
+    
+    @Test
+    public void ignoresImpactAfterShortFreeFall() {
+        SensorClock clock = new SensorClock();
+        FallDetector detector = new FallDetector(listener, clock);
+        
+        feed(detector, clock, 1_000 * MS, 0.2f);
+        feed(detector, clock, 1_300 * MS, 50.0f);
+        
+        assertEquals(0, falls);
+    }
+    
+    @Test
+    public void ignoresImpactAfterWindowExpires() {
+        SensorClock clock = new SensorClock();
+        FallDetector detector = new FallDetector(listener, clock);
+        
+        feed(detector, clock, 1_000 * MS, 0.2f);
+        feed(detector, clock, 2_600 * MS, 50.0f);
+        
+        assertEquals(0, falls);
+    }
+    
+    @Test
+    public void configSwapWaitsForFreeFallToEnd() {
+        SensorClock clock = new SensorClock();
+        FallDetector detector = new FallDetector(listener, clock);
+        
+        // Publicado a mitad de la caída libre: esta caída se resuelve con el umbral anterior (45)
+        feed(detector, clock, 1_000 * MS, 0.2f);
+        detector.setConfig(DetectorConfig.DEFAULT.toBuilder().setImpactThreshold(60.0f).build());
+        feed(detector, clock, 1_700 * MS, 50.0f);
+        assertEquals(1, falls);
+        
+        // La siguiente ya usa el nuevo umbral
+        feed(detector, clock, 5_000 * MS, 0.2f);
+        feed(detector, clock, 5_700 * MS, 50.0f);
+        assertEquals(1, falls);
+        feed(detector, clock, 9_000 * MS, 0.2f);
+        feed(detector, clock, 9_700 * MS, 65.0f);
+        assertEquals(2, falls);
+    }
+    
+    private static void feed(FallDetector detector, SensorClock clock, long timestamp, float linearMagnitude) {
+        clock.advanceTo(timestamp);
+        float[] linear = {linearMagnitude, 0.0f, 0.0f};
+        detector.onSensorSample(SensorSample.accelerometer(timestamp, linear, linearMagnitude, linear, linearMagnitude));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.fallalarm.core.sensors;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * La ingesta en la JVM produce las mismas muestras derivadas que en el dispositivo
+ */
+public class SampleIngestorTest {
+    
+    private static final long MS = SensorClock.NANOS_PER_MILLI;
+    
+    @Test
+    public void removesGravityAndAdvancesClock() {
+        SampleIngestor ingestor = new SampleIngestor();
+        final List<SensorSample> samples = new ArrayList<>();
+        ingestor.addListener(samples::add);
+        
+        // Dispositivo en reposo: el filtro converge a la gravedad y la aceleración lineal tiende a cero
+        for (int i = 1; i <= 200; i++) {
+            ingestor.onAccelerometer(i * 20 * MS, 0.0f, 0.0f, 9.81f);
+        }
+        ingestor.onGyroscope(4_010 * MS, 0.0f, 3.0f, 4.0f);
+        
+        SensorSample lastAccelerometer = samples.get(199);
+        assertTrue(lastAccelerometer.isAccelerometer());
+        assertEquals(9.81f, lastAccelerometer.getMagnitude(), 1e-4f);
+        assertEquals(0.0f, lastAccelerometer.getLinearMagnitude(), 1e-3f);
+        
+        SensorSample gyroscope = samples.get(200);
+        assertTrue(gyroscope.isGyroscope());
+        assertEquals(5.0f, gyroscope.getMagnitude(), 1e-6f);
+        assertEquals(4_010 * MS, ingestor.getClock().nowNanos());
+    }
+}
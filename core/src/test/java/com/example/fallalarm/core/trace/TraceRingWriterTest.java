@@ -0,0 +1,155 @@
+package com.example.fallalarm.core.trace;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ida y vuelta de la codificación, sobrescritura circular y copias de incidente
+ */
+public class TraceRingWriterTest {
+
+    private static final long PERIOD = 5_000_000L; // 200 Hz
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripsSamplesWithinQuantization() throws Exception {
+        File file = folder.newFile("ring.trace");
+        try (TraceRingWriter writer = TraceRingWriter.open(file, 64 * 1024)) {
+            writeStream(writer, 0, 2_000);
+        }
+
+        Collector collector = new Collector();
+        assertEquals(2_000, TraceReader.read(file, collector));
+        for (int i = 0; i < 2_000; i++) {
+            long timestamp = 1_000_000_000L + (i / 2) * PERIOD + (i % 2) * 1_000L;
+            assertEquals(timestamp, (long) collector.timestamps.get(i));
+            float expected = valueAt(i);
+            float tolerance = i % 2 == 0 ? 0.5f / TraceFormat.ACCELEROMETER_SCALE : 0.5f / TraceFormat.GYROSCOPE_SCALE;
+            assertEquals(expected, collector.values.get(i)[0], tolerance + 1e-6f);
+            assertEquals(collector.accelerometer.get(i), i % 2 == 0);
+        }
+    }
+
+    @Test
+    public void keepsMostRecentBlocksWhenFull() throws Exception {
+        File file = folder.newFile("ring.trace");
+        try (TraceRingWriter writer = TraceRingWriter.open(file, 4 * TraceFormat.DEFAULT_BLOCK_SIZE)) {
+            writeStream(writer, 0, 20_000);
+        }
+
+        Collector collector = new Collector();
+        int count = TraceReader.read(file, collector);
+        assertTrue(count > 0 && count < 20_000);
+        // Lo leído es un sufijo contiguo del flujo que termina en la última muestra
+        long last = collector.timestamps.get(count - 1);
+        assertEquals(1_000_000_000L + (19_999 / 2) * PERIOD + 1_000L, last);
+        for (int i = 1; i < count; i++) {
+            assertTrue(collector.timestamps.get(i) >= collector.timestamps.get(i - 1));
+        }
+    }
+
+    @Test
+    public void snapshotContainsRecentWindowAndReopenAppends() throws Exception {
+        File file = folder.newFile("ring.trace");
+        byte[] snapshot;
+        try (TraceRingWriter writer = TraceRingWriter.open(file, 256 * 1024)) {
+            writeStream(writer, 0, 10_000);
+            long newest = 1_000_000_000L + (9_999 / 2) * PERIOD;
+            snapshot = writer.copyRecent(newest - 2_000_000_000L); // Últimos 2 s
+        }
+
+        Collector recent = new Collector();
+        int count = TraceReader.read(ByteBuffer.wrap(snapshot), recent);
+        assertTrue(count >= 800); // 2 s a 200 Hz por sensor
+        assertTrue(count < 10_000);
+
+        File copy = new File(folder.getRoot(), "incident.trace");
+        TraceRingWriter.writeSnapshot(copy, snapshot);
+        assertEquals(count, TraceReader.read(copy, new Collector()));
+
+        // Al reabrir con la misma geometría se continúa tras el último bloque
+        try (TraceRingWriter writer = TraceRingWriter.open(file, 256 * 1024)) {
+            writeStream(writer, 10_000, 100);
+        }
+        Collector all = new Collector();
+        assertEquals(10_100, TraceReader.read(file, all));
+    }
+
+    @Test
+    public void snapshotStopsAtPreviousBoot() throws Exception {
+        File file = folder.newFile("ring.trace");
+        try (TraceRingWriter writer = TraceRingWriter.open(file, 256 * 1024)) {
+            writeStream(writer, 0, 10_000);
+        }
+
+        // Tras reiniciar el dispositivo el reloj vuelve a empezar, la secuencia de bloques no
+        byte[] snapshot;
+        try (TraceRingWriter writer = TraceRingWriter.open(file, 256 * 1024)) {
+            writeStream(writer, 0, 2_000);
+            snapshot = writer.copyRecent(0);
+        }
+
+        Collector recent = new Collector();
+        assertEquals(2_000, TraceReader.read(ByteBuffer.wrap(snapshot), recent));
+        assertEquals(1_000_000_000L, (long) recent.timestamps.get(0));
+    }
+
+    @Test
+    public void encodesCompactly() throws Exception {
+        File file = folder.newFile("ring.trace");
+        try (TraceRingWriter writer = TraceRingWriter.open(file, 1024 * 1024)) {
+            writeStream(writer, 0, 10_000);
+            byte[] snapshot = writer.copyRecent(0);
+            // Ejes de 4 bytes más marca de 8 serían 20 bytes por muestra
+            assertTrue("bytes por muestra: " + snapshot.length / 10_000.0, snapshot.length < 10_000 * 12);
+        }
+    }
+
+    private static void writeStream(TraceRingWriter writer, int from, int samples) {
+        for (int i = from; i < from + samples; i++) {
+            long timestamp = 1_000_000_000L + (i / 2) * PERIOD + (i % 2) * 1_000L;
+            float value = valueAt(i);
+            if (i % 2 == 0) {
+                writer.write(TraceFormat.TYPE_ACCELEROMETER, timestamp, value, 0.1f, 9.81f);
+            } else {
+                writer.write(TraceFormat.TYPE_GYROSCOPE, timestamp, value, -0.02f, 0.0f);
+            }
+        }
+    }
+
+    private static float valueAt(int i) {
+        return (float) Math.sin(i * 0.01) * (i % 2 == 0 ? 3.0f : 0.5f);
+    }
+
+    private static class Collector implements TraceReader.SampleSink {
+        final List<Long> timestamps = new ArrayList<>();
+        final List<float[]> values = new ArrayList<>();
+        final List<Boolean> accelerometer = new ArrayList<>();
+
+        @Override
+        public void onAccelerometer(long timestampNanos, float x, float y, float z) {
+            add(timestampNanos, x, y, z, true);
+        }
+
+        @Override
+        public void onGyroscope(long timestampNanos, float x, float y, float z) {
+            add(timestampNanos, x, y, z, false);
+        }
+
+        private void add(long timestampNanos, float x, float y, float z, boolean isAccelerometer) {
+            timestamps.add(timestampNanos);
+            values.add(new float[]{x, y, z});
+            accelerometer.add(isAccelerometer);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.fallalarm.core.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Los registros se entregan en orden y sin cambios; al desbordar se pierden los más viejos
+ */
+public class EventRingTest {
+
+    private final List<long[]> records = new ArrayList<>();
+
+    private final EventRing.RecordConsumer consumer = new EventRing.RecordConsumer() {
+        @Override
+        public void onRecord(long timestampNanos, int code, int arg, float value) {
+            records.add(new long[]{timestampNanos, code, arg, Float.floatToIntBits(value)});
+        }
+    };
+
+    @Test
+    public void roundTripsFields() {
+        EventRing ring = new EventRing(8);
+        ring.record(123L, 7, -3, 0.95f);
+        ring.record(456L, 65535, 2, Float.NaN);
+
+        assertEquals(2, ring.drain(consumer));
+        assertArrayEquals(new long[]{123L, 7, -3, Float.floatToIntBits(0.95f)}, records.get(0));
+        assertEquals(65535, records.get(1)[1]);
+        assertTrue(Float.isNaN(Float.intBitsToFloat((int) records.get(1)[3])));
+        assertEquals(0, ring.drain(consumer));
+    }
+
+    @Test
+    public void overwritesOldestWhenConsumerLags() {
+        EventRing ring = new EventRing(4);
+        for (int i = 0; i < 10; i++) {
+            ring.record(i, 1, i, 0.0f);
+        }
+
+        assertEquals(4, ring.drain(consumer));
+        assertEquals(6, ring.getLost());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(6 + i, records.get(i)[0]);
+        }
+    }
+
+    @Test
+    public void concurrentWritersAreAllAccountedFor() throws InterruptedException {
+        final EventRing ring = new EventRing(1024);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            final int code = t;
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    ring.record(i, code, 0, i);
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        long delivered = 0;
+        boolean running = true;
+        while (running) {
+            running = false;
+            for (Thread writer : writers) {
+                running |= writer.isAlive();
+            }
+            delivered += ring.drain(consumer);
+        }
+        delivered += ring.drain(consumer);
+
+        assertEquals(60_000, delivered + ring.getLost());
+        for (long[] record : records) {
+            assertEquals((float) record[0], Float.intBitsToFloat((int) record[3]), 0.0f);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.fallalarm.core.util;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del buffer circular primitivo
+ */
+public class FloatRingBufferTest {
+    
+    @Test
+    public void keepsOnlyNewestSamplesInOrder() {
+        FloatRingBuffer buffer = new FloatRingBuffer(3, 1);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(i * 10L, (float) i);
+        }
+        
+        assertTrue(buffer.isFull());
+        assertEquals(3, buffer.size());
+        assertEquals(3.0f, buffer.get(0, 0), 0.0f);
+        assertEquals(4.0f, buffer.get(1, 0), 0.0f);
+        assertEquals(5.0f, buffer.getNewest(0), 0.0f);
+        assertEquals(30L, buffer.getTimestamp(0));
+        assertEquals(50L, buffer.getNewestTimestamp());
+    }
+    
+    @Test
+    public void storesInterleavedChannels() {
+        FloatRingBuffer buffer = new FloatRingBuffer(2, 6);
+        buffer.add(1L, new float[] {1, 2, 3, 4, 5, 6});
+        buffer.add(2L, new float[] {7, 8, 9, 10, 11, 12});
+        buffer.add(3L, new float[] {13, 14, 15, 16, 17, 18});
+        
+        assertEquals(7.0f, buffer.get(0, 0), 0.0f);
+        assertEquals(12.0f, buffer.get(0, 5), 0.0f);
+        assertEquals(16.0f, buffer.getNewest(3), 0.0f);
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsIndexBeyondSize() {
+        FloatRingBuffer buffer = new FloatRingBuffer(4, 1);
+        buffer.add(1L, 1.0f);
+        buffer.get(1, 0);
+    }
+    
+    @Test
+    public void clearEmptiesBuffer() {
+        FloatRingBuffer buffer = new FloatRingBuffer(2, 1);
+        buffer.add(1L, 1.0f);
+        buffer.clear();
+        assertEquals(0, buffer.size());
+        assertFalse(buffer.isFull());
+    }
+    
+    @Test
+    public void hotPathDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        FloatRingBuffer single = new FloatRingBuffer(20, 1);
+        FloatRingBuffer motion = new FloatRingBuffer(20, 6);
+        float[] frame = {0.1f, 9.8f, 0.2f, 0.01f, 0.02f, 0.03f};
+        
+        // Calentar para que la compilación del JIT no se cuente como reserva del bucle medido
+        float checksum = 0.0f;
+        for (int i = 0; i < 5; i++) {
+            checksum += exercise(single, motion, frame);
+        }
+        threads.getThreadAllocatedBytes(threadId);
+        
+        long before = threads.getThreadAllocatedBytes(threadId);
+        checksum += exercise(single, motion, frame);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        
+        assertTrue(checksum != 0.0f);
+        assertEquals("Bytes reservados en el camino por muestra", 0L, allocated);
+    }
+    
+    private static float exercise(FloatRingBuffer single, FloatRingBuffer motion, float[] frame) {
+        float checksum = 0.0f;
+        for (int i = 0; i < 100_000; i++) {
+            single.add(i, frame[1]);
+            motion.add(i, frame);
+            checksum += single.getNewest(0) + motion.get(0, 4);
+        }
+        return checksum;
+    }
+}
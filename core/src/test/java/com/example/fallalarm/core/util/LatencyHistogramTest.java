@@ -0,0 +1,71 @@
+package com.example.fallalarm.core.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Los percentiles quedan dentro del error relativo de los sub-intervalos y el registro es seguro
+ * desde varios hilos
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentilesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000L, histogram.getMax());
+        assertEquals(50_000_500.0, histogram.getMean(), 1.0);
+        assertRelative(50_000_000L, histogram.getValueAtPercentile(50));
+        assertRelative(99_000_000L, histogram.getValueAtPercentile(99));
+        assertEquals(100_000_000L, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void bucketsCoverTheWholeRange() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            long highest = LatencyHistogram.highestEquivalentValue(LatencyHistogram.bucketIndex(value));
+            assertTrue(highest >= value);
+            assertTrue(highest - value <= value / 16);
+        }
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void concurrentWritersLoseNothing() throws InterruptedException {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final long offset = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    histogram.record(i + offset);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(200_000, histogram.getCount());
+        assertEquals(50_002, histogram.getMax());
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+
+    private static void assertRelative(long expected, long actual) {
+        assertTrue("esperado " + expected + ", obtenido " + actual,
+                Math.abs(actual - expected) <= expected / 16);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.fallalarm.core.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Orden FIFO, rechazo al llenarse y entrega sin pérdidas entre dos hilos
+ */
+public class SpscFrameQueueTest {
+    
+    @Test
+    public void deliversFramesInOrderAndRejectsWhenFull() {
+        SpscFrameQueue queue = new SpscFrameQueue(3, 2);
+        assertTrue(queue.offer(1L, new float[]{1.0f, 10.0f}));
+        assertTrue(queue.offer(2L, new float[]{2.0f, 20.0f}));
+        assertTrue(queue.offer(3L, new float[]{3.0f, 30.0f}));
+        assertFalse(queue.offer(4L, new float[]{4.0f, 40.0f}));
+        assertEquals(3, queue.size());
+        
+        final long[] expected = {1L};
+        int drained = queue.drain(new SpscFrameQueue.FrameConsumer() {
+            @Override
+            public void onFrame(long timestamp, float[] values) {
+                assertEquals(expected[0], timestamp);
+                assertEquals(timestamp, values[0], 0.0f);
+                assertEquals(timestamp * 10.0f, values[1], 0.0f);
+                expected[0]++;
+            }
+        });
+        assertEquals(3, drained);
+        assertTrue(queue.isEmpty());
+        assertTrue(queue.offer(5L, new float[]{5.0f, 50.0f}));
+    }
+    
+    @Test
+    public void skipAllDiscardsPendingFrames() {
+        SpscFrameQueue queue = new SpscFrameQueue(4, 1);
+        queue.offer(1L, new float[]{1.0f});
+        queue.offer(2L, new float[]{2.0f});
+        assertEquals(2, queue.skipAll());
+        assertTrue(queue.isEmpty());
+    }
+    
+    @Test
+    public void transfersAllFramesBetweenThreads() throws InterruptedException {
+        final SpscFrameQueue queue = new SpscFrameQueue(16, 1);
+        final int total = 200_000;
+        final long[] received = {0L};
+        final boolean[] ordered = {true};
+        
+        Thread consumer = new Thread(() -> {
+            SpscFrameQueue.FrameConsumer check = (timestamp, values) -> {
+                if (timestamp != received[0] || values[0] != (float) (timestamp % 1000)) {
+                    ordered[0] = false;
+                }
+                received[0]++;
+            };
+            while (received[0] < total) {
+                if (queue.drain(check) == 0) {
+                    Thread.yield();
+                }
+            }
+        });
+        consumer.start();
+        
+        float[] value = new float[1];
+        for (long i = 0; i < total; i++) {
+            value[0] = i % 1000;
+            while (!queue.offer(i, value)) {
+                Thread.yield();
+            }
+        }
+        consumer.join(10_000);
+        
+        assertFalse(consumer.isAlive());
+        assertEquals(total, received[0]);
+        assertTrue(ordered[0]);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.fallalarm.core.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifica que las estadísticas incrementales coinciden con el recálculo completo de la ventana
+ * (el mismo cálculo que hacían MLFallDetector y MotionPatternAnalyzer muestra a muestra)
+ */
+public class WindowedStatisticsTest {
+    
+    private static final float TOLERANCE = 1e-3f;
+    
+    @Test
+    public void matchesFullRecomputationOnRandomStreams() {
+        int[] windowSizes = {1, 2, 3, 5, 20, 64};
+        for (int windowSize : windowSizes) {
+            assertMatchesReference(windowSize, new Random(42L + windowSize), 5_000);
+        }
+    }
+    
+    @Test
+    public void staysAccurateOnLongStreams() {
+        // Suficientes muestras para atravesar varias resincronizaciones
+        assertMatchesReference(20, new Random(7L), 200_000);
+    }
+    
+    @Test
+    public void handlesConstantAndMonotonicInput() {
+        WindowedStatistics stats = new WindowedStatistics(4);
+        for (int i = 0; i < 10; i++) {
+            stats.add(i, 9.81f);
+        }
+        assertEquals(9.81f, stats.getMean(), TOLERANCE);
+        assertEquals(0.0f, stats.getVariance(), TOLERANCE);
+        assertEquals(0.0f, stats.getDirectionChangeRate(), 0.0f);
+        
+        stats.clear();
+        for (int i = 0; i < 10; i++) {
+            stats.add(i, i);
+        }
+        assertEquals(9.0f, stats.getMax(), 0.0f);
+        assertEquals(6.0f, stats.getMin(), 0.0f);
+        assertEquals(1.0f, stats.getMeanAbsoluteJerk(), TOLERANCE);
+        assertEquals(6L, stats.getOldestTimestamp());
+        assertEquals(9L, stats.getNewestTimestamp());
+    }
+    
+    private static void assertMatchesReference(int windowSize, Random random, int samples) {
+        WindowedStatistics stats = new WindowedStatistics(windowSize);
+        float[] reference = new float[windowSize];
+        int count = 0;
+        
+        for (int i = 0; i < samples; i++) {
+            float value = nextMagnitude(random);
+            stats.add(i, value);
+            if (count < windowSize) {
+                reference[count++] = value;
+            } else {
+                System.arraycopy(reference, 1, reference, 0, windowSize - 1);
+                reference[windowSize - 1] = value;
+            }
+            
+            String where = "ventana " + windowSize + ", muestra " + i;
+            float average = average(reference, count);
+            assertClose(where + " media", average, stats.getMean());
+            assertClose(where + " varianza", variance(reference, count, average), stats.getVariance());
+            assertClose(where + " máximo", max(reference, count), stats.getMax());
+            assertClose(where + " mínimo", min(reference, count), stats.getMin());
+            assertClose(where + " jerk", jerk(reference, count), stats.getMeanAbsoluteJerk());
+            assertClose(where + " cambios", directionChange(reference, count), stats.getDirectionChangeRate());
+        }
+    }
+    
+    /**
+     * Magnitudes similares a las de los sensores: reposo cerca de 1 g con picos ocasionales
+     */
+    private static float nextMagnitude(Random random) {
+        float base = 9.81f + (float) random.nextGaussian();
+        if (random.nextInt(50) == 0) {
+            return base * 5.0f;
+        }
+        if (random.nextInt(80) == 0) {
+            return Math.abs((float) random.nextGaussian() * 0.5f);
+        }
+        return Math.abs(base);
+    }
+    
+    private static void assertClose(String message, float expected, float actual) {
+        float tolerance = TOLERANCE * Math.max(1.0f, Math.abs(expected));
+        assertEquals(message, expected, actual, tolerance);
+    }
+    
+    // Implementaciones de referencia: recorrido completo de la ventana como en el código original
+    
+    private static float average(float[] values, int count) {
+        float sum = 0.0f;
+        for (int i = 0; i < count; i++) sum += values[i];
+        return sum / count;
+    }
+    
+    private static float variance(float[] values, int count, float average) {
+        float sum = 0.0f;
+        for (int i = 0; i < count; i++) {
+            float diff = values[i] - average;
+            sum += diff * diff;
+        }
+        return sum / count;
+    }
+    
+    private static float max(float[] values, int count) {
+        float max = 0.0f;
+        for (int i = 0; i < count; i++) max = Math.max(max, values[i]);
+        return max;
+    }
+    
+    private static float min(float[] values, int count) {
+        float min = Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) min = Math.min(min, values[i]);
+        return min;
+    }
+    
+    private static float jerk(float[] values, int count) {
+        if (count < 2) return 0.0f;
+        float jerkSum = 0.0f;
+        for (int i = 1; i < count; i++) {
+            jerkSum += Math.abs(values[i] - values[i - 1]);
+        }
+        return jerkSum / (count - 1);
+    }
+    
+    private static float directionChange(float[] values, int count) {
+        if (count < 3) return 0.0f;
+        int directionChanges = 0;
+        for (int i = 2; i < count; i++) {
+            float acc1 = values[i - 2];
+            float acc2 = values[i - 1];
+            float acc3 = values[i];
+            if ((acc2 > acc1 && acc2 > acc3) || (acc2 < acc1 && acc2 < acc3)) {
+                directionChanges++;
+            }
+        }
+        return (float) directionChanges / (count - 2);
+    }
+}
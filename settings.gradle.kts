@@ -21,3 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "FallAlarm"
 include(":app")
+include(":core")
+include(":benchmarks")
+include(":tools")
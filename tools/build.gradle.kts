@@ -0,0 +1,22 @@
+plugins {
+    application
+}
+
+// Herramientas de línea de comandos sobre el núcleo de detección (sin dispositivo)
+// Ejecutar con: ./gradlew :tools:run --args="replay trazas/*.trace"
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
+
+application {
+    mainClass.set("com.example.fallalarm.tools.FallAlarmTools")
+}
+
+dependencies {
+    implementation(project(":core"))
+}
@@ -0,0 +1,287 @@
+package com.example.fallalarm.tools;
+
+import com.example.fallalarm.core.config.DetectorConfig;
+import com.example.fallalarm.core.eval.CorpusEvaluator;
+import com.example.fallalarm.core.eval.DetectorScore;
+import com.example.fallalarm.core.eval.EvaluationReport;
+import com.example.fallalarm.core.eval.ThresholdTuner;
+import com.example.fallalarm.core.eval.TraceLabels;
+import com.example.fallalarm.core.replay.ReplayDetection;
+import com.example.fallalarm.core.replay.ReplayResult;
+import com.example.fallalarm.core.replay.TraceReplayer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Punto de entrada de las herramientas de escritorio
+ *
+ *   replay <traza...>          reproduce trazas e imprime las detecciones en TSV
+ *   evaluate <dir|traza...>    evalúa un corpus etiquetado (ver TraceLabels)
+ *   tune <dir|traza...> --param clave=v1,v2,... [--objective TIPO] [--out dir]
+ *                              barre parámetros y escribe la frontera de Pareto como perfiles
+ *
+ * Opciones comunes: --threads N, --config perfil.properties (configuración base de los detectores)
+ */
+public final class FallAlarmTools {
+    
+    private FallAlarmTools() {
+    }
+    
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            usage();
+            System.exit(2);
+        }
+        try {
+            switch (args[0]) {
+                case "replay":
+                    replay(args);
+                    break;
+                case "evaluate":
+                    evaluate(args);
+                    break;
+                case "tune":
+                    tune(args);
+                    break;
+                default:
+                    usage();
+                    System.exit(2);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    private static void replay(String[] args) throws IOException {
+        Options options = Options.parse(args);
+        List<File> traces = options.paths;
+        int threads = options.threads;
+        
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<ReplayResult> results;
+        long start = System.nanoTime();
+        try {
+            results = new TraceReplayer(options.config).replayAll(traces, pool);
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        
+        // Detecciones: traza, tipo, segundos desde el inicio de la traza, confianza
+        System.out.println("trace\ttype\tt_s\tconfidence");
+        long totalSamples = 0;
+        long totalDuration = 0;
+        for (ReplayResult result : results) {
+            for (ReplayDetection detection : result.getDetections()) {
+                System.out.println(String.format(Locale.US, "%s\t%s\t%.3f\t%.3f",
+                        result.getTraceName(), detection.getType(),
+                        (detection.getTimestampNanos() - result.getFirstTimestampNanos()) / 1e9,
+                        detection.getConfidence()));
+            }
+            totalSamples += result.getSampleCount();
+            totalDuration += result.getTraceDurationNanos();
+        }
+        
+        System.err.println();
+        for (ReplayResult result : results) {
+            System.err.println(String.format(Locale.US,
+                    "%s: %d muestras, %.1f s de traza en %.1f ms (x%.0f), %d caídas, %d incidentes",
+                    result.getTraceName(), result.getSampleCount(),
+                    result.getTraceDurationNanos() / 1e9, result.getWallTimeNanos() / 1e6,
+                    result.getSpeedup(), result.count(ReplayDetection.Type.FALL),
+                    result.count(ReplayDetection.Type.INCIDENT)));
+        }
+        System.err.println(String.format(Locale.US,
+                "Total: %d trazas, %d muestras, %.1f s de traza en %.1f ms con %d hilos",
+                results.size(), totalSamples, totalDuration / 1e9, elapsed / 1e6, threads));
+    }
+    
+    private static void evaluate(String[] args) throws IOException {
+        Options options = Options.parse(args);
+        List<File> traces = options.traces();
+        int threads = options.threads;
+        
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        EvaluationReport report;
+        long start = System.nanoTime();
+        try {
+            report = new CorpusEvaluator(options.config).evaluate(traces, pool);
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        
+        double hours = report.getDurationNanos() / 3.6e12;
+        System.out.println(String.format(Locale.US,
+                "%d trazas (%d caídas, %d sacudidas, %d ADL), %.2f h, %d muestras",
+                report.getTraceCount(), report.getTraceCount(TraceLabels.TraceClass.FALL),
+                report.getTraceCount(TraceLabels.TraceClass.SHAKE), report.getTraceCount(TraceLabels.TraceClass.ADL),
+                hours, report.getSampleCount()));
+        System.out.println();
+        System.out.println("detector\ttp\tfp\tfn\tprecision\trecall\tfa_per_h\tlat_p50_ms\tlat_p90_ms\tlat_p99_ms\tlat_max_ms");
+        for (ReplayDetection.Type type : EvaluationReport.SCORED_TYPES) {
+            DetectorScore score = report.getScore(type);
+            System.out.println(String.format(Locale.US, "%s\t%d\t%d\t%d\t%.3f\t%.3f\t%.2f\t%s\t%s\t%s\t%s",
+                    type, score.getTruePositives(), score.getFalsePositives(), score.getFalseNegatives(),
+                    score.getPrecision(), score.getRecall(), score.getFalseAlarmsPerHour(report.getDurationNanos()),
+                    latency(score, 50), latency(score, 90), latency(score, 99), latency(score, 100)));
+        }
+        System.err.println();
+        System.err.println(String.format(Locale.US, "Evaluado en %.1f s con %d hilos (x%.0f sobre tiempo real)",
+                elapsed / 1e9, threads, elapsed == 0 ? 0.0 : (double) report.getDurationNanos() / elapsed));
+    }
+    
+    private static void tune(String[] args) throws IOException {
+        Options options = Options.parse(args);
+        if (options.parameters.isEmpty()) {
+            throw new IllegalArgumentException("Indique al menos un --param");
+        }
+        List<File> traces = options.traces();
+        List<DetectorConfig> configs = ThresholdTuner.grid(options.config, options.parameters);
+        ThresholdTuner tuner = new ThresholdTuner(options.objective);
+        
+        ForkJoinPool pool = new ForkJoinPool(options.threads);
+        List<ThresholdTuner.Candidate> candidates;
+        long start = System.nanoTime();
+        try {
+            List<ThresholdTuner.LabeledStream> corpus = ThresholdTuner.load(traces, pool);
+            System.err.println(String.format(Locale.US, "%d trazas en caché en %.1f s; %d configuraciones",
+                    corpus.size(), (System.nanoTime() - start) / 1e9, configs.size()));
+            candidates = tuner.evaluate(configs, corpus, pool);
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        List<ThresholdTuner.Candidate> frontier = tuner.paretoFrontier(candidates);
+        
+        // Frontera de Pareto: una fila por perfil, con los parámetros barridos
+        StringBuilder header = new StringBuilder("profile\tfa_per_h\trecall\tprecision\tlat_p50_ms");
+        for (String key : options.parameters.keySet()) {
+            header.append('\t').append(key);
+        }
+        System.out.println(header);
+        if (options.out != null && !options.out.isDirectory() && !options.out.mkdirs()) {
+            throw new IOException("No se pudo crear " + options.out);
+        }
+        for (int i = 0; i < frontier.size(); i++) {
+            ThresholdTuner.Candidate candidate = frontier.get(i);
+            DetectorScore score = candidate.getReport().getScore(options.objective);
+            String name = String.format(Locale.US, "profile-%02d", i);
+            StringBuilder row = new StringBuilder(String.format(Locale.US, "%s\t%.3f\t%.3f\t%.3f\t%s",
+                    name, candidate.getFalseAlarmsPerHour(options.objective), candidate.getRecall(options.objective),
+                    score.getPrecision(), latency(score, 50)));
+            for (String key : options.parameters.keySet()) {
+                row.append('\t').append(candidate.getConfig().get(key));
+            }
+            System.out.println(row);
+            if (options.out != null) {
+                try (Writer writer = new OutputStreamWriter(
+                        new FileOutputStream(new File(options.out, name + ".properties")), StandardCharsets.UTF_8)) {
+                    candidate.getConfig().store(writer, String.format(Locale.US, "%s: %.3f falsas alarmas/h, sensibilidad %.3f",
+                            options.objective, candidate.getFalseAlarmsPerHour(options.objective),
+                            candidate.getRecall(options.objective)));
+                }
+            }
+        }
+        System.err.println();
+        System.err.println(String.format(Locale.US, "%d configuraciones, %d en la frontera, %.1f s con %d hilos",
+                candidates.size(), frontier.size(), elapsed / 1e9, options.threads));
+    }
+    
+    private static String latency(DetectorScore score, double percentile) {
+        if (score.getTruePositives() == 0) {
+            return "-";
+        }
+        return String.format(Locale.US, "%.0f", score.getLatencyPercentile(percentile) / 1e6);
+    }
+    
+    private static void usage() {
+        System.err.println("Uso: fallalarm-tools replay <traza...> [opciones]");
+        System.err.println("     fallalarm-tools evaluate <directorio|traza...> [opciones]");
+        System.err.println("     fallalarm-tools tune <directorio|traza...> --param clave=v1,v2,... [--objective TIPO] [--out dir]");
+        System.err.println("Opciones: --threads N, --config perfil.properties");
+        System.err.println("Claves: " + String.join(", ", DetectorConfig.KEYS));
+    }
+    
+    /**
+     * Argumentos comunes de los comandos
+     */
+    private static final class Options {
+        final List<File> paths = new ArrayList<>();
+        final Map<String, List<String>> parameters = new LinkedHashMap<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        DetectorConfig config = DetectorConfig.DEFAULT;
+        ReplayDetection.Type objective = ReplayDetection.Type.INCIDENT;
+        File out;
+        
+        static Options parse(String[] args) throws IOException {
+            Options options = new Options();
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+                boolean hasValue = i + 1 < args.length;
+                if ("--threads".equals(arg) && hasValue) {
+                    options.threads = Integer.parseInt(args[++i]);
+                } else if ("--config".equals(arg) && hasValue) {
+                    try (Reader reader = new InputStreamReader(new FileInputStream(args[++i]), StandardCharsets.UTF_8)) {
+                        options.config = DetectorConfig.load(reader);
+                    }
+                } else if ("--param".equals(arg) && hasValue) {
+                    String[] parameter = args[++i].split("=", 2);
+                    if (parameter.length != 2 || parameter[1].isEmpty()) {
+                        throw new IllegalArgumentException("Parámetro mal formado: " + args[i]);
+                    }
+                    DetectorConfig.DEFAULT.get(parameter[0]); // Valida la clave
+                    options.parameters.put(parameter[0], Arrays.asList(parameter[1].split(",")));
+                } else if ("--objective".equals(arg) && hasValue) {
+                    options.objective = ReplayDetection.Type.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                } else if ("--out".equals(arg) && hasValue) {
+                    options.out = new File(args[++i]);
+                } else {
+                    options.paths.add(new File(arg));
+                }
+            }
+            if (options.paths.isEmpty() || options.threads < 1) {
+                throw new IllegalArgumentException("Faltan trazas o el número de hilos no es válido");
+            }
+            return options;
+        }
+        
+        /**
+         * Rutas con los directorios expandidos a las trazas que contienen
+         */
+        List<File> traces() {
+            List<File> traces = new ArrayList<>();
+            for (File path : paths) {
+                if (path.isDirectory()) {
+                    traces.addAll(CorpusEvaluator.findTraces(path));
+                } else {
+                    traces.add(path);
+                }
+            }
+            if (traces.isEmpty()) {
+                throw new IllegalArgumentException("No se encontraron trazas");
+            }
+            return traces;
+        }
+    }
+}